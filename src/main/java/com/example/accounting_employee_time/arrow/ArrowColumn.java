@@ -0,0 +1,126 @@
+package com.example.accounting_employee_time.arrow;
+
+import lombok.Getter;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Колонка экспорта в формате Apache Arrow: поле схемы и запись значения строки в вектор.
+ * Значения пишутся в нативные векторы (int64, int32, date32, utf8) без промежуточного текстового представления.
+ *
+ * @param <R> тип экспортируемой строки
+ */
+public final class ArrowColumn<R> {
+
+    /**
+     * Поле схемы Arrow.
+     */
+    @Getter
+    private final Field field;
+
+    private final ValueWriter<R> writer;
+
+    private ArrowColumn(String name, ArrowType type, ValueWriter<R> writer) {
+        this.field = Field.nullable(name, type);
+        this.writer = writer;
+    }
+
+    /**
+     * Колонка 64-битных целых (идентификаторы).
+     *
+     * @param name имя колонки
+     * @param getter значение строки (может быть null)
+     * @return колонка int64
+     */
+    public static <R> ArrowColumn<R> int64(String name, Function<R, Long> getter) {
+        return new ArrowColumn<>(name, new ArrowType.Int(64, true), (vector, index, row) -> {
+            Long value = getter.apply(row);
+            if (value == null) {
+                ((BigIntVector) vector).setNull(index);
+            } else {
+                ((BigIntVector) vector).setSafe(index, value);
+            }
+        });
+    }
+
+    /**
+     * Колонка 32-битных целых (например, минуты).
+     *
+     * @param name имя колонки
+     * @param getter значение строки (может быть null)
+     * @return колонка int32
+     */
+    public static <R> ArrowColumn<R> int32(String name, Function<R, Integer> getter) {
+        return new ArrowColumn<>(name, new ArrowType.Int(32, true), (vector, index, row) -> {
+            Integer value = getter.apply(row);
+            if (value == null) {
+                ((IntVector) vector).setNull(index);
+            } else {
+                ((IntVector) vector).setSafe(index, value);
+            }
+        });
+    }
+
+    /**
+     * Колонка дат: число дней от 1970-01-01 (date32).
+     *
+     * @param name имя колонки
+     * @param getter значение строки (может быть null)
+     * @return колонка date32
+     */
+    public static <R> ArrowColumn<R> date32(String name, Function<R, LocalDate> getter) {
+        return new ArrowColumn<>(name, new ArrowType.Date(DateUnit.DAY), (vector, index, row) -> {
+            LocalDate value = getter.apply(row);
+            if (value == null) {
+                ((DateDayVector) vector).setNull(index);
+            } else {
+                ((DateDayVector) vector).setSafe(index, Math.toIntExact(value.toEpochDay()));
+            }
+        });
+    }
+
+    /**
+     * Колонка строк в UTF-8.
+     *
+     * @param name имя колонки
+     * @param getter значение строки (может быть null)
+     * @return колонка utf8
+     */
+    public static <R> ArrowColumn<R> utf8(String name, Function<R, String> getter) {
+        return new ArrowColumn<>(name, new ArrowType.Utf8(), (vector, index, row) -> {
+            String value = getter.apply(row);
+            if (value == null) {
+                ((VarCharVector) vector).setNull(index);
+            } else {
+                ((VarCharVector) vector).setSafe(index, value.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    /**
+     * Записывает значение строки в вектор этой колонки. Вектор растёт при необходимости.
+     *
+     * @param vector вектор, созданный по {@link #getField()}
+     * @param index номер строки в текущем batch'е
+     * @param row экспортируемая строка
+     */
+    public void write(FieldVector vector, int index, R row) {
+        writer.write(vector, index, row);
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter<R> {
+
+        void write(FieldVector vector, int index, R row);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.accounting_employee_time.arrow;
+
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+
+import java.util.List;
+
+/**
+ * Схема экспорта записей времени в Apache Arrow.
+ * В отличие от CSV, время хранится в исходных минутах (int32), а не в часах с дробной частью,
+ * даты — как date32, идентификаторы — как int64.
+ */
+public final class TimeEntryArrowColumns {
+
+    /**
+     * Колонки в порядке CSV-экспорта.
+     */
+    public static final List<ArrowColumn<TimeEntryExportRow>> COLUMNS = List.of(
+            ArrowColumn.int64("created_by_id", TimeEntryExportRow::getCreatedById),
+            ArrowColumn.int64("employee_id", TimeEntryExportRow::getEmployeeId),
+            ArrowColumn.date32("work_date", TimeEntryExportRow::getWorkDate),
+            ArrowColumn.utf8("created_by_name", TimeEntryExportRow::getCreatedByName),
+            ArrowColumn.utf8("employee_name", TimeEntryExportRow::getEmployeeName),
+            ArrowColumn.int32("worked_minutes", TimeEntryExportRow::getWorkedMinutes)
+    );
+
+    private TimeEntryArrowColumns() {
+    }
+}
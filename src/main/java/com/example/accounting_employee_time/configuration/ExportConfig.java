@@ -0,0 +1,74 @@
+package com.example.accounting_employee_time.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Настройка пула потоков параллельного экспорта и памяти экспорта в Apache Arrow.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ExportConfig {
+
+    private final ExportProperties exportProperties;
+
+    /**
+     * Пул, в котором шарды параллельного экспорта читаются из БД и сериализуются в CSV.
+     * Каждый поток занимает своё соединение, поэтому размер пула ограничен {@link ExportProperties#getParallelism()}.
+     *
+     * @return исполнитель шардов экспорта
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportShardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportProperties.getParallelism());
+        executor.setMaxPoolSize(exportProperties.getParallelism());
+        executor.setThreadNamePrefix("export-shard-");
+        return executor;
+    }
+
+    /**
+     * Разрешения на использование {@code exportShardExecutor}: экспорт без разрешения не ждёт пул,
+     * а формируется последовательно. Так потоки, ждущие шарды, не могут занять все соединения,
+     * нужные самим шардам.
+     *
+     * @param dataSource источник соединений (для проверки размера пула)
+     * @return разрешения на параллельный экспорт
+     */
+    @Bean
+    public Semaphore exportShardPermits(DataSource dataSource) {
+        int permits = exportProperties.getMaxParallelExports();
+        if (dataSource instanceof HikariDataSource hikari
+                && permits + exportProperties.getParallelism() > hikari.getMaximumPoolSize()) {
+            log.warn("app.export.max-parallel-exports ({}) + app.export.parallelism ({}) exceeds the connection pool size ({}), "
+                            + "parallel exports may wait for connections",
+                    permits, exportProperties.getParallelism(), hikari.getMaximumPoolSize());
+        }
+        return new Semaphore(permits);
+    }
+
+    /**
+     * Корневой распределитель памяти Apache Arrow. Каждый экспорт берёт из него дочерний
+     * распределитель, так что буферы векторов освобождаются вместе с ним.
+     * Создаётся при первом экспорте в Arrow: без {@code --add-opens=java.base/java.nio} он не инициализируется,
+     * и это не должно мешать запуску приложения.
+     *
+     * @return распределитель памяти Arrow
+     */
+    @Lazy
+    @Bean(destroyMethod = "close")
+    public BufferAllocator arrowAllocator() {
+        return new RootAllocator();
+    }
+}
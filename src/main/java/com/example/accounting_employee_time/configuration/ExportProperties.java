@@ -0,0 +1,68 @@
+package com.example.accounting_employee_time.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки экспорта записей рабочего времени в файлы.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.export")
+@Data
+public class ExportProperties {
+
+    /**
+     * Сохранять сформированные файлы экспорта на диск и отдавать их повторно, пока данные не изменились.
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * Каталог кэша экспорта и файлов докачки. Содержимое каталога удаляется при старте приложения.
+     */
+    private Path cacheDir = Path.of(System.getProperty("java.io.tmpdir"), "time-entry-export-cache");
+
+    /**
+     * Максимальный суммарный размер файлов кэша; при превышении удаляются давно не использованные.
+     */
+    private DataSize cacheMaxSize = DataSize.ofMegabytes(512);
+
+    /**
+     * Файлы экспорта больше этого размера не кэшируются; их копия хранится как файл докачки ({@link #resumeTtl}).
+     */
+    private DataSize cacheMaxEntrySize = DataSize.ofMegabytes(64);
+
+    /**
+     * Сколько хранить копию экспорта, не попавшего в кэш (больше {@link #cacheMaxEntrySize} или при выключенном
+     * кэше), чтобы прерванную загрузку можно было продолжить заголовком Range. После обрыва загрузки такой экспорт
+     * дописывается в копию. 0 — копии не хранятся, обрыв прекращает формирование экспорта.
+     */
+    private Duration resumeTtl = Duration.ofMinutes(10);
+
+    /**
+     * Строить в фоне сжатые снимки закрытых месяцев по сотрудникам и собирать из них экспорт.
+     */
+    private boolean snapshotEnabled = true;
+
+    /**
+     * Каталог снимков закрытых месяцев. Содержимое каталога удаляется при старте приложения.
+     */
+    private Path snapshotDir = Path.of(System.getProperty("java.io.tmpdir"), "time-entry-export-snapshots");
+
+    /**
+     * Количество потоков (и соединений с БД) параллельного экспорта ({@code mode=PARALLEL}) и архивов.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Сколько экспортов одновременно могут раздавать работу пулу {@code exportShardExecutor}; остальные
+     * формируются последовательно в своём потоке. Поток такого экспорта ждёт шарды и может держать соединение
+     * с БД, поэтому сумма этого значения и {@link #parallelism} не должна превышать размер пула соединений:
+     * иначе шардам может не хватить соединений.
+     */
+    private int maxParallelExports = 2;
+}
@@ -0,0 +1,51 @@
+package com.example.accounting_employee_time.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Настройка пулов потоков импорта: фоновых заданий и параллельного парсинга файлов,
+ * а также планировщика очистки завершённых заданий.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ImportJobConfig {
+
+    private final ImportProperties importProperties;
+
+    /**
+     * Ограниченный пул для фоновых заданий импорта.
+     * Размер пула и очереди фиксированы, при переполнении очереди задание отклоняется (TaskRejectedException).
+     *
+     * @return исполнитель заданий импорта
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importProperties.getJobPoolSize());
+        executor.setMaxPoolSize(importProperties.getJobPoolSize());
+        executor.setQueueCapacity(importProperties.getJobQueueCapacity());
+        executor.setThreadNamePrefix("import-job-");
+        return executor;
+    }
+
+    /**
+     * Пул для параллельного парсинга диапазонов CSV-файлов.
+     * Отдельный от общего ForkJoinPool, чтобы парсинг не конкурировал с parallel stream'ами приложения.
+     *
+     * @return пул парсинга
+     */
+    @Bean
+    public ForkJoinPool csvParsePool() {
+        int parallelism = importProperties.getParseParallelism() > 0
+                ? importProperties.getParseParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+}
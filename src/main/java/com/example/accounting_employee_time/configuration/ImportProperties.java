@@ -0,0 +1,65 @@
+package com.example.accounting_employee_time.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки импорта записей рабочего времени из файлов.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.import")
+@Data
+public class ImportProperties {
+
+    /**
+     * Количество строк файла, которые разбираются, проверяются и сохраняются за один шаг.
+     * Ограничивает объём памяти, занимаемый импортом, независимо от размера файла.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Максимальное количество отклонённых строк, перечисляемых в отчёте об импорте.
+     */
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Количество потоков, одновременно выполняющих фоновые задания импорта.
+     */
+    private int jobPoolSize = 2;
+
+    /**
+     * Сколько заданий может ожидать свободного потока. Сверх этого новые задания отклоняются.
+     */
+    private int jobQueueCapacity = 10;
+
+    /**
+     * Сколько хранить результат завершённого задания, после чего он удаляется из памяти.
+     */
+    private Duration jobTtl = Duration.ofHours(1);
+
+    /**
+     * Разбирать сохранённый на диск файл параллельно, диапазонами, в пуле {@code csvParsePool}.
+     */
+    private boolean parallelParse = true;
+
+    /**
+     * Количество потоков параллельного парсинга; 0 — по числу доступных процессоров.
+     */
+    private int parseParallelism = 0;
+
+    /**
+     * Разбирать типичные строки файла записей времени специализированным разборщиком прямо из байт,
+     * а не через Jackson. Необычные строки всё равно разбираются через Jackson.
+     */
+    private boolean fastTokenizer = true;
+
+    /**
+     * Максимальный размер распакованного содержимого сжатого файла ({@code .csv.gz}).
+     * Файл, который распаковывается в больший объём, отклоняется, не заполняя диск и не занимая парсер.
+     */
+    private DataSize maxDecompressedSize = DataSize.ofGigabytes(1);
+}
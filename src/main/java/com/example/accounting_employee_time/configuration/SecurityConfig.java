@@ -48,6 +48,9 @@ public class SecurityConfig {
                     .requestMatchers("/auth/**").permitAll()
                     .requestMatchers("/entry").hasAnyRole("ADMIN", "USER")
                     .requestMatchers("/employees").hasRole("ADMIN")
+                    // Метрики раскрывают внутреннее состояние приложения, health доступен любому пользователю
+                    .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .anyRequest().authenticated()
             )
             .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
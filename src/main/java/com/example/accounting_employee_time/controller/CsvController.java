@@ -1,15 +1,24 @@
 package com.example.accounting_employee_time.controller;
 
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.dto.ImportJobDTO;
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
 import com.example.accounting_employee_time.entity.EmployeeEntity;
 import com.example.accounting_employee_time.parseCSV.FileExtension;
-import com.example.accounting_employee_time.parseCSV.CsvTimeEntryParsingMapper;
-import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
 import com.example.accounting_employee_time.service.EmployeeService;
-import com.example.accounting_employee_time.service.FileProcessService;
-import com.example.accounting_employee_time.service.TimeEntryService;
-import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.service.ExportCacheService.ExportFile;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.ImportJobService;
+import com.example.accounting_employee_time.service.TimeEntryBundleExportService;
+import com.example.accounting_employee_time.service.TimeEntryBundleExportService.Bundle;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import com.example.accounting_employee_time.service.TimeEntryImportService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,10 +28,13 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Контроллер для импорта и экспорта записей учёта времени в формате CSV.
@@ -35,89 +47,168 @@ import java.util.List;
 @Slf4j
 public class CsvController {
 
-    private final TimeEntryService timeEntryService;
     private final EmployeeService employeeService;
-    private final FileProcessService fileProcessService;
-    private final CsvTimeEntryParsingMapper parsingMapper;
+    private final TimeEntryImportService timeEntryImportService;
+    private final ImportJobService importJobService;
+    private final TimeEntryExportService timeEntryExportService;
+    private final TimeEntryBundleExportService timeEntryBundleExportService;
 
     /**
      * Импорт записей времени из CSV-файла.
      * Каждая строка проверяется по бизнес-правилам: можно импортировать только свои записи.
+     * Файл обрабатывается потоково, порциями ограниченного размера.
+     * Невалидные строки и дубликаты не прерывают импорт и перечисляются в отчёте.
      *
-     * @param file CSV-файл, содержащий записи времени
-     * @return HTTP 200 OK при успешном импорте, или HTTP 403 Forbidden, если попытка импортировать чужие записи
+     * @param file CSV-файл (или сжатый gzip {@code .csv.gz}), содержащий записи времени
+     * @param mode способ сохранения: STANDARD (Hibernate) или COPY (массовая загрузка через временную таблицу)
+     * @return HTTP 200 OK и отчёт об импорте, или HTTP 403 Forbidden, если попытка импортировать чужие записи
      */
     @PostMapping("/import")
-    public ResponseEntity<String> importTimeEntries(@RequestPart MultipartFile file) {
+    public ResponseEntity<?> importTimeEntries(@RequestPart MultipartFile file,
+                                               @RequestParam(defaultValue = "STANDARD") ImportMode mode) {
         log.debug("Importing time entries started");
         EmployeeEntity currentUser = employeeService.getCurrentEmployee();
 
-        List<TimeEntryParsingData> parsedList = fileProcessService.parseFileWithHeader(
-                TimeEntryParsingData.class,
-                file,
-                FileExtension.CSV
-        );
-
-        List<TimeEntryDTO> dtoList = new ArrayList<>();
-
         try {
-            for (TimeEntryParsingData data : parsedList) {
-                TimeEntryDTO dto = parsingMapper.toDto(data, currentUser); // может выбросить AccessDeniedException
-                log.info("Импортируем: сотрудник={}, дата={}, часы={}", dto.getEmployee().getId(), dto.getWorkDate(), dto.getHoursWorked());
-                dtoList.add(dto);
-            }
+            ImportReport report = timeEntryImportService.importFile(file, currentUser, mode);
+            return ResponseEntity.ok(report);
         } catch (AccessDeniedException ex) {
             log.warn("Попытка импортировать чужую запись: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
         }
+    }
 
-        dtoList.forEach(dto -> timeEntryService.create(dto, currentUser.getEmployeeName()));
-        return ResponseEntity.ok("Импорт успешно завершён: загружено " + dtoList.size() + " записей");
+    /**
+     * Фоновый импорт записей времени из CSV-файла.
+     * Файл сохраняется на диск и ставится в очередь, ответ возвращается сразу.
+     * Прогресс и результат доступны по адресу из заголовка Location.
+     *
+     * @param file CSV-файл (или сжатый gzip {@code .csv.gz}), содержащий записи времени
+     * @param mode способ сохранения: STANDARD (Hibernate) или COPY (массовая загрузка через временную таблицу)
+     * @return HTTP 202 Accepted и состояние задания, или HTTP 503 Service Unavailable, если очередь заданий заполнена
+     */
+    @PostMapping("/import/async")
+    public ResponseEntity<?> importTimeEntriesAsync(@RequestPart MultipartFile file,
+                                                    @RequestParam(defaultValue = "STANDARD") ImportMode mode) {
+        log.debug("Async import of time entries requested");
+        EmployeeEntity currentUser = employeeService.getCurrentEmployee();
+
+        try {
+            ImportJobDTO job = importJobService.submit(file, currentUser, mode);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                                                      .path("/csv/import/jobs/{id}")
+                                                      .buildAndExpand(job.getId())
+                                                      .toUri();
+            return ResponseEntity.accepted()
+                                 .location(location)
+                                 .body(job);
+        } catch (TaskRejectedException ex) {
+            log.warn("Очередь заданий импорта заполнена: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Очередь импорта заполнена, повторите позже");
+        }
     }
 
     /**
-     * Экспорт записей времени в CSV-файл.
+     * Состояние фонового задания импорта: прогресс (прочитано, сохранено, отклонено строк, скорость) и итоговый отчёт.
+     *
+     * @param id идентификатор задания
+     * @return HTTP 200 OK и состояние задания, HTTP 404 Not Found, если задание не найдено или удалено по сроку хранения,
+     * или HTTP 403 Forbidden, если задание принадлежит другому сотруднику
+     */
+    @GetMapping("/import/jobs/{id}")
+    public ResponseEntity<?> getImportJob(@PathVariable UUID id) {
+        EmployeeEntity currentUser = employeeService.getCurrentEmployee();
+
+        try {
+            return ResponseEntity.ok(importJobService.getJob(id, currentUser));
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (AccessDeniedException ex) {
+            log.warn("Попытка получить чужое задание импорта: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+        }
+    }
+
+    /**
+     * Экспорт записей времени в CSV-файл или в файл Apache Arrow IPC.
      * Пользователь получает доступ только к тем записям, к которым у него есть права.
+     * Если готового файла нет, экспорт пишется клиенту по мере чтения из БД со слабым ETag версии данных,
+     * а его копия сохраняется в кэш или, если в кэш не помещается, как файл докачки. Готовый файл отдаётся
+     * с сильным ETag, а прерванную загрузку можно продолжить запросом с заголовком Range. Если на запрос с Range
+     * готового файла нет, файл дожидается дописываемой копии или формируется заново уже в теле ответа.
+     * Повторный запрос с If-None-Match, совпадающим с любым из этих ETag, получает 304 Not Modified,
+     * пока данные не изменились.
+     * Клиенту, принимающему gzip (Accept-Encoding), файл отдаётся сжатым, если не запрошен диапазон.
      *
      * @param employeeIds список ID сотрудников для фильтрации (необязательно)
      * @param startDate дата начала периода (необязательно)
      * @param endDate дата окончания периода (необязательно)
-     * @return HTTP 200 OK и CSV-файл со строками, или пустой файл, если данных нет
+     * @param mode способ формирования: STANDARD (Jackson), COPY (файл формирует PostgreSQL)
+     *             или PARALLEL (шарды сотрудников читаются параллельно)
+     * @param format формат файла: CSV или ARROW (Apache Arrow IPC, поток record batch'ей; mode не учитывается)
+     * @param requestHeaders заголовки запроса (If-None-Match, Range, If-Range, Accept-Encoding)
+     * @param response ответ сервлета: статус и заголовки ответа на Range без готового файла выставляет тело ответа
+     * @return HTTP 200 OK и файл (CSV пустой, если данных нет), HTTP 206 Partial Content для диапазона,
+     * HTTP 304 Not Modified или HTTP 416 Range Not Satisfiable
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportTimeEntries(
+    public ResponseEntity<StreamingResponseBody> exportTimeEntries(
             @RequestParam(required = false) List<Long> employeeIds,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "STANDARD") ExportMode mode,
+            @RequestParam(defaultValue = "CSV") FileExtension format,
+            @RequestHeader HttpHeaders requestHeaders,
+            HttpServletResponse response
     ) {
-        log.debug("Exporting time entries started for employeeIds={}, startDate={}, endDate={}", employeeIds, startDate, endDate);
+        log.debug("Exporting time entries started for employeeIds={}, startDate={}, endDate={}, mode={}, format={}",
+                employeeIds, startDate, endDate, mode, format);
         EmployeeEntity currentUser = employeeService.getCurrentEmployee();
 
-        // Получение доступных пользователю записей
-        List<TimeEntryDTO> timeEntries = timeEntryService.getAllAccessible(currentUser, employeeIds, startDate, endDate);
-
-        if (timeEntries.isEmpty()) {
-            log.debug("No time entries found for export");
-            return ResponseEntity.ok()
-                                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=time-entries.csv")
-                                 .contentType(MediaType.parseMediaType("text/csv"))
-                                 .body(new byte[0]);
+        Key key = timeEntryExportService.prepare(currentUser, employeeIds, startDate, endDate, format, mode);
+        String fileName = "time-entries." + format.getExtension();
+        String versionEtag = timeEntryExportService.versionEtag(key);
+        ExportFile file = timeEntryExportService.openCached(key);
+        if (file != null) {
+            return ExportFileResponses.serve(file, versionEtag, requestHeaders, fileName, format);
         }
+        if (requestHeaders.containsKey(HttpHeaders.RANGE)) {
+            ResponseEntity<StreamingResponseBody> notModified = ExportFileResponses.notModified(versionEtag, requestHeaders);
+            if (notModified != null) {
+                return notModified;
+            }
+            return ExportFileResponses.serveWhenReady(() -> timeEntryExportService.openOrRender(key), requestHeaders,
+                    response, fileName, format);
+        }
+        return ExportFileResponses.stream(versionEtag, requestHeaders, fileName, format,
+                outputStream -> timeEntryExportService.export(key, outputStream));
+    }
 
-        // Преобразование в промежуточную структуру
-        List<TimeEntryParsingData> csvData = timeEntries.stream()
-                                                        .map(parsingMapper::toParsingData)
-                                                        .toList();
-
-        // Генерация CSV-файла
-        byte[] fileBytes = fileProcessService.exportFileWithHeader(TimeEntryParsingData.class, csvData);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
-        headers.setContentDispositionFormData("attachment", "time-entries.csv");
+    /**
+     * Экспорт записей времени архивом ZIP: по CSV-файлу на каждого доступного сотрудника ({@code <ID>_<имя>.csv}).
+     * Доступ проверяется один раз на весь архив. Файлы сотрудников формируются параллельно,
+     * а архив отдаётся по мере готовности, без сохранения на диск.
+     *
+     * @param employeeIds список ID сотрудников для фильтрации (необязательно)
+     * @param startDate дата начала периода (необязательно)
+     * @param endDate дата окончания периода (необязательно)
+     * @return HTTP 200 OK и ZIP-архив (файл сотрудника без записей за период пустой)
+     */
+    @GetMapping("/export/bundle")
+    public ResponseEntity<StreamingResponseBody> exportTimeEntriesBundle(
+            @RequestParam(required = false) List<Long> employeeIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        log.debug("Exporting time entries bundle started for employeeIds={}, startDate={}, endDate={}",
+                employeeIds, startDate, endDate);
+        EmployeeEntity currentUser = employeeService.getCurrentEmployee();
 
-        log.debug("Exporting time entries completed, {} entries exported", timeEntries.size());
-        return new ResponseEntity<>(fileBytes, headers, HttpStatus.OK);
+        Bundle bundle = timeEntryBundleExportService.prepare(currentUser, employeeIds, startDate, endDate);
+        StreamingResponseBody body = outputStream -> timeEntryBundleExportService.writeZip(bundle, outputStream);
+        return ResponseEntity.ok()
+                             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=time-entries.zip")
+                             .contentType(MediaType.parseMediaType("application/zip"))
+                             .body(body);
     }
 }
-
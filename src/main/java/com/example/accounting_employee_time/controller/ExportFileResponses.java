@@ -0,0 +1,345 @@
+package com.example.accounting_employee_time.controller;
+
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.service.ExportCacheService.ExportFile;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Формирование HTTP-ответа с экспортом.
+ * Готовый файл ({@link #serve}) отдаётся с сильным ETag: поддерживаются условные запросы
+ * ({@code If-None-Match} → 304 Not Modified) и докачка по заголовку {@code Range}
+ * (206 Partial Content, один диапазон; {@code If-Range} учитывается).
+ * Содержимое копируется из канала файла в поток ответа через буфер ({@link FileChannel#transferTo}
+ * в канал поверх {@code OutputStream}); sendfile при этом не используется.
+ * Экспорт, которого ещё нет на диске ({@link #stream}), пишется клиенту по мере формирования
+ * со слабым ETag версии данных и без Content-Length. На запрос диапазона такого экспорта
+ * ({@link #serveWhenReady}) файл получается уже в теле ответа, в потоке асинхронной отдачи.
+ * Если клиент принимает gzip ({@code Accept-Encoding}) и не запрашивает диапазон, тело сжимается
+ * по мере отдачи; у сжатого представления свой ETag.
+ */
+@Slf4j
+final class ExportFileResponses {
+
+    private static final String GZIP = "gzip";
+
+    /**
+     * Файлы меньше этого размера не сжимаются: выигрыш меньше накладных расходов gzip.
+     */
+    private static final long MIN_GZIP_SIZE = 1024;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private ExportFileResponses() {
+    }
+
+    /**
+     * Строит ответ с готовым файлом. Файл закрывается после отдачи или сразу, если тело не нужно.
+     *
+     * @param file открытый файл экспорта
+     * @param versionEtag слабый ETag версии данных: клиент мог получить его при потоковой отдаче
+     * @param requestHeaders заголовки запроса
+     * @param fileName имя файла для Content-Disposition
+     * @param format формат файла (определяет Content-Type)
+     * @return ответ 200, 206, 304 или 416
+     */
+    static ResponseEntity<StreamingResponseBody> serve(ExportFile file,
+                                                       String versionEtag,
+                                                       HttpHeaders requestHeaders,
+                                                       String fileName,
+                                                       FileExtension format) {
+        long size = file.getSize();
+        HttpRange range = requestedRange(requestHeaders, file.getEtag());
+        // Диапазоны относятся к несжатому файлу, поэтому докачка всегда идёт без сжатия
+        boolean gzip = range == null && size >= MIN_GZIP_SIZE && acceptsGzip(requestHeaders);
+        String etag = gzip ? gzipEtag(file.getEtag()) : file.getEtag();
+
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (matches(ifNoneMatch, etag) || matches(ifNoneMatch, gzip ? gzipEtag(versionEtag) : versionEtag)) {
+            closeQuietly(file);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .eTag(etag)
+                                 .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                                 .build();
+        }
+
+        HttpHeaders headers = fileHeaders(fileName, format);
+        headers.setETag(etag);
+
+        if (gzip) {
+            // Длина сжатого тела заранее неизвестна, ответ передаётся частями
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            StreamingResponseBody body = outputStream -> {
+                try (file) {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                    transfer(file.getChannel(), 0, size, Channels.newChannel(gzipStream));
+                    gzipStream.finish();
+                }
+            };
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+
+        long start = 0;
+        long length = size;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+            if (start >= size || length <= 0) {
+                closeQuietly(file);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                     .headers(headers)
+                                     .build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, contentRange(start, length, size));
+        }
+        headers.setContentLength(length);
+
+        long from = start;
+        long count = length;
+        StreamingResponseBody body = outputStream -> {
+            try (file) {
+                transfer(file.getChannel(), from, count, Channels.newChannel(outputStream));
+            }
+        };
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    /**
+     * Строит ответ на запрос диапазона, когда готового файла ещё нет. Файл получается уже в теле ответа,
+     * в потоке асинхронной отдачи, поэтому поток обработки запроса не ждёт формирования экспорта.
+     * Статус, ETag и длина зависят от файла и выставляются в ответ сервлета до первой записи тела.
+     * Файл отдаётся без сжатия, как и любой ответ на запрос диапазона.
+     *
+     * @param file получение файла: дожидается или формирует его
+     * @param requestHeaders заголовки запроса (Range, If-Range, If-None-Match)
+     * @param response ответ сервлета, в который тело выставляет статус и заголовки
+     * @param fileName имя файла для Content-Disposition
+     * @param format формат файла (определяет Content-Type)
+     * @return ответ, тело которого отдаёт диапазон (206), файл целиком (200), 304 или 416
+     */
+    static ResponseEntity<StreamingResponseBody> serveWhenReady(Supplier<ExportFile> file,
+                                                                HttpHeaders requestHeaders,
+                                                                HttpServletResponse response,
+                                                                String fileName,
+                                                                FileExtension format) {
+        StreamingResponseBody body = outputStream -> {
+            try (ExportFile ready = file.get()) {
+                long size = ready.getSize();
+                response.setHeader(HttpHeaders.ETAG, ready.getEtag());
+                if (matches(requestHeaders.getIfNoneMatch(), ready.getEtag())) {
+                    response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                    return;
+                }
+
+                HttpRange range = requestedRange(requestHeaders, ready.getEtag());
+                long start = 0;
+                long length = size;
+                if (range != null) {
+                    start = range.getRangeStart(size);
+                    length = range.getRangeEnd(size) - start + 1;
+                    if (start >= size || length <= 0) {
+                        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                        return;
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, length, size));
+                }
+                response.setContentLengthLong(length);
+                transfer(ready.getChannel(), start, length, Channels.newChannel(outputStream));
+            }
+        };
+        return new ResponseEntity<>(body, fileHeaders(fileName, format), HttpStatus.OK);
+    }
+
+    /**
+     * Ответ 304, если If-None-Match совпадает со слабым ETag версии данных: проверка до формирования файла.
+     * Представление выбирается так же, как в {@link #serve} (без диапазона и при поддержке gzip — сжатое).
+     *
+     * @param versionEtag слабый ETag версии данных
+     * @param requestHeaders заголовки запроса
+     * @return ответ 304 или null, если экспорт нужно отдать
+     */
+    static ResponseEntity<StreamingResponseBody> notModified(String versionEtag, HttpHeaders requestHeaders) {
+        boolean gzip = !requestHeaders.containsKey(HttpHeaders.RANGE) && acceptsGzip(requestHeaders);
+        String etag = gzip ? gzipEtag(versionEtag) : versionEtag;
+        if (!matches(requestHeaders.getIfNoneMatch(), etag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                             .eTag(etag)
+                             .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                             .build();
+    }
+
+    /**
+     * Строит ответ, тело которого пишется по мере формирования экспорта.
+     * Первые байты уходят клиенту до окончания чтения из БД; длина заранее неизвестна,
+     * поэтому ответ передаётся частями. Копия экспорта сохраняется на диск, и диапазоны отдаются из неё
+     * ({@link #serve}, {@link #serveWhenReady}), поэтому ответ сообщает {@code Accept-Ranges: bytes}.
+     *
+     * @param etag слабый ETag версии данных, известный до формирования
+     * @param requestHeaders заголовки запроса
+     * @param fileName имя файла для Content-Disposition
+     * @param format формат файла (определяет Content-Type)
+     * @param content запись экспорта в поток ответа
+     * @return ответ 200 или 304
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String etag,
+                                                        HttpHeaders requestHeaders,
+                                                        String fileName,
+                                                        FileExtension format,
+                                                        StreamingResponseBody content) {
+        boolean gzip = acceptsGzip(requestHeaders);
+        String representationEtag = gzip ? gzipEtag(etag) : etag;
+
+        if (matches(requestHeaders.getIfNoneMatch(), representationEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .eTag(representationEtag)
+                                 .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                                 .build();
+        }
+
+        HttpHeaders headers = fileHeaders(fileName, format);
+        headers.setETag(representationEtag);
+        if (!gzip) {
+            return new ResponseEntity<>(content, headers, HttpStatus.OK);
+        }
+
+        headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        StreamingResponseBody body = outputStream -> {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+            content.writeTo(gzipStream);
+            gzipStream.finish();
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Заголовки, общие для всех ответов с файлом экспорта.
+     */
+    private static HttpHeaders fileHeaders(String fileName, FileExtension format) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+        headers.setContentType(MediaType.parseMediaType(format.getMediaType()));
+        return headers;
+    }
+
+    private static String contentRange(long start, long length, long size) {
+        return "bytes " + start + "-" + (start + length - 1) + "/" + size;
+    }
+
+    /**
+     * Диапазон из заголовка Range, если он один, корректен и If-Range (при наличии) совпадает с ETag.
+     * Иначе файл отдаётся целиком.
+     */
+    private static HttpRange requestedRange(HttpHeaders requestHeaders, String etag) {
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed Range header: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * Принимает ли клиент gzip: кодировка {@code gzip} или {@code *} в Accept-Encoding без {@code q=0}.
+     */
+    private static boolean acceptsGzip(HttpHeaders requestHeaders) {
+        for (String header : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if ((GZIP.equalsIgnoreCase(name) || "*".equals(name)) && !rejected(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean rejected(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ETag сжатого представления: ETag файла с суффиксом {@code -gzip} внутри кавычек.
+     */
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-" + GZIP + "\"";
+    }
+
+    /**
+     * Сравнение ETag для If-None-Match: слабое, как требует RFC 9110.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new IOException("Файл экспорта короче ожидаемого");
+            }
+            position += transferred;
+        }
+    }
+
+    private static void closeQuietly(ExportFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть файл экспорта", e);
+        }
+    }
+}
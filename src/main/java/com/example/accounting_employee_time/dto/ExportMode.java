@@ -0,0 +1,21 @@
+package com.example.accounting_employee_time.dto;
+
+/**
+ * Способ формирования экспортируемого CSV-файла записей времени.
+ */
+public enum ExportMode {
+    /**
+     * Строки читаются курсором и сериализуются в CSV через Jackson.
+     */
+    STANDARD,
+    /**
+     * CSV формирует сам PostgreSQL командой COPY … TO STDOUT, байты передаются клиенту без разбора.
+     * Для больших выгрузок (например, всех записей компании).
+     */
+    COPY,
+    /**
+     * Сотрудники делятся на шарды, каждый шард читается и сериализуется в отдельном потоке
+     * со своим соединением; части склеиваются в исходном порядке. Результат совпадает с STANDARD.
+     */
+    PARALLEL
+}
@@ -0,0 +1,81 @@
+package com.example.accounting_employee_time.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Состояние и прогресс фонового задания импорта.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobDTO {
+
+    /**
+     * Идентификатор задания.
+     */
+    private UUID id;
+
+    /**
+     * Имя загруженного файла.
+     */
+    private String fileName;
+
+    /**
+     * Способ сохранения записей.
+     */
+    private ImportMode mode;
+
+    private ImportJobStatus status;
+
+    /**
+     * Время постановки задания в очередь.
+     */
+    private Instant submittedAt;
+
+    /**
+     * Время начала обработки (null, пока задание в очереди).
+     */
+    private Instant startedAt;
+
+    /**
+     * Время завершения обработки (null, пока задание не завершено).
+     */
+    private Instant finishedAt;
+
+    /**
+     * Количество прочитанных строк данных.
+     */
+    private long rowsParsed;
+
+    /**
+     * Количество записей, переданных в БД. Фиксируются только при статусе COMPLETED.
+     */
+    private long rowsInserted;
+
+    /**
+     * Количество отклонённых строк.
+     */
+    private long rowsRejected;
+
+    /**
+     * Средняя скорость обработки строк в секунду с момента начала.
+     */
+    private long rowsPerSecond;
+
+    /**
+     * Причина ошибки для статуса FAILED.
+     */
+    private String error;
+
+    /**
+     * Итоговый отчёт об импорте (только для статуса COMPLETED).
+     */
+    private ImportReport report;
+}
@@ -0,0 +1,23 @@
+package com.example.accounting_employee_time.dto;
+
+/**
+ * Состояние фонового задания импорта.
+ */
+public enum ImportJobStatus {
+    /**
+     * Задание принято и ожидает свободного потока.
+     */
+    QUEUED,
+    /**
+     * Файл обрабатывается.
+     */
+    RUNNING,
+    /**
+     * Импорт завершён, записи сохранены.
+     */
+    COMPLETED,
+    /**
+     * Импорт прерван ошибкой, транзакция откатана.
+     */
+    FAILED
+}
@@ -0,0 +1,16 @@
+package com.example.accounting_employee_time.dto;
+
+/**
+ * Способ сохранения импортируемых записей времени.
+ */
+public enum ImportMode {
+    /**
+     * Пакетные INSERT через Hibernate, проверки прав и дубликатов выполняются в Java.
+     */
+    STANDARD,
+    /**
+     * Загрузка строк во временную таблицу через COPY и один INSERT … SELECT;
+     * проверка дубликатов выполняется в SQL, проверка прав — по индексу иерархии. Для больших выгрузок.
+     */
+    COPY
+}
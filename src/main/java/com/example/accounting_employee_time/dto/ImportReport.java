@@ -0,0 +1,84 @@
+package com.example.accounting_employee_time.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Отчёт об импорте файла: количество обработанных, сохранённых и отклонённых строк,
+ * а также список отклонённых строк с причинами.
+ * Список ошибок ограничен по размеру, чтобы отчёт по большому файлу не занимал много памяти.
+ * Отчёт заполняет один поток импорта, а читать его (для отображения прогресса) могут другие потоки.
+ */
+@Getter
+public class ImportReport {
+
+    /**
+     * Количество прочитанных строк данных.
+     */
+    private volatile long totalRows;
+
+    /**
+     * Количество сохранённых записей.
+     */
+    private volatile long imported;
+
+    /**
+     * Количество отклонённых строк.
+     */
+    private volatile long rejected;
+
+    /**
+     * Отклонённые строки с причинами (не более {@code maxErrors}).
+     */
+    private final List<ImportRowError> errors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Признак того, что в {@link #errors} попали не все отклонённые строки.
+     */
+    private volatile boolean errorsTruncated;
+
+    @Getter(AccessLevel.NONE)
+    private final int maxErrors;
+
+    /**
+     * @param maxErrors максимальное количество отклонённых строк, сохраняемых в отчёте
+     */
+    public ImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Учитывает прочитанные строки.
+     *
+     * @param rows количество строк
+     */
+    public void addTotalRows(long rows) {
+        totalRows += rows;
+    }
+
+    /**
+     * Учитывает сохранённые записи.
+     *
+     * @param count количество записей
+     */
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    /**
+     * Учитывает отклонённую строку.
+     *
+     * @param error описание отклонённой строки
+     */
+    public void reject(ImportRowError error) {
+        rejected++;
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
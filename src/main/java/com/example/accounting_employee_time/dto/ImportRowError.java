@@ -0,0 +1,38 @@
+package com.example.accounting_employee_time.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Строка файла импорта, которая не была сохранена, с указанием причины.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+
+    /**
+     * Номер строки в файле (с учётом строки заголовка).
+     */
+    private long rowNumber;
+
+    /**
+     * Идентификатор сотрудника из строки (может быть null, если не указан).
+     */
+    private Long employeeId;
+
+    /**
+     * Дата из строки (может быть null, если не указана).
+     */
+    private LocalDate workDate;
+
+    /**
+     * Причина, по которой строка не была импортирована.
+     */
+    private String reason;
+}
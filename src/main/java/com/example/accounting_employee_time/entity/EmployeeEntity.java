@@ -33,12 +33,12 @@ public class EmployeeEntity implements UserDetails {
 
     /**
      * Уникальный идентификатор сотрудника.
-     * Генерируется с помощью SEQUENCE.
+     * Генерируется с помощью SEQUENCE, значения выделяются блоками по 50 (оптимизатор pooled).
      */
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_seq")
-    @SequenceGenerator(name = "user_id_seq", sequenceName = "user_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_id_seq", sequenceName = "user_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -0,0 +1,66 @@
+package com.example.accounting_employee_time.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Запись таблицы замыкания иерархии сотрудников: ancestor является начальником descendant
+ * на расстоянии depth уровней. Каждый сотрудник также связан сам с собой (depth = 0).
+ * Таблица заполняется миграцией и поддерживается при добавлении сотрудников,
+ * строки удалённого сотрудника удаляются каскадно внешними ключами.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "employee_hierarchy")
+@IdClass(EmployeeHierarchyEntity.Key.class)
+public class EmployeeHierarchyEntity {
+
+    /**
+     * Идентификатор начальника.
+     */
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    /**
+     * Идентификатор подчинённого.
+     */
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    /**
+     * Число уровней между начальником и подчинённым (1 — прямое подчинение).
+     */
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    public Long getAncestorId() {
+        return ancestorId;
+    }
+
+    public Long getDescendantId() {
+        return descendantId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Составной ключ записи: пара начальник — подчинённый.
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long ancestorId;
+
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.accounting_employee_time.event;
+
+import lombok.Value;
+
+/**
+ * Событие изменения иерархии подчинённости: сотрудник добавлен или удалён (вместе с подчинёнными).
+ * Публикуется внутри транзакции изменения; обработчики получают его после коммита.
+ */
+@Value
+public class EmployeeHierarchyChangedEvent {
+
+    /**
+     * Добавленный или удалённый сотрудник.
+     */
+    Long employeeId;
+}
@@ -0,0 +1,61 @@
+package com.example.accounting_employee_time.event;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Событие изменения записей времени сотрудника (создание, изменение, удаление, импорт)
+ * или данных самого сотрудника, попадающих в экспорт.
+ * Публикуется внутри транзакции изменения; обработчики получают его после коммита.
+ */
+@Value
+public class TimeEntryChangedEvent {
+
+    /**
+     * Сотрудник, записи которого изменились.
+     */
+    Long employeeId;
+
+    /**
+     * Начало затронутого периода (включительно); null — все даты.
+     */
+    LocalDate from;
+
+    /**
+     * Конец затронутого периода (включительно); null — все даты.
+     */
+    LocalDate to;
+
+    /**
+     * Событие изменения записи сотрудника за одну дату.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param workDate дата записи
+     * @return событие
+     */
+    public static TimeEntryChangedEvent of(Long employeeId, LocalDate workDate) {
+        return new TimeEntryChangedEvent(employeeId, workDate, workDate);
+    }
+
+    /**
+     * Событие изменения данных сотрудника, затрагивающее все его записи (например, смена имени).
+     *
+     * @param employeeId идентификатор сотрудника
+     * @return событие
+     */
+    public static TimeEntryChangedEvent allDates(Long employeeId) {
+        return new TimeEntryChangedEvent(employeeId, null, null);
+    }
+
+    /**
+     * Проверяет, пересекается ли затронутый период с периодом [start, end].
+     *
+     * @param start начало периода
+     * @param end конец периода
+     * @return {@code true}, если пересекается
+     */
+    public boolean overlaps(LocalDate start, LocalDate end) {
+        return (from == null || !from.isAfter(end)) && (to == null || !to.isBefore(start));
+    }
+}
@@ -10,5 +10,6 @@ public class FileParsingException extends RuntimeException {
     }
 
     public FileParsingException(String s, Exception e) {
+        super(s, e);
     }
 }
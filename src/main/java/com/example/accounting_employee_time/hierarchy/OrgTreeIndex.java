@@ -0,0 +1,219 @@
+package com.example.accounting_employee_time.hierarchy;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемый индекс иерархии сотрудников в примитивных массивах.
+ * Сотрудники пронумерованы подряд; для каждого хранятся номер начальника и номера входа и выхода
+ * обхода в глубину (Euler tour): manager выше employee тогда и только тогда, когда вход employee
+ * лежит внутри интервала manager. Проверки подчинённости — O(1), перечисление поддерева — O(размер поддерева).
+ * Поиск номера по id — открытая адресация по массиву long без упаковки.
+ */
+public final class OrgTreeIndex {
+
+    private static final int NO_PARENT = -1;
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    /**
+     * Пустой индекс: ни один сотрудник не найден.
+     */
+    public static final OrgTreeIndex EMPTY = new OrgTreeIndex(new long[0], new long[0]);
+
+    /**
+     * Идентификаторы сотрудников по номеру.
+     */
+    private final long[] ids;
+
+    /**
+     * Номер начальника по номеру сотрудника, {@link #NO_PARENT} — без начальника.
+     */
+    private final int[] parents;
+
+    /**
+     * Номер сотрудника в порядке обхода (вход).
+     */
+    private final int[] enter;
+
+    /**
+     * Наибольший номер входа в поддереве сотрудника (выход).
+     */
+    private final int[] exit;
+
+    /**
+     * Номера сотрудников в порядке обхода: поддерево — непрерывный отрезок {@code [enter, exit]}.
+     */
+    private final int[] order;
+
+    private final long[] hashKeys;
+    private final int[] hashValues;
+    private final int hashMask;
+
+    /**
+     * Строит индекс по парам (сотрудник, начальник).
+     * Начальник, которого нет среди сотрудников, считается отсутствующим.
+     * Циклы в цепочках начальников (некорректные данные) не приводят к зацикливанию:
+     * сотрудник цикла, до которого обход не дошёл, становится корнем.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param chiefIds идентификаторы начальников в том же порядке, {@code 0} — без начальника
+     */
+    public OrgTreeIndex(long[] employeeIds, long[] chiefIds) {
+        int size = employeeIds.length;
+        this.ids = employeeIds.clone();
+
+        int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+        this.hashKeys = new long[capacity];
+        this.hashValues = new int[capacity];
+        this.hashMask = capacity - 1;
+        Arrays.fill(hashKeys, EMPTY_KEY);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(ids[i]);
+            while (hashKeys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & hashMask;
+            }
+            hashKeys[slot] = ids[i];
+            hashValues[slot] = i;
+        }
+
+        this.parents = new int[size];
+        int[] childCount = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int parent = chiefIds[i] == 0 ? NO_PARENT : indexOf(chiefIds[i]);
+            parents[i] = parent == i ? NO_PARENT : parent;
+            if (parents[i] != NO_PARENT) {
+                childCount[parents[i] + 1]++;
+            }
+        }
+
+        // Дети каждого сотрудника — отрезок children[childStart[v], childStart[v + 1])
+        int[] childStart = childCount;
+        for (int i = 0; i < size; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        int[] children = new int[size];
+        int[] filled = Arrays.copyOf(childStart, size);
+        for (int i = 0; i < size; i++) {
+            if (parents[i] != NO_PARENT) {
+                children[filled[parents[i]]++] = i;
+            }
+        }
+
+        this.enter = new int[size];
+        this.exit = new int[size];
+        this.order = new int[size];
+        Arrays.fill(enter, -1);
+        int[] stack = new int[size];
+        int[] nextChild = new int[size];
+        int counter = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < size; root++) {
+                // Первый проход — настоящие корни, второй — непройденные сотрудники циклов
+                if (enter[root] >= 0 || (pass == 0 && parents[root] != NO_PARENT)) {
+                    continue;
+                }
+                int depth = 0;
+                stack[depth++] = root;
+                enter[root] = counter;
+                order[counter++] = root;
+                nextChild[root] = childStart[root];
+                while (depth > 0) {
+                    int node = stack[depth - 1];
+                    if (nextChild[node] < childStart[node + 1]) {
+                        int child = children[nextChild[node]++];
+                        if (enter[child] < 0) {
+                            enter[child] = counter;
+                            order[counter++] = child;
+                            nextChild[child] = childStart[child];
+                            stack[depth++] = child;
+                        }
+                    } else {
+                        exit[node] = counter - 1;
+                        depth--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Число сотрудников в индексе.
+     *
+     * @return размер индекса
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Есть ли сотрудник в индексе.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если сотрудник известен индексу
+     */
+    public boolean contains(long employeeId) {
+        return indexOf(employeeId) >= 0;
+    }
+
+    /**
+     * Является ли manager начальником employee по иерархии (прямым или по цепочке).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если manager выше employee; {@code false}, если кого-то из них нет в индексе
+     */
+    public boolean isSuperior(long managerId, long employeeId) {
+        int manager = indexOf(managerId);
+        int employee = indexOf(employeeId);
+        if (manager < 0 || employee < 0) {
+            return false;
+        }
+        return enter[manager] < enter[employee] && enter[employee] <= exit[manager];
+    }
+
+    /**
+     * Является ли employee непосредственным подчинённым manager.
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если начальник employee — manager
+     */
+    public boolean isDirectSubordinate(long managerId, long employeeId) {
+        int manager = indexOf(managerId);
+        int employee = indexOf(employeeId);
+        return manager >= 0 && employee >= 0 && parents[employee] == manager;
+    }
+
+    /**
+     * Идентификаторы всех подчинённых сотрудника (без него самого) в порядке обхода.
+     *
+     * @param managerId идентификатор руководителя
+     * @return идентификаторы подчинённых; пустой массив, если сотрудника нет в индексе
+     */
+    public long[] subordinateIds(long managerId) {
+        int manager = indexOf(managerId);
+        if (manager < 0) {
+            return new long[0];
+        }
+        long[] result = new long[exit[manager] - enter[manager]];
+        for (int position = enter[manager] + 1, i = 0; position <= exit[manager]; position++, i++) {
+            result[i] = ids[order[position]];
+        }
+        return result;
+    }
+
+    private int indexOf(long employeeId) {
+        int slot = slot(employeeId);
+        while (hashKeys[slot] != EMPTY_KEY) {
+            if (hashKeys[slot] == employeeId) {
+                return hashValues[slot];
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & hashMask;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.parseCSV.data.ParsingData;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр готовых CSV-кодеков для классов {@link ParsingData}.
+ * {@link ObjectReader} и {@link ObjectWriter} неизменяемы и потокобезопасны, поэтому строятся
+ * один раз на сочетание (класс, наличие заголовка, разделитель) и переиспользуются всеми запросами:
+ * интроспекция класса, построение схемы и сериализаторов не повторяются.
+ * Для классов с фиксированной схемой реестр также выдаёт специализированные разборщики записей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CsvCodecRegistry {
+
+    private final ImportProperties importProperties;
+
+    /**
+     * Классы, кодеки которых строятся при старте приложения.
+     */
+    private static final List<Class<? extends ParsingData>> PARSING_DATA_CLASSES = List.of(TimeEntryParsingData.class);
+
+    /**
+     * Символ десятичного разделителя для сериализации чисел ('.' или ',').
+     */
+    private static final char DECIMAL_SEPARATOR = '.';
+
+    private final CsvMapper readMapper = createReadMapper();
+    private final CsvMapper writeMapper = createWriteMapper();
+
+    private final Map<CodecKey, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<CodecKey, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<? extends ParsingData>, List<String>> columnNames = new ConcurrentHashMap<>();
+    private final Map<CodecKey, byte[]> headers = new ConcurrentHashMap<>();
+
+    /**
+     * Строит кодеки для всех известных классов, чтобы первый запрос не платил за их создание.
+     */
+    @PostConstruct
+    public void warmUp() {
+        long startedAt = System.nanoTime();
+        for (Class<? extends ParsingData> dataClass : PARSING_DATA_CLASSES) {
+            for (CsvSeparator separator : CsvSeparator.values()) {
+                for (boolean withHeader : new boolean[]{true, false}) {
+                    reader(dataClass, withHeader, separator);
+                    writer(dataClass, withHeader, separator);
+                }
+            }
+            columnNames(dataClass);
+        }
+        log.debug("CSV codecs warmed up in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Возвращает ObjectReader для чтения CSV в объекты dataClass.
+     *
+     * @param dataClass класс DTO
+     * @param withHeader наличие заголовка
+     * @param separator разделитель колонок
+     * @return настроенный ObjectReader
+     */
+    public ObjectReader reader(Class<? extends ParsingData> dataClass, boolean withHeader, CsvSeparator separator) {
+        return readers.computeIfAbsent(new CodecKey(dataClass, withHeader, separator),
+                key -> readMapper.readerFor(dataClass)
+                                 .with(schema(readMapper, key)));
+    }
+
+    /**
+     * Возвращает ObjectWriter для записи объектов dataClass в CSV.
+     * Список записывается через {@link ObjectWriter#writeValues}, заголовок выводится один раз.
+     *
+     * @param dataClass класс DTO
+     * @param withHeader выводить заголовок или нет
+     * @param separator разделитель колонок
+     * @return настроенный ObjectWriter
+     */
+    public ObjectWriter writer(Class<? extends ParsingData> dataClass, boolean withHeader, CsvSeparator separator) {
+        return writers.computeIfAbsent(new CodecKey(dataClass, withHeader, separator),
+                key -> writeMapper.writerFor(dataClass)
+                                  .with(schema(writeMapper, key)));
+    }
+
+    /**
+     * Возвращает новый специализированный разборщик записей, если он есть для dataClass и включён
+     * настройкой {@link ImportProperties#isFastTokenizer()}.
+     * Разборщик не потокобезопасен, поэтому создаётся на каждый вызов.
+     *
+     * @param dataClass класс DTO
+     * @param separator разделитель колонок
+     * @return разборщик или null, если нужно использовать {@link #reader}
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends ParsingData> CsvRecordDecoder<P> recordDecoder(Class<P> dataClass, CsvSeparator separator) {
+        if (!importProperties.isFastTokenizer()) {
+            return null;
+        }
+        if (dataClass == TimeEntryParsingData.class) {
+            return (CsvRecordDecoder<P>) new TimeEntryCsvTokenizer(columnNames(dataClass), separator);
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает новый специализированный писатель строк экспорта записей времени в CSV
+     * с колонками и десятичным разделителем {@link TimeEntryParsingData}.
+     * Писатель не потокобезопасен и держит свой буфер, поэтому создаётся на каждый экспорт.
+     *
+     * @param outputStream поток, в который пишется CSV
+     * @param separator разделитель колонок
+     * @return писатель строк
+     */
+    public TimeEntryCsvWriter timeEntryWriter(OutputStream outputStream, CsvSeparator separator) {
+        return new TimeEntryCsvWriter(outputStream, columnNames(TimeEntryParsingData.class), separator, DECIMAL_SEPARATOR);
+    }
+
+    /**
+     * Строка заголовка CSV для dataClass — то, что пишет {@link #writer} с заголовком перед первой строкой.
+     * Нужна, когда файл собирается из частей, записанных без заголовка.
+     *
+     * @param dataClass класс DTO
+     * @param separator разделитель колонок
+     * @return байты строки заголовка
+     */
+    public byte[] header(Class<? extends ParsingData> dataClass, CsvSeparator separator) {
+        return headers.computeIfAbsent(new CodecKey(dataClass, true, separator), key -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                // Без строк Jackson пишет только заголовок
+                writer(dataClass, true, separator).writeValues(out).close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Не удалось сформировать заголовок CSV", e);
+            }
+            return out.toByteArray();
+        }).clone();
+    }
+
+    /**
+     * Имена колонок CSV-схемы класса в порядке следования в файле.
+     *
+     * @param dataClass класс DTO
+     * @return неизменяемый список имён колонок
+     */
+    public List<String> columnNames(Class<? extends ParsingData> dataClass) {
+        return columnNames.computeIfAbsent(dataClass, key -> {
+            List<String> names = new ArrayList<>();
+            readMapper.schemaFor(key).forEach(column -> names.add(column.getName()));
+            return List.copyOf(names);
+        });
+    }
+
+    private CsvSchema schema(CsvMapper mapper, CodecKey key) {
+        return mapper.schemaFor(key.getDataClass())
+                     .withUseHeader(key.isWithHeader())
+                     .withColumnSeparator(key.getSeparator().getSeparator());
+    }
+
+    private static CsvMapper createReadMapper() {
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return csvMapper;
+    }
+
+    private static CsvMapper createWriteMapper() {
+        CsvMapper csvMapper = CsvMapper.csvBuilder().build();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(BigDecimal.class, new CustomBigDecimalSerializer(DECIMAL_SEPARATOR));
+        csvMapper.registerModule(module);
+        return csvMapper;
+    }
+
+    /**
+     * Ключ кэша кодеков.
+     */
+    @Value
+    private static class CodecKey {
+        Class<? extends ParsingData> dataClass;
+        boolean withHeader;
+        CsvSeparator separator;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Диапазон байт CSV-файла, содержащий целое число записей.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CsvRange {
+
+    /**
+     * Смещение первого байта диапазона.
+     */
+    private final long start;
+
+    /**
+     * Смещение байта, следующего за последним байтом диапазона.
+     */
+    private final long end;
+
+    /**
+     * Количество записей файла (включая заголовок), предшествующих диапазону.
+     */
+    private final long recordsBefore;
+
+    /**
+     * @return размер диапазона в байтах
+     */
+    public long length() {
+        return end - start;
+    }
+}
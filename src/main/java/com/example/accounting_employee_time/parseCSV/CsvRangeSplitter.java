@@ -0,0 +1,80 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Делит CSV-файл на диапазоны байт по границам записей.
+ * Файл читается один раз последовательно; кавычки учитываются по правилам {@link CsvRecordScanner},
+ * поэтому перевод строки внутри значения в кавычках не считается концом записи,
+ * а кавычка в середине поля без кавычек не меняет состояние.
+ * Разбор байт не выполняется, поэтому проход ограничен скоростью чтения файла.
+ */
+public class CsvRangeSplitter implements Closeable {
+
+    private final InputStream in;
+    private final CsvRecordScanner scanner;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferPos;
+    private int bufferLen;
+
+    /**
+     * Смещение следующего непрочитанного байта.
+     */
+    private long position;
+
+    /**
+     * Количество завершённых записей до {@link #position}.
+     */
+    private long records;
+
+    /**
+     * @param in поток с содержимым файла, закрывается вместе со сплиттером
+     * @param separator разделитель колонок
+     */
+    public CsvRangeSplitter(InputStream in, CsvSeparator separator) {
+        this.in = in;
+        this.scanner = new CsvRecordScanner(separator);
+    }
+
+    /**
+     * Возвращает следующий диапазон не короче minSize байт (кроме последнего),
+     * заканчивающийся на границе записи.
+     *
+     * @param minSize минимальный размер диапазона в байтах
+     * @return диапазон или null, если файл прочитан до конца
+     * @throws IOException при ошибке чтения
+     */
+    public CsvRange nextRange(long minSize) throws IOException {
+        long start = position;
+        long recordsBefore = records;
+
+        while (true) {
+            if (bufferPos == bufferLen) {
+                bufferLen = in.read(buffer);
+                bufferPos = 0;
+                if (bufferLen <= 0) {
+                    bufferLen = 0;
+                    break;
+                }
+            }
+
+            byte b = buffer[bufferPos++];
+            position++;
+            if (scanner.endsRecord(b)) {
+                records++;
+                if (position - start >= minSize) {
+                    break;
+                }
+            }
+        }
+
+        return position > start ? new CsvRange(start, position, recordsBefore) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import com.example.accounting_employee_time.parseCSV.data.ParsingData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Специализированный разборщик одной записи CSV прямо из байт, минуя Jackson.
+ * Разбирает только типичные записи; для всего необычного возвращает null,
+ * и вызывающая сторона использует общий путь через Jackson.
+ * Экземпляр хранит изменяемое состояние и не потокобезопасен: по одному на поток.
+ *
+ * @param <P> тип данных строки
+ */
+public interface CsvRecordDecoder<P extends ParsingData> {
+
+    /**
+     * Разбирает запись из буфера.
+     *
+     * @param buffer буфер с содержимым файла
+     * @param start смещение первого байта записи
+     * @param end смещение байта перевода строки (или конца буфера), не входит в запись
+     * @return разобранный объект или null, если запись нужно разобрать общим путём
+     */
+    P decode(ByteBuffer buffer, int start, int end);
+}
@@ -0,0 +1,83 @@
+package com.example.accounting_employee_time.parseCSV;
+
+/**
+ * Поиск границ CSV-записей побайтно, по тем же правилам кавычек, что и парсер Jackson CSV.
+ * Кавычка открывает значение только в начале поля (сразу после разделителя или начала записи);
+ * внутри значения в кавычках "" — экранированная кавычка, одиночная кавычка значение закрывает.
+ * Кавычка в середине поля без кавычек (например, {@code ab"c}) — обычный символ.
+ * Перевод строки внутри значения в кавычках запись не завершает. Не потокобезопасен.
+ */
+public class CsvRecordScanner {
+
+    private static final byte QUOTE = '"';
+    private static final byte LINE_FEED = '\n';
+
+    /**
+     * Начало поля: следующая кавычка открывает значение в кавычках.
+     */
+    private static final int FIELD_START = 0;
+
+    /**
+     * Поле без кавычек (или остаток поля после закрывающей кавычки).
+     */
+    private static final int UNQUOTED = 1;
+
+    /**
+     * Внутри значения в кавычках.
+     */
+    private static final int QUOTED = 2;
+
+    /**
+     * Кавычка внутри значения в кавычках: либо закрывающая, либо первая половина "".
+     */
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final byte separator;
+    private int state = FIELD_START;
+
+    /**
+     * @param separator разделитель колонок
+     */
+    public CsvRecordScanner(CsvSeparator separator) {
+        this.separator = (byte) separator.getSeparator();
+    }
+
+    /**
+     * Учитывает очередной байт файла.
+     *
+     * @param b очередной байт
+     * @return true, если байт — перевод строки, завершающий запись
+     */
+    public boolean endsRecord(byte b) {
+        switch (state) {
+            case QUOTED -> {
+                if (b == QUOTE) {
+                    state = QUOTE_IN_QUOTED;
+                }
+                return false;
+            }
+            case QUOTE_IN_QUOTED -> {
+                if (b == QUOTE) {
+                    state = QUOTED;
+                    return false;
+                }
+            }
+            case FIELD_START -> {
+                if (b == QUOTE) {
+                    state = QUOTED;
+                    return false;
+                }
+            }
+            default -> {
+                // UNQUOTED: кавычка — обычный символ
+            }
+        }
+
+        if (b == LINE_FEED) {
+            state = FIELD_START;
+            return true;
+        }
+        state = b == separator ? FIELD_START : UNQUOTED;
+        return false;
+    }
+}
@@ -1,25 +1,42 @@
 package com.example.accounting_employee_time.parseCSV;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
 /**
- * Поддерживаемые расширения файлов для импорта/экспорта.
- * В данный момент поддерживается только CSV.
+ * Поддерживаемые форматы файлов для импорта/экспорта.
+ * Импорт поддерживает только CSV; Apache Arrow IPC (поток record batch'ей) — только экспорт.
  */
+@Getter
+@RequiredArgsConstructor
 public enum FileExtension {
-    CSV;
+    CSV("csv", "text/csv"),
+    ARROW("arrows", "application/vnd.apache.arrow.stream");
+
+    /**
+     * Расширение файла без точки (например, "csv").
+     */
+    private final String extension;
+
+    /**
+     * MIME-тип содержимого файла.
+     */
+    private final String mediaType;
 
     /**
      * Преобразует строку в {@link FileExtension}.
      *
-     * @param ext расширение (например, "csv")
+     * @param ext расширение (например, "csv") или название формата (например, "arrow")
      * @return перечисление FileExtension
      * @throws IllegalArgumentException если расширение не поддерживается
      */
     public static FileExtension fromString(String ext) {
-        try {
-            return FileExtension.valueOf(ext.trim().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Неподдерживаемое расширение файла: " + ext);
+        String normalized = ext.trim();
+        for (FileExtension value : values()) {
+            if (value.extension.equalsIgnoreCase(normalized) || value.name().equalsIgnoreCase(normalized)) {
+                return value;
+            }
         }
+        throw new IllegalArgumentException("Неподдерживаемое расширение файла: " + ext);
     }
 }
-
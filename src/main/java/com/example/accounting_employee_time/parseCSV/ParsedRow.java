@@ -0,0 +1,40 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import com.example.accounting_employee_time.parseCSV.data.ParsingData;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Строка файла, прочитанная при потоковом парсинге.
+ * Хранит номер строки в файле для отчётов об ошибках и результат bean-валидации.
+ *
+ * @param <P> тип данных строки
+ */
+@Getter
+@RequiredArgsConstructor
+public class ParsedRow<P extends ParsingData> {
+
+    /**
+     * Номер строки в файле (начиная с 1, с учётом строки заголовка).
+     */
+    private final long rowNumber;
+
+    /**
+     * Данные строки.
+     */
+    private final P data;
+
+    /**
+     * Сообщения о нарушениях валидации; пустой список, если строка валидна.
+     */
+    private final List<String> violations;
+
+    /**
+     * @return true, если строка прошла валидацию
+     */
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Разборщик записей {@link TimeEntryParsingData} прямо из байт файла.
+ * Дата, идентификаторы и часы разбираются из ASCII-цифр в примитивы изменяемого {@link RowHolder},
+ * без промежуточных строк, токенов Jackson и разбора BigDecimal/LocalDate из текста.
+ * Поддерживаются поля без кавычек и в кавычках без экранированных кавычек внутри.
+ * Пустой необязательный идентификатор создателя разбирается в null, как и у Jackson.
+ * Пустые дата, часы или идентификатор сотрудника, лишние колонки, экранированные кавычки, знаки чисел
+ * и прочие необычные значения не разбираются: для них возвращается null.
+ */
+public class TimeEntryCsvTokenizer implements CsvRecordDecoder<TimeEntryParsingData> {
+
+    private static final int COLUMNS = TimeEntryParsingData.FIELD_NAMES.size();
+
+    /**
+     * Номера полей в {@link TimeEntryParsingData#FIELD_NAMES}.
+     */
+    private static final int WORK_DATE = 0;
+    private static final int HOURS_WORKED = 1;
+    private static final int EMPLOYEE_ID = 2;
+    private static final int EMPLOYEE_NAME = 3;
+    private static final int CREATED_BY_ID = 4;
+    private static final int CREATED_BY_NAME = 5;
+
+    /**
+     * Максимум цифр, при котором число гарантированно помещается в long.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final byte QUOTE = '"';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * Номер поля для каждой колонки файла.
+     */
+    private final int[] fieldByColumn = new int[COLUMNS];
+    private final byte separator;
+
+    private final int[] fieldStart = new int[COLUMNS];
+    private final int[] fieldEnd = new int[COLUMNS];
+    private final RowHolder row = new RowHolder();
+    private byte[] scratch = new byte[64];
+
+    /**
+     * @param columnNames имена колонок в порядке CSV-схемы
+     * @param separator разделитель колонок
+     */
+    public TimeEntryCsvTokenizer(List<String> columnNames, CsvSeparator separator) {
+        if (columnNames.size() != COLUMNS) {
+            throw new IllegalArgumentException("Ожидалось " + COLUMNS + " колонок, получено " + columnNames);
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            int field = TimeEntryParsingData.FIELD_NAMES.indexOf(columnNames.get(column));
+            if (field < 0) {
+                throw new IllegalArgumentException("Неизвестная колонка: " + columnNames.get(column));
+            }
+            fieldByColumn[column] = field;
+        }
+        this.separator = (byte) separator.getSeparator();
+    }
+
+    @Override
+    public TimeEntryParsingData decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == CARRIAGE_RETURN) {
+            end--;
+        }
+        if (!split(buffer, start, end)) {
+            return null;
+        }
+
+        for (int column = 0; column < COLUMNS; column++) {
+            int from = fieldStart[column];
+            int to = fieldEnd[column];
+            boolean parsed = switch (fieldByColumn[column]) {
+                case WORK_DATE -> parseDate(buffer, from, to);
+                case HOURS_WORKED -> parseHours(buffer, from, to);
+                case EMPLOYEE_ID -> (row.employeeId = parseLong(buffer, from, to)) >= 0;
+                case CREATED_BY_ID -> parseCreatedById(buffer, from, to);
+                case EMPLOYEE_NAME -> (row.employeeName = decodeString(buffer, from, to)) != null;
+                case CREATED_BY_NAME -> (row.createdByName = decodeString(buffer, from, to)) != null;
+                default -> false;
+            };
+            if (!parsed) {
+                return null;
+            }
+        }
+        return row.toParsingData();
+    }
+
+    /**
+     * Делит запись на поля, заполняя {@link #fieldStart} и {@link #fieldEnd} (без кавычек).
+     *
+     * @return false, если запись нужно разобрать общим путём
+     */
+    private boolean split(ByteBuffer buffer, int start, int end) {
+        int pos = start;
+        int column = 0;
+        while (true) {
+            if (column == COLUMNS) {
+                return false;
+            }
+
+            int next;
+            if (pos < end && buffer.get(pos) == QUOTE) {
+                int close = pos + 1;
+                while (close < end && buffer.get(close) != QUOTE) {
+                    close++;
+                }
+                next = close + 1;
+                // Незакрытая кавычка или экранированная кавычка ("") внутри поля
+                if (close >= end || (next < end && buffer.get(next) != separator)) {
+                    return false;
+                }
+                fieldStart[column] = pos + 1;
+                fieldEnd[column] = close;
+            } else {
+                next = pos;
+                while (next < end) {
+                    byte b = buffer.get(next);
+                    if (b == separator) {
+                        break;
+                    }
+                    if (b == QUOTE || b == CARRIAGE_RETURN) {
+                        return false;
+                    }
+                    next++;
+                }
+                fieldStart[column] = pos;
+                fieldEnd[column] = next;
+            }
+
+            column++;
+            if (next >= end) {
+                return column == COLUMNS;
+            }
+            pos = next + 1;
+        }
+    }
+
+    /**
+     * Разбирает дату в формате yyyy-MM-dd.
+     */
+    private boolean parseDate(ByteBuffer buffer, int from, int to) {
+        if (to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') {
+            return false;
+        }
+        int year = digits(buffer, from, from + 4);
+        int month = digits(buffer, from + 5, from + 7);
+        int day = digits(buffer, from + 8, from + 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return false;
+        }
+        try {
+            row.workDate = LocalDate.of(year, month, day);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Разбирает неотрицательное число с фиксированной точкой в unscaled value и scale.
+     */
+    private boolean parseHours(ByteBuffer buffer, int from, int to) {
+        long unscaled = 0;
+        int scale = -1;
+        int digitCount = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || ++digitCount > MAX_LONG_DIGITS) {
+                return false;
+            }
+            unscaled = unscaled * 10 + (b - '0');
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        // Пустое значение или точка без цифр после неё
+        if (digitCount == 0 || scale == 0) {
+            return false;
+        }
+        row.hoursUnscaled = unscaled;
+        row.hoursScale = Math.max(scale, 0);
+        return true;
+    }
+
+    /**
+     * Разбирает необязательный идентификатор создателя; пустое значение — null.
+     */
+    private boolean parseCreatedById(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            row.createdById = null;
+            return true;
+        }
+        long value = parseLong(buffer, from, to);
+        row.createdById = value;
+        return value >= 0;
+    }
+
+    /**
+     * @return неотрицательное число или -1, если значение нужно разобрать общим путём
+     */
+    private long parseLong(ByteBuffer buffer, int from, int to) {
+        if (to == from || to - from > MAX_LONG_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return число из фиксированного количества цифр или -1
+     */
+    private int digits(ByteBuffer buffer, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private String decodeString(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Переиспользуемое хранилище значений разбираемой записи.
+     */
+    private static final class RowHolder {
+        private LocalDate workDate;
+        private long hoursUnscaled;
+        private int hoursScale;
+        private long employeeId;
+        private String employeeName;
+        private Long createdById;
+        private String createdByName;
+
+        private TimeEntryParsingData toParsingData() {
+            TimeEntryParsingData data = new TimeEntryParsingData();
+            data.setWorkDate(workDate);
+            data.setHoursWorked(BigDecimal.valueOf(hoursUnscaled, hoursScale));
+            data.setEmployeeId(employeeId);
+            data.setEmployeeName(employeeName);
+            data.setCreatedById(createdById);
+            data.setCreatedByName(createdByName);
+            return data;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Запись строк экспорта {@link TimeEntryExportRow} в CSV прямо в переиспользуемый байтовый буфер.
+ * Минуты выводятся как часы с двумя знаками после разделителя (как {@code TimeEntryMapper#toHours}),
+ * даты — в ISO-формате, идентификаторы — цифрами, без BigDecimal, строк-посредников и генератора Jackson.
+ * Результат побайтно совпадает с {@link CsvCodecRegistry#writer} для {@link TimeEntryParsingData},
+ * включая правила заключения значений в кавычки. Не потокобезопасен.
+ */
+public class TimeEntryCsvWriter implements Flushable {
+
+    private static final int COLUMNS = TimeEntryParsingData.FIELD_NAMES.size();
+
+    /**
+     * Номера полей в {@link TimeEntryParsingData#FIELD_NAMES}.
+     */
+    private static final int WORK_DATE = 0;
+    private static final int HOURS_WORKED = 1;
+    private static final int EMPLOYEE_ID = 2;
+    private static final int EMPLOYEE_NAME = 3;
+    private static final int CREATED_BY_ID = 4;
+    private static final int CREATED_BY_NAME = 5;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Запас буфера под одно значение фиксированной длины (число, дата, часы) или один символ строки.
+     */
+    private static final int MAX_VALUE_BYTES = 32;
+
+    /**
+     * Строки длиннее этого числа символов Jackson заключает в кавычки без проверки содержимого.
+     */
+    private static final int MAX_UNQUOTED_LENGTH = 24;
+
+    private static final byte QUOTE = '"';
+    private static final byte LINE_FEED = '\n';
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Номер поля для каждой колонки файла.
+     */
+    private final int[] fieldByColumn = new int[COLUMNS];
+    private final byte separator;
+    private final byte decimalSeparator;
+
+    /**
+     * Символы меньше этого значения требуют кавычек: разделитель, кавычка, переводы строк и всё, что ниже.
+     */
+    private final char minSafeChar;
+    private final boolean quoteDates;
+    private final boolean quoteHours;
+    private final boolean quoteNegativeHours;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    /**
+     * @param outputStream поток, в который сбрасывается буфер (не закрывается)
+     * @param columnNames имена колонок в порядке CSV-схемы
+     * @param separator разделитель колонок
+     * @param decimalSeparator разделитель дробной части часов ('.' или ',')
+     */
+    public TimeEntryCsvWriter(OutputStream outputStream,
+                              List<String> columnNames,
+                              CsvSeparator separator,
+                              char decimalSeparator) {
+        if (columnNames.size() != COLUMNS) {
+            throw new IllegalArgumentException("Ожидалось " + COLUMNS + " колонок, получено " + columnNames);
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            int field = TimeEntryParsingData.FIELD_NAMES.indexOf(columnNames.get(column));
+            if (field < 0) {
+                throw new IllegalArgumentException("Неизвестная колонка: " + columnNames.get(column));
+            }
+            fieldByColumn[column] = field;
+        }
+        this.outputStream = outputStream;
+        this.separator = (byte) separator.getSeparator();
+        this.decimalSeparator = (byte) decimalSeparator;
+        this.minSafeChar = (char) (Math.max(separator.getSeparator(), QUOTE) + 1);
+        // Дата и часы состоят из цифр, '-' и разделителя дробной части: кавычки нужны, если хотя бы один из них «небезопасен»
+        this.quoteDates = '-' < minSafeChar;
+        this.quoteHours = '0' < minSafeChar || decimalSeparator < minSafeChar || decimalSeparator == ESCAPE;
+        this.quoteNegativeHours = quoteHours || '-' < minSafeChar;
+    }
+
+    /**
+     * Записывает строку экспорта в буфер; буфер сбрасывается в поток по заполнении.
+     *
+     * @param row строка экспорта
+     */
+    public void write(TimeEntryExportRow row) throws IOException {
+        for (int column = 0; column < COLUMNS; column++) {
+            if (column > 0) {
+                ensureCapacity(1);
+                buffer[position++] = separator;
+            }
+            switch (fieldByColumn[column]) {
+                case WORK_DATE -> writeDate(row.getWorkDate());
+                case HOURS_WORKED -> writeHours(row.getWorkedMinutes());
+                case EMPLOYEE_ID -> writeLong(row.getEmployeeId());
+                case EMPLOYEE_NAME -> writeString(row.getEmployeeName());
+                case CREATED_BY_ID -> writeLong(row.getCreatedById());
+                case CREATED_BY_NAME -> writeString(row.getCreatedByName());
+                default -> throw new IllegalStateException("Неизвестное поле: " + fieldByColumn[column]);
+            }
+        }
+        ensureCapacity(1);
+        buffer[position++] = LINE_FEED;
+    }
+
+    /**
+     * Сбрасывает накопленные байты в поток. Поток не закрывается.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeLong(Long value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        ensureCapacity(MAX_VALUE_BYTES);
+        long number = value;
+        if (number == Long.MIN_VALUE) {
+            writeAscii(Long.toString(number));
+            return;
+        }
+        if (number < 0) {
+            buffer[position++] = '-';
+            number = -number;
+        }
+        int end = position + digitCount(number);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Часы = минуты / 60, округление до сотых HALF_UP (от нуля), ровно два знака после разделителя.
+     */
+    private void writeHours(Integer minutes) throws IOException {
+        if (minutes == null) {
+            return;
+        }
+        ensureCapacity(MAX_VALUE_BYTES);
+        boolean negative = minutes < 0;
+        long hundredths = (Math.abs((long) minutes) * 100 + 30) / 60;
+        boolean quoted = negative ? quoteNegativeHours : quoteHours;
+        if (quoted) {
+            buffer[position++] = QUOTE;
+        }
+        if (negative) {
+            buffer[position++] = '-';
+        }
+        long whole = hundredths / 100;
+        int end = position + digitCount(whole);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + whole % 10);
+            whole /= 10;
+        }
+        position = end;
+        int fraction = (int) (hundredths % 100);
+        buffer[position++] = decimalSeparator;
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        buffer[position++] = (byte) ('0' + fraction % 10);
+        if (quoted) {
+            buffer[position++] = QUOTE;
+        }
+    }
+
+    private void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            // Вне 0000–9999 ISO-формат добавляет знак года; такие даты пишутся через toString
+            writeString(date.toString());
+            return;
+        }
+        ensureCapacity(MAX_VALUE_BYTES);
+        if (quoteDates) {
+            buffer[position++] = QUOTE;
+        }
+        writeDigits(year, 4);
+        buffer[position++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        if (quoteDates) {
+            buffer[position++] = QUOTE;
+        }
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    /**
+     * Строка в UTF-8; в кавычки заключается по тем же правилам, что у Jackson, кавычки внутри удваиваются.
+     */
+    private void writeString(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quoted = needsQuotes(value);
+        if (quoted) {
+            ensureCapacity(1);
+            buffer[position++] = QUOTE;
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(MAX_VALUE_BYTES);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == QUOTE && quoted) {
+                    buffer[position++] = QUOTE;
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Непарный суррогат не представим в UTF-8, как и в String#getBytes заменяется на '?'
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (quoted) {
+            ensureCapacity(1);
+            buffer[position++] = QUOTE;
+        }
+    }
+
+    private void writeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private boolean needsQuotes(String value) {
+        int length = value.length();
+        if (length > MAX_UNQUOTED_LENGTH) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < minSafeChar || c == ESCAPE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
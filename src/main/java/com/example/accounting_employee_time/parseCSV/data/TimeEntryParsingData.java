@@ -1,10 +1,12 @@
 package com.example.accounting_employee_time.parseCSV.data;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Модель строки CSV-файла для импорта/экспорта записей времени.
@@ -13,40 +15,58 @@ import java.time.LocalDate;
 @Data
 public class TimeEntryParsingData implements ParsingData {
 
+    public static final String WORK_DATE_COLUMN = "Дата";
+    public static final String HOURS_WORKED_COLUMN = "Часы";
+    public static final String EMPLOYEE_ID_COLUMN = "ID сотрудника";
+    public static final String EMPLOYEE_NAME_COLUMN = "Имя сотрудника";
+    public static final String CREATED_BY_ID_COLUMN = "ID создателя";
+    public static final String CREATED_BY_NAME_COLUMN = "Имя создателя";
+
+    /**
+     * Имена колонок в порядке полей класса. Номера полей в этом списке используют
+     * {@link com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter}
+     * и {@link com.example.accounting_employee_time.parseCSV.TimeEntryCsvTokenizer}.
+     */
+    public static final List<String> FIELD_NAMES = List.of(WORK_DATE_COLUMN, HOURS_WORKED_COLUMN,
+            EMPLOYEE_ID_COLUMN, EMPLOYEE_NAME_COLUMN, CREATED_BY_ID_COLUMN, CREATED_BY_NAME_COLUMN);
+
     /**
      * Дата, за которую указывается рабочее время.
      */
-    @JsonProperty("Дата")
+    @JsonProperty(WORK_DATE_COLUMN)
+    @NotNull(message = "Дата обязательна")
     private LocalDate workDate;
 
     /**
      * Отработанное время в часах (может содержать дробную часть).
      */
-    @JsonProperty("Часы")
+    @JsonProperty(HOURS_WORKED_COLUMN)
+    @NotNull(message = "Количество часов обязательно")
     private BigDecimal hoursWorked;
 
     /**
      * Идентификатор сотрудника, за которого вносится запись.
      */
-    @JsonProperty("ID сотрудника")
+    @JsonProperty(EMPLOYEE_ID_COLUMN)
+    @NotNull(message = "ID сотрудника обязателен")
     private Long employeeId;
 
     /**
      * Имя сотрудника, за которого вносится запись.
      */
-    @JsonProperty("Имя сотрудника")
+    @JsonProperty(EMPLOYEE_NAME_COLUMN)
     private String employeeName;
 
     /**
      * Идентификатор создателя записи (для экспорта).
      */
-    @JsonProperty("ID создателя")
+    @JsonProperty(CREATED_BY_ID_COLUMN)
     private Long createdById;
 
     /**
      * Имя создателя записи (для экспорта).
      */
-    @JsonProperty("Имя создателя")
+    @JsonProperty(CREATED_BY_NAME_COLUMN)
     private String createdByName;
 }
 
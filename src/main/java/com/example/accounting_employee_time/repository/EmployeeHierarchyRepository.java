@@ -0,0 +1,45 @@
+package com.example.accounting_employee_time.repository;
+
+import com.example.accounting_employee_time.entity.EmployeeHierarchyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий таблицы замыкания иерархии сотрудников {@link EmployeeHierarchyEntity}.
+ * Таблица поддерживается при добавлении сотрудников и подставляется в запросы записей подзапросом;
+ * проверки подчинённости выполняются по индексу иерархии в памяти.
+ */
+@Repository
+public interface EmployeeHierarchyRepository extends JpaRepository<EmployeeHierarchyEntity, EmployeeHierarchyEntity.Key> {
+
+    /**
+     * Добавляет связь сотрудника с самим собой. Перед вставкой сохраняются ожидающие изменения,
+     * чтобы только что сохранённый сотрудник уже был в employees.
+     *
+     * @param employeeId идентификатор сотрудника
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO employee_hierarchy (ancestor_id, descendant_id, depth) VALUES (:employeeId, :employeeId, 0)",
+            nativeQuery = true)
+    void insertSelf(@Param("employeeId") Long employeeId);
+
+    /**
+     * Связывает поддерево сотрудника (его самого и всех подчинённых) со всеми начальниками chiefId,
+     * включая самого chiefId. Связь сотрудника с самим собой должна уже существовать.
+     *
+     * @param employeeId идентификатор корня поддерева
+     * @param chiefId идентификатор нового начальника
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO employee_hierarchy (ancestor_id, descendant_id, depth)
+            SELECT chain.ancestor_id, subtree.descendant_id, chain.depth + subtree.depth + 1
+            FROM employee_hierarchy chain
+            JOIN employee_hierarchy subtree ON subtree.ancestor_id = :employeeId
+            WHERE chain.descendant_id = :chiefId
+            """, nativeQuery = true)
+    void attachSubtree(@Param("employeeId") Long employeeId, @Param("chiefId") Long chiefId);
+}
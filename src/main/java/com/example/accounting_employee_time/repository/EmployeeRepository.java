@@ -3,8 +3,10 @@ package com.example.accounting_employee_time.repository;
 import com.example.accounting_employee_time.entity.EmployeeEntity;
 import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -45,4 +47,23 @@ public interface EmployeeRepository extends JpaRepository<EmployeeEntity, Long>
      */
     @NonNull
     Optional<EmployeeEntity> findById(@NonNull Long id);
+
+    /**
+     * Пары (сотрудник, начальник) всех сотрудников без загрузки сущностей.
+     * Используется для построения индекса иерархии в памяти.
+     *
+     * @return идентификаторы сотрудников и их начальников
+     */
+    @Query("select e.id as id, e.chief.id as chiefId from EmployeeEntity e")
+    List<EmployeeChief> findAllChiefLinks();
+
+    /**
+     * Проекция пары (сотрудник, начальник).
+     */
+    interface EmployeeChief {
+
+        Long getId();
+
+        Long getChiefId();
+    }
 }
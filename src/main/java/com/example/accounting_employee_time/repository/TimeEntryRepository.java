@@ -3,11 +3,20 @@ package com.example.accounting_employee_time.repository;
 import com.example.accounting_employee_time.entity.EmployeeEntity;
 import com.example.accounting_employee_time.entity.TimeEntryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для работы с сущностью {@link TimeEntryEntity}.
@@ -34,6 +43,182 @@ public interface TimeEntryRepository extends JpaRepository<TimeEntryEntity, Long
      */
     List<TimeEntryEntity> findByEmployeeIdInAndWorkDateBetween(List<Long> employeeIds, LocalDate start, LocalDate end);
 
+    /**
+     * Получение записей времени сотрудника и всех его подчинённых по всей иерархии за диапазон дат.
+     * Поддерево выбирается подзапросом к таблице замыкания в том же SQL-запросе,
+     * поэтому идентификаторы подчинённых не загружаются и не передаются списком {@code IN}.
+     *
+     * @param managerId идентификатор руководителя (его записи тоже включаются)
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return список записей времени
+     */
+    @Query("""
+            select t from TimeEntryEntity t
+            where t.employee.id in (select h.descendantId from EmployeeHierarchyEntity h where h.ancestorId = :managerId)
+              and t.workDate between :start and :end
+            """)
+    List<TimeEntryEntity> findBySubtreeAndWorkDateBetween(@Param("managerId") Long managerId,
+                                                          @Param("start") LocalDate start,
+                                                          @Param("end") LocalDate end);
+
+    /**
+     * Потоковое чтение строк экспорта по нескольким сотрудникам и диапазону дат, упорядоченных по сотруднику и дате.
+     * Имена сотрудника и создателя выбираются тем же запросом через соединение с employees,
+     * поэтому весь экспорт выполняется одним SQL-запросом, без загрузки сущностей.
+     * Строки читаются курсором порциями {@code HINT_FETCH_SIZE}; PostgreSQL использует курсор
+     * только внутри транзакции. Поток нужно закрыть.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return поток строк экспорта
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e.id as employeeId, e.employeeName as employeeName,
+                   c.id as createdById, c.employeeName as createdByName,
+                   t.workDate as workDate, t.workedMinutes as workedMinutes
+            from TimeEntryEntity t
+            join t.employee e
+            join t.createdBy c
+            where e.id in :employeeIds and t.workDate between :start and :end
+            order by e.id, t.workDate
+            """)
+    Stream<TimeEntryExportRow> streamExportRows(@Param("employeeIds") Collection<Long> employeeIds,
+                                                @Param("start") LocalDate start,
+                                                @Param("end") LocalDate end);
+
+    /**
+     * Потоковое чтение строк экспорта, как {@link #streamExportRows}, для сотрудника и всех его подчинённых
+     * по всей иерархии. Поддерево выбирается подзапросом к таблице замыкания в том же SQL-запросе,
+     * поэтому идентификаторы подчинённых не передаются списком {@code IN}.
+     *
+     * @param managerId идентификатор руководителя (его записи тоже включаются)
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return поток строк экспорта
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e.id as employeeId, e.employeeName as employeeName,
+                   c.id as createdById, c.employeeName as createdByName,
+                   t.workDate as workDate, t.workedMinutes as workedMinutes
+            from TimeEntryEntity t
+            join t.employee e
+            join t.createdBy c
+            where e.id in (select h.descendantId from EmployeeHierarchyEntity h where h.ancestorId = :managerId)
+              and t.workDate between :start and :end
+            order by e.id, t.workDate
+            """)
+    Stream<TimeEntryExportRow> streamSubtreeExportRows(@Param("managerId") Long managerId,
+                                                       @Param("start") LocalDate start,
+                                                       @Param("end") LocalDate end);
+
+    /**
+     * Потоковое чтение строк экспорта, как {@link #streamExportRows}, но без записей из периода
+     * [excludedFrom, excludedTo] — он берётся из готовых снимков закрытых месяцев.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param excludedFrom начало исключаемого периода (включительно)
+     * @param excludedTo конец исключаемого периода (включительно)
+     * @return поток строк экспорта
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e.id as employeeId, e.employeeName as employeeName,
+                   c.id as createdById, c.employeeName as createdByName,
+                   t.workDate as workDate, t.workedMinutes as workedMinutes
+            from TimeEntryEntity t
+            join t.employee e
+            join t.createdBy c
+            where e.id in :employeeIds and t.workDate between :start and :end
+              and t.workDate not between :excludedFrom and :excludedTo
+            order by e.id, t.workDate
+            """)
+    Stream<TimeEntryExportRow> streamExportRowsOutside(@Param("employeeIds") Collection<Long> employeeIds,
+                                                       @Param("start") LocalDate start,
+                                                       @Param("end") LocalDate end,
+                                                       @Param("excludedFrom") LocalDate excludedFrom,
+                                                       @Param("excludedTo") LocalDate excludedTo);
+
+    /**
+     * Потоковое чтение строк экспорта поддерева, как {@link #streamSubtreeExportRows}, но без записей
+     * из периода [excludedFrom, excludedTo].
+     *
+     * @param managerId идентификатор руководителя (его записи тоже включаются)
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param excludedFrom начало исключаемого периода (включительно)
+     * @param excludedTo конец исключаемого периода (включительно)
+     * @return поток строк экспорта
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e.id as employeeId, e.employeeName as employeeName,
+                   c.id as createdById, c.employeeName as createdByName,
+                   t.workDate as workDate, t.workedMinutes as workedMinutes
+            from TimeEntryEntity t
+            join t.employee e
+            join t.createdBy c
+            where e.id in (select h.descendantId from EmployeeHierarchyEntity h where h.ancestorId = :managerId)
+              and t.workDate between :start and :end
+              and t.workDate not between :excludedFrom and :excludedTo
+            order by e.id, t.workDate
+            """)
+    Stream<TimeEntryExportRow> streamSubtreeExportRowsOutside(@Param("managerId") Long managerId,
+                                                              @Param("start") LocalDate start,
+                                                              @Param("end") LocalDate end,
+                                                              @Param("excludedFrom") LocalDate excludedFrom,
+                                                              @Param("excludedTo") LocalDate excludedTo);
+
+    /**
+     * Строки экспорта одного сотрудника за период, упорядоченные по дате.
+     * Используется для построения снимков закрытых месяцев.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return строки экспорта
+     */
+    @Query("""
+            select e.id as employeeId, e.employeeName as employeeName,
+                   c.id as createdById, c.employeeName as createdByName,
+                   t.workDate as workDate, t.workedMinutes as workedMinutes
+            from TimeEntryEntity t
+            join t.employee e
+            join t.createdBy c
+            where e.id = :employeeId and t.workDate between :start and :end
+            order by t.workDate
+            """)
+    List<TimeEntryExportRow> findExportRowsByEmployee(@Param("employeeId") Long employeeId,
+                                                      @Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
+
+    /**
+     * Идентификаторы сотрудников, у которых есть записи за период.
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return идентификаторы сотрудников
+     */
+    @Query("select distinct t.employee.id from TimeEntryEntity t where t.workDate between :start and :end")
+    List<Long> findEmployeeIdsWithEntriesBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
     /**
      * Проверка существования записи времени по сотруднику и дате.
      *
@@ -42,5 +227,51 @@ public interface TimeEntryRepository extends JpaRepository<TimeEntryEntity, Long
      * @return {@code true}, если запись существует
      */
     boolean existsByEmployeeIdAndWorkDate(Long id, LocalDate workDate);
-}
 
+    /**
+     * Получение уже существующих записей для точных пар (сотрудник, дата) одним запросом.
+     * Пары передаются двумя массивами одинаковой длины и разворачиваются через {@code unnest},
+     * так что запрос идёт по индексу (employee_id, work_date) и не захватывает
+     * даты других сотрудников пакета.
+     *
+     * @param employeeIds идентификаторы сотрудников пар
+     * @param workDates даты пар в том же порядке
+     * @return пары (сотрудник, дата) существующих записей
+     */
+    @Query(value = """
+            SELECT t.employee_id AS "employeeId", t.work_date AS "workDate"
+            FROM time_entries t
+            JOIN unnest(CAST(:employeeIds AS bigint[]), CAST(:workDates AS date[])) AS p(employee_id, work_date)
+                 ON t.employee_id = p.employee_id AND t.work_date = p.work_date
+            """, nativeQuery = true)
+    List<EmployeeWorkDate> findExistingWorkDates(@Param("employeeIds") Long[] employeeIds,
+                                                 @Param("workDates") LocalDate[] workDates);
+
+    /**
+     * Проекция пары (сотрудник, дата) записи времени.
+     */
+    interface EmployeeWorkDate {
+
+        Long getEmployeeId();
+
+        LocalDate getWorkDate();
+    }
+
+    /**
+     * Проекция строки экспорта записи времени вместе с именами сотрудника и создателя.
+     */
+    interface TimeEntryExportRow {
+
+        Long getEmployeeId();
+
+        String getEmployeeName();
+
+        Long getCreatedById();
+
+        String getCreatedByName();
+
+        LocalDate getWorkDate();
+
+        Integer getWorkedMinutes();
+    }
+}
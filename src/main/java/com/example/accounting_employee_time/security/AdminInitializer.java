@@ -5,6 +5,7 @@ import com.example.accounting_employee_time.entity.EmployeeEntity;
 import com.example.accounting_employee_time.entity.Position;
 import com.example.accounting_employee_time.repository.DepartmentRepository;
 import com.example.accounting_employee_time.repository.EmployeeRepository;
+import com.example.accounting_employee_time.service.EmployeeHierarchyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -23,6 +24,7 @@ public class AdminInitializer implements CommandLineRunner {
     private final DepartmentRepository departmentRepository;
     private final PasswordEncoder passwordEncoder;
     private final AdminProperties adminProperties;
+    private final EmployeeHierarchyService hierarchyService;
 
     /**
      * Поиск админа в бд.
@@ -47,7 +49,7 @@ public class AdminInitializer implements CommandLineRunner {
                                                  .position(Position.DEVELOPER)
                                                  .role(Role.ADMIN).build();
 
-            repository.save(admin);
+            hierarchyService.addEmployee(repository.save(admin));
             log.info("Администратор создан");
         } else {
             log.info("Администратор уже существует");
@@ -0,0 +1,66 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сервис иерархии подчинённости: таблица замыкания {@code employee_hierarchy} для SQL-запросов
+ * и индекс иерархии в памяти для проверок. Проверки не обходят цепочку начальников и не обращаются к БД.
+ */
+public interface EmployeeHierarchyService {
+
+    /**
+     * Добавляет нового сотрудника в иерархию под его начальником (если он указан).
+     * Вызывается после сохранения сотрудника в той же транзакции.
+     *
+     * @param employee сохранённый сотрудник
+     */
+    void addEmployee(EmployeeEntity employee);
+
+    /**
+     * Проверка, является ли manager начальником employee по иерархии (прямым или по цепочке).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если manager выше employee по иерархии
+     */
+    boolean isSuperior(Long managerId, Long employeeId);
+
+    /**
+     * Проверка, является ли employee непосредственным подчинённым manager.
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если начальник employee — manager
+     */
+    boolean isDirectSubordinate(Long managerId, Long employeeId);
+
+    /**
+     * Идентификаторы всех подчинённых сотрудника по всей иерархии.
+     *
+     * @param managerId идентификатор руководителя
+     * @return идентификаторы прямых и непрямых подчинённых
+     */
+    List<Long> getSubordinateIds(Long managerId);
+
+    /**
+     * Отбирает из employeeIds подчинённых manager по всей иерархии (по одному снимку индекса).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeIds проверяемые идентификаторы сотрудников
+     * @return идентификаторы прямых и непрямых подчинённых из employeeIds
+     */
+    Set<Long> filterSubordinates(Long managerId, Collection<Long> employeeIds);
+
+    /**
+     * Отбирает из employeeIds непосредственных подчинённых manager (по одному снимку индекса).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeIds проверяемые идентификаторы сотрудников
+     * @return идентификаторы прямых подчинённых из employeeIds
+     */
+    Set<Long> filterDirectSubordinates(Long managerId, Collection<Long> employeeIds);
+}
@@ -4,7 +4,10 @@ import com.example.accounting_employee_time.entity.EmployeeEntity;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Сервисный интерфейс для работы с сотрудниками.
@@ -51,6 +54,15 @@ public interface EmployeeService {
      */
     EmployeeEntity findById(Long id);
 
+    /**
+     * Получение сотрудников по набору идентификаторов одним запросом.
+     * Отсутствующие в БД идентификаторы в результат не попадают.
+     *
+     * @param ids идентификаторы сотрудников
+     * @return сотрудники по их id
+     */
+    Map<Long, EmployeeEntity> findAllByIds(Collection<Long> ids);
+
     /**
      * Получение идентификатора текущего сотрудника.
      *
@@ -76,6 +88,26 @@ public interface EmployeeService {
      */
     boolean isSuperior(EmployeeEntity manager, EmployeeEntity employee);
 
+    /**
+     * Отбирает сотрудников, записи которых actor может просматривать: сам actor и его подчинённые по всей иерархии.
+     * Все идентификаторы проверяются за один вызов, без загрузки сотрудников.
+     *
+     * @param actor текущий пользователь
+     * @param targetIds запрошенные идентификаторы сотрудников
+     * @return разрешённые идентификаторы из targetIds; несуществующие сотрудники не включаются
+     */
+    Set<Long> filterAccessibleIds(EmployeeEntity actor, Collection<Long> targetIds);
+
+    /**
+     * Отбирает сотрудников, за которых actor может создавать и изменять записи: сам actor и его прямые подчинённые.
+     * Все идентификаторы проверяются за один вызов, без загрузки сотрудников.
+     *
+     * @param actor текущий пользователь
+     * @param targetIds запрошенные идентификаторы сотрудников
+     * @return разрешённые идентификаторы из targetIds; несуществующие сотрудники не включаются
+     */
+    Set<Long> filterEditableIds(EmployeeEntity actor, Collection<Long> targetIds);
+
     /**
      * Получение прокси-ссылки на сотрудника по id для использования в мапперах.
      *
@@ -85,12 +117,12 @@ public interface EmployeeService {
     EmployeeEntity getReferenceById(Long chiefId);
 
     /**
-     * Рекурсивное получение всех подчинённых сотрудника по всей иерархии.
+     * Получение идентификаторов всех подчинённых сотрудника по всей иерархии.
      *
      * @param manager сотрудник-руководитель
-     * @return список всех подчинённых (прямых и непрямых)
+     * @return идентификаторы всех подчинённых (прямых и непрямых)
      */
-    List<EmployeeEntity> getAllSubordinatesRecursive(EmployeeEntity manager);
+    List<Long> getAllSubordinateIds(EmployeeEntity manager);
 
     /**
      * Проверка, является ли employee непосредственным подчинённым potentialChief.
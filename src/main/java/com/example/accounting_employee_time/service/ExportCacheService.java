@@ -0,0 +1,170 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш сформированных файлов экспорта записей времени на локальном диске.
+ * Размер кэша ограничен, при переполнении удаляются давно не использованные файлы.
+ * Файлы удаляются, как только меняются записи, которые в них попали.
+ */
+public interface ExportCacheService {
+
+    /**
+     * Открывает готовый файл экспорта из кэша или файл докачки.
+     *
+     * @param key параметры экспорта
+     * @return открытый файл экспорта (его нужно закрыть после отдачи) или null, если готового файла нет
+     */
+    ExportFile openCached(Key key);
+
+    /**
+     * Формирует файл экспорта, отправляя его в переданный поток по мере формирования и одновременно
+     * сохраняя копию на диск. Копия не больше
+     * {@link com.example.accounting_employee_time.configuration.ExportProperties#getCacheMaxEntrySize()}
+     * попадает в кэш, остальные хранятся как файлы докачки
+     * {@link com.example.accounting_employee_time.configuration.ExportProperties#getResumeTtl()}.
+     * Если клиент отключился, а файлы докачки включены, экспорт дописывается в копию, чтобы загрузку
+     * можно было продолжить, и только затем метод завершается ошибкой.
+     *
+     * @param key параметры экспорта
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @param generator формирует файл в переданный поток и возвращает количество записей
+     * @return количество экспортированных записей
+     */
+    long export(Key key, OutputStream outputStream, ToLongFunction<OutputStream> generator);
+
+    /**
+     * Возвращает экспорт файлом на диске, чтобы отдать его с сильным ETag и докачкой: готовый файл из кэша
+     * или файл докачки; если экспорт с этим ключом сейчас записывается, сначала дожидается его; иначе формирует
+     * файл целиком. Сформированный файл публикуется так же, как копия в {@link #export}, а если не опубликован,
+     * удаляется при закрытии. Блокирует вызывающий поток до готовности файла.
+     *
+     * @param key параметры экспорта
+     * @param generator формирует файл в переданный поток и возвращает количество записей
+     * @return открытый файл экспорта (его нужно закрыть после отдачи)
+     */
+    ExportFile openOrRender(Key key, ToLongFunction<OutputStream> generator);
+
+    /**
+     * Слабый ETag экспорта, известный до его формирования: хэш ключа и номер версии данных.
+     * Версия меняется при каждой инвалидации кэша и при перезапуске приложения, поэтому одинаковый ETag
+     * означает, что записи, попавшие в экспорт, с тех пор не менялись.
+     *
+     * @param key параметры экспорта
+     * @return слабый ETag ({@code W/"…"})
+     */
+    String versionEtag(Key key);
+
+    /**
+     * Удаляет из кэша файлы, содержащие записи сотрудника из затронутого периода,
+     * а для события без периода — все файлы.
+     *
+     * @param event событие изменения записей
+     */
+    void invalidate(TimeEntryChangedEvent event);
+
+    /**
+     * Ключ кэша: итоговый набор доступных сотрудников, период, формат и способ формирования файла.
+     * Если сотрудники не перечислены в запросе явно, subtreeRootId — пользователь, чьё поддерево экспортируется:
+     * записи тогда выбираются подзапросом к таблице замыкания, а employeeIds (то же поддерево по индексу иерархии)
+     * нужен только кэшу, снимкам и параллельному экспорту.
+     */
+    @Value
+    class Key {
+
+        Set<Long> employeeIds;
+
+        Long subtreeRootId;
+
+        LocalDate start;
+
+        LocalDate end;
+
+        FileExtension format;
+
+        ExportMode mode;
+
+        public Key(Set<Long> employeeIds,
+                   Long subtreeRootId,
+                   LocalDate start,
+                   LocalDate end,
+                   FileExtension format,
+                   ExportMode mode) {
+            this.employeeIds = Set.copyOf(employeeIds);
+            this.subtreeRootId = subtreeRootId;
+            this.start = start;
+            this.end = end;
+            this.format = format;
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * Открытый файл экспорта. Канал открыт до удаления файла из кэша, поэтому содержимое
+     * остаётся доступным до закрытия, даже если файл тем временем вытеснен или инвалидирован.
+     */
+    final class ExportFile implements Closeable {
+
+        private final FileChannel channel;
+        private final long size;
+        private final long rows;
+        private final String etag;
+        private final Runnable onClose;
+
+        public ExportFile(FileChannel channel, long size, long rows, String etag, Runnable onClose) {
+            this.channel = channel;
+            this.size = size;
+            this.rows = rows;
+            this.etag = etag;
+            this.onClose = onClose;
+        }
+
+        /**
+         * @return канал для чтения файла
+         */
+        public FileChannel getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return размер файла в байтах
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return количество записей в файле
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return сильный ETag (в кавычках), вычисленный по содержимому файла при его формировании
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+}
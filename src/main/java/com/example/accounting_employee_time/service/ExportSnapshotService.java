@@ -0,0 +1,46 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Неизменяемые снимки закрытых месяцев для экспорта записей времени.
+ * Фоновое задание сохраняет записи каждого сотрудника за каждый закрытый (прошедший) месяц
+ * в отдельный сжатый CSV-сегмент на локальном диске. Экспорт собирается из сегментов
+ * и живого запроса только за оставшуюся часть периода.
+ */
+public interface ExportSnapshotService {
+
+    /**
+     * Экспортирует записи времени в CSV с заголовком, используя снимки закрытых месяцев.
+     * Результат совпадает с обычным экспортом побайтно.
+     * Если для периода нет ни одного полного закрытого месяца или нужные снимки ещё не построены,
+     * ничего не записывает и возвращает -1.
+     *
+     * @param employeeIds идентификаторы сотрудников, права на которых уже проверены
+     * @param subtreeRootId руководитель, если employeeIds — всё его поддерево: записи вне снимков
+     *                      выбираются подзапросом к таблице замыкания (может быть null)
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @return количество экспортированных записей или -1, если снимки неприменимы
+     */
+    long exportCsv(Set<Long> employeeIds, Long subtreeRootId, LocalDate start, LocalDate end, OutputStream outputStream);
+
+    /**
+     * Строит недостающие снимки: все закрытые месяцы после смены месяца или полной инвалидации,
+     * иначе — только месяцы, затронутые изменениями.
+     */
+    void refresh();
+
+    /**
+     * Помечает снимки закрытых месяцев, затронутых изменением, как устаревшие.
+     * Событие без периода помечает устаревшими все снимки.
+     *
+     * @param event событие изменения записей
+     */
+    void invalidate(TimeEntryChangedEvent event);
+}
@@ -1,14 +1,23 @@
 package com.example.accounting_employee_time.service;
 
+import com.example.accounting_employee_time.arrow.ArrowColumn;
 import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.ParsedRow;
 import com.example.accounting_employee_time.parseCSV.data.ParsingData;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Сервис для работы с файлами импорта и экспорта.
  * Обеспечивает парсинг и генерацию файлов с учётом заголовков и форматов.
+ * Файлы, сжатые gzip ({@code .csv.gz}), принимаются наравне с несжатыми и распаковываются потоком при чтении.
  *
  * @param <P> тип данных, реализующий {@link ParsingData}, с которым работает сервис
  */
@@ -38,6 +47,103 @@ public interface FileProcessService {
                                                            MultipartFile multipartFile,
                                                            FileExtension fileExtension);
 
+    /**
+     * Потоково парсит файл с заголовком, передавая строки обработчику порциями.
+     * Файл не загружается в память целиком: одновременно в памяти находится не более одной порции.
+     * Строки, не прошедшие валидацию, также передаются обработчику вместе с описанием нарушений.
+     *
+     * @param dataClass класс объекта, в который маппится каждая запись
+     * @param multipartFile файл для парсинга
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @param chunkSize максимальное количество строк в порции
+     * @param chunkConsumer обработчик очередной порции строк
+     * @return общее количество прочитанных строк
+     */
+    <P extends ParsingData> long parseFileWithHeader(Class<P> dataClass,
+                                                     MultipartFile multipartFile,
+                                                     FileExtension fileExtension,
+                                                     int chunkSize,
+                                                     Consumer<List<ParsedRow<P>>> chunkConsumer);
+
+    /**
+     * Потоково парсит файл без заголовка, передавая строки обработчику порциями.
+     * Строки, не прошедшие валидацию, также передаются обработчику вместе с описанием нарушений.
+     *
+     * @param dataClass класс объекта, в который маппится каждая запись
+     * @param multipartFile файл для парсинга
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @param chunkSize максимальное количество строк в порции
+     * @param chunkConsumer обработчик очередной порции строк
+     * @return общее количество прочитанных строк
+     */
+    <P extends ParsingData> long parseFileWithoutHeader(Class<P> dataClass,
+                                                        MultipartFile multipartFile,
+                                                        FileExtension fileExtension,
+                                                        int chunkSize,
+                                                        Consumer<List<ParsedRow<P>>> chunkConsumer);
+
+    /**
+     * Сохраняет загруженный файл во временный файл на диске после проверки расширения.
+     * Нужен, когда файл обрабатывается после завершения HTTP-запроса.
+     * Сжатый файл сохраняется распакованным.
+     * Удаление временного файла — ответственность вызывающей стороны.
+     *
+     * @param multipartFile загружаемый файл
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @return путь к временному файлу
+     */
+    Path spoolFile(MultipartFile multipartFile, FileExtension fileExtension);
+
+    /**
+     * Потоково парсит файл на диске с заголовком, передавая строки обработчику порциями.
+     *
+     * @param dataClass класс объекта, в который маппится каждая запись
+     * @param file путь к файлу (например, полученный через {@link #spoolFile})
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @param chunkSize максимальное количество строк в порции
+     * @param chunkConsumer обработчик очередной порции строк
+     * @return общее количество прочитанных строк
+     */
+    <P extends ParsingData> long parseFileWithHeader(Class<P> dataClass,
+                                                     Path file,
+                                                     FileExtension fileExtension,
+                                                     int chunkSize,
+                                                     Consumer<List<ParsedRow<P>>> chunkConsumer);
+
+    /**
+     * Потоково парсит файл на диске без заголовка, передавая строки обработчику порциями.
+     *
+     * @param dataClass класс объекта, в который маппится каждая запись
+     * @param file путь к файлу (например, полученный через {@link #spoolFile})
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @param chunkSize максимальное количество строк в порции
+     * @param chunkConsumer обработчик очередной порции строк
+     * @return общее количество прочитанных строк
+     */
+    <P extends ParsingData> long parseFileWithoutHeader(Class<P> dataClass,
+                                                        Path file,
+                                                        FileExtension fileExtension,
+                                                        int chunkSize,
+                                                        Consumer<List<ParsedRow<P>>> chunkConsumer);
+
+    /**
+     * Параллельно парсит файл на диске с заголовком.
+     * Файл делится на диапазоны по границам записей, диапазоны разбираются и проверяются
+     * в пуле потоков, а порции передаются обработчику в исходном порядке строк и в вызывающем потоке.
+     *
+     * @param dataClass класс объекта, в который маппится каждая запись
+     * @param file путь к файлу (например, полученный через {@link #spoolFile})
+     * @param fileExtension ожидаемое расширение файла (например, CSV)
+     * @param chunkSize максимальное количество строк в порции
+     * @param chunkConsumer обработчик очередной порции строк
+     * @return общее количество прочитанных строк
+     */
+    <P extends ParsingData> long parseFileWithHeaderParallel(Class<P> dataClass,
+                                                             Path file,
+                                                             FileExtension fileExtension,
+                                                             int chunkSize,
+                                                             Consumer<List<ParsedRow<P>>> chunkConsumer);
+
     /**
      * Экспортирует список объектов в файл с заголовком.
      *
@@ -55,4 +161,61 @@ public interface FileProcessService {
      * @return содержимое файла в виде массива байт
      */
     <P extends ParsingData> byte[] exportFileWithoutHeader(Class<P> dataClass, List<P> data);
+
+    /**
+     * Потоково экспортирует объекты в файл с заголовком, записывая каждую строку в выходной поток по мере чтения.
+     * Если объектов нет, ничего не записывается (как и у {@link #exportFileWithHeader(Class, List)}).
+     * Выходной поток не закрывается.
+     *
+     * @param dataClass класс объекта, данные которого экспортируются
+     * @param data поток объектов для экспорта
+     * @param outputStream поток, в который записывается файл
+     * @return количество записанных строк
+     */
+    <P extends ParsingData> long exportFileWithHeader(Class<P> dataClass, Stream<P> data, OutputStream outputStream);
+
+    /**
+     * Потоково экспортирует объекты в файл без заголовка, записывая каждую строку в выходной поток по мере чтения.
+     * Выходной поток не закрывается.
+     *
+     * @param dataClass класс объекта, данные которого экспортируются
+     * @param data поток объектов для экспорта
+     * @param outputStream поток, в который записывается файл
+     * @return количество записанных строк
+     */
+    <P extends ParsingData> long exportFileWithoutHeader(Class<P> dataClass, Stream<P> data, OutputStream outputStream);
+
+    /**
+     * Потоково экспортирует строки экспорта записей времени в CSV с заголовком специализированным
+     * {@link com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter}. Результат совпадает с
+     * {@link #exportFileWithHeader(Class, Stream, OutputStream)} для {@link TimeEntryParsingData}.
+     * Если строк нет, ничего не записывается. Выходной поток не закрывается.
+     *
+     * @param rows поток строк экспорта
+     * @param outputStream поток, в который записывается файл
+     * @return количество записанных строк
+     */
+    long exportTimeEntriesWithHeader(Stream<? extends TimeEntryExportRow> rows, OutputStream outputStream);
+
+    /**
+     * Потоково экспортирует строки экспорта записей времени в CSV без заголовка специализированным
+     * {@link com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter}. Выходной поток не закрывается.
+     *
+     * @param rows поток строк экспорта
+     * @param outputStream поток, в который записывается файл
+     * @return количество записанных строк
+     */
+    long exportTimeEntriesWithoutHeader(Stream<? extends TimeEntryExportRow> rows, OutputStream outputStream);
+
+    /**
+     * Потоково экспортирует строки в формат Apache Arrow IPC ({@link FileExtension#ARROW}):
+     * схема, затем record batch'и ограниченного размера, значения пишутся в нативные векторы колонок.
+     * Схема записывается и при отсутствии строк. Выходной поток не закрывается.
+     *
+     * @param columns колонки файла
+     * @param data поток строк для экспорта
+     * @param outputStream поток, в который записывается файл
+     * @return количество записанных строк
+     */
+    <R> long exportArrowStream(List<ArrowColumn<R>> columns, Stream<? extends R> data, OutputStream outputStream);
 }
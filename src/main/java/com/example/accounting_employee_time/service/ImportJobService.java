@@ -0,0 +1,42 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ImportJobDTO;
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+/**
+ * Сервис фоновых заданий импорта записей времени.
+ * Файл сохраняется на диск и обрабатывается в ограниченном пуле потоков, не занимая поток HTTP-запроса.
+ * Состояние заданий хранится в памяти; завершённые задания удаляются по истечении настроенного срока.
+ */
+public interface ImportJobService {
+
+    /**
+     * Ставит импорт файла в очередь.
+     *
+     * @param file CSV-файл с записями времени
+     * @param actor сотрудник, выполняющий импорт
+     * @param mode способ сохранения записей
+     * @return состояние созданного задания
+     * @throws TaskRejectedException если очередь заданий заполнена
+     */
+    ImportJobDTO submit(MultipartFile file, EmployeeEntity actor, ImportMode mode);
+
+    /**
+     * Возвращает текущее состояние задания.
+     * Задание доступно сотруднику, который его создал, и администратору.
+     *
+     * @param id идентификатор задания
+     * @param actor текущий сотрудник
+     * @return состояние задания
+     * @throws EntityNotFoundException если задание не найдено или уже удалено по сроку хранения
+     * @throws AccessDeniedException если задание принадлежит другому сотруднику
+     */
+    ImportJobDTO getJob(UUID id, EmployeeEntity actor);
+}
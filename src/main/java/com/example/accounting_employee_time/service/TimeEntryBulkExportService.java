@@ -0,0 +1,40 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ExportMode;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Массовый экспорт записей времени средствами PostgreSQL (режим {@link ExportMode#COPY}).
+ * CSV-файл формирует сама БД, без создания сущностей и сериализации в Java.
+ */
+public interface TimeEntryBulkExportService {
+
+    /**
+     * Экспортирует записи времени указанных сотрудников в CSV с заголовком.
+     * Колонки, их порядок, разделитель и формат значений совпадают со схемой
+     * {@link com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData}.
+     * Если записей нет, в поток ничего не записывается.
+     *
+     * @param employeeIds идентификаторы сотрудников, права на которых уже проверены
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @return количество экспортированных записей
+     */
+    long exportCsv(Collection<Long> employeeIds, LocalDate start, LocalDate end, OutputStream outputStream);
+
+    /**
+     * Экспортирует записи времени сотрудника и всех его подчинённых по всей иерархии, как {@link #exportCsv}.
+     * Поддерево выбирается подзапросом к таблице замыкания внутри COPY, без списка идентификаторов.
+     *
+     * @param managerId идентификатор руководителя (его записи тоже включаются), права уже проверены
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @return количество экспортированных записей
+     */
+    long exportSubtreeCsv(Long managerId, LocalDate start, LocalDate end, OutputStream outputStream);
+}
@@ -0,0 +1,29 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.nio.file.Path;
+
+/**
+ * Массовый импорт записей времени средствами PostgreSQL (режим {@link ImportMode#COPY}).
+ * Строки загружаются во временную таблицу командой COPY, после чего проверяются и переносятся
+ * в time_entries набором SQL-запросов, без создания сущностей Hibernate.
+ */
+public interface TimeEntryBulkImportService {
+
+    /**
+     * Импортирует записи времени из CSV-файла на диске.
+     * Правила те же, что в {@link TimeEntryService#createAll}: записи для несуществующих сотрудников
+     * и дубликаты (уже существующие или повторяющиеся в файле) отклоняются и попадают в отчёт,
+     * запись не за actor и не за его непосредственного подчинённого прерывает импорт.
+     *
+     * @param file путь к CSV-файлу с заголовком
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт, в который записывается прогресс и результат
+     * @throws AccessDeniedException если в файле есть запись, на которую у actor нет прав
+     */
+    void importFile(Path file, EmployeeEntity actor, ImportReport report);
+}
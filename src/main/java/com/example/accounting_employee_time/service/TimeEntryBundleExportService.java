@@ -0,0 +1,63 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import lombok.Value;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Экспорт записей времени архивом ZIP: отдельный CSV-файл на каждого доступного сотрудника.
+ * Файлы сотрудников формируются параллельно в пуле экспорта, а архив пишется последовательно
+ * в порядке сотрудников, поэтому в памяти одновременно находится лишь несколько файлов.
+ */
+public interface TimeEntryBundleExportService {
+
+    /**
+     * Определяет доступных пользователю сотрудников и имена файлов архива.
+     * Правила доступа те же, что в {@link TimeEntryService#getAllAccessible}; доступ проверяется один раз на весь архив.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть null или пуст)
+     * @param startDate начальная дата (может быть null)
+     * @param endDate конечная дата (может быть null)
+     * @return состав архива
+     */
+    Bundle prepare(EmployeeEntity actor, List<Long> employeeIds, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Записывает архив в поток. Каждый файл сотрудника совпадает с обычным CSV-экспортом по этому сотруднику
+     * (с заголовком; пустой, если записей за период нет).
+     * Вызывается вне транзакции запроса: каждый файл читается в своей транзакции.
+     *
+     * @param bundle состав архива из {@link #prepare}
+     * @param outputStream поток, в который записывается архив (не закрывается)
+     * @return общее количество экспортированных записей
+     */
+    long writeZip(Bundle bundle, OutputStream outputStream);
+
+    /**
+     * Состав архива: файлы сотрудников в порядке возрастания ID и период экспорта.
+     */
+    @Value
+    class Bundle {
+
+        List<Entry> entries;
+
+        LocalDate start;
+
+        LocalDate end;
+    }
+
+    /**
+     * Файл архива с записями одного сотрудника.
+     */
+    @Value
+    class Entry {
+
+        Long employeeId;
+
+        String fileName;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.service.ExportCacheService.ExportFile;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Сервис экспорта записей рабочего времени в файлы.
+ * Записи читаются из БД курсором и сразу пишутся в выходной поток, без накопления в памяти.
+ */
+public interface TimeEntryExportService {
+
+    /**
+     * Определяет доступных пользователю сотрудников и период экспорта.
+     * Правила доступа те же, что в {@link TimeEntryService#getAllAccessible}.
+     * Вызывается в потоке запроса: контекст безопасности в поток записи ответа не передаётся.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть null или пуст)
+     * @param startDate начальная дата (может быть null)
+     * @param endDate конечная дата (может быть null)
+     * @param format формат файла: CSV или ARROW (для ARROW mode не учитывается)
+     * @param mode способ формирования CSV
+     * @return параметры экспорта
+     */
+    Key prepare(EmployeeEntity actor,
+                List<Long> employeeIds,
+                LocalDate startDate,
+                LocalDate endDate,
+                FileExtension format,
+                ExportMode mode);
+
+    /**
+     * Готовый файл экспорта из кэша.
+     *
+     * @param key параметры экспорта
+     * @return открытый файл (его нужно закрыть после отдачи) или null, если экспорт нужно сформировать
+     */
+    ExportFile openCached(Key key);
+
+    /**
+     * Слабый ETag экспорта, известный до его формирования (см. {@link ExportCacheService#versionEtag}).
+     *
+     * @param key параметры экспорта
+     * @return слабый ETag
+     */
+    String versionEtag(Key key);
+
+    /**
+     * Возвращает экспорт файлом на диске, чтобы отдать его с сильным ETag и поддержкой Range
+     * (см. {@link ExportCacheService#openOrRender}): готовый файл, дописываемый файл той же выгрузки
+     * или файл, сформированный целиком. Вызывается из тела ответа, а не из потока обработки запроса.
+     *
+     * @param key параметры экспорта
+     * @return открытый файл (его нужно закрыть после отдачи)
+     */
+    ExportFile openOrRender(Key key);
+
+    /**
+     * Формирует экспорт и пишет его в поток по мере чтения из БД, одновременно сохраняя копию в кэш.
+     * CSV пишется с заголовком (если записей нет, файл пустой); Apache Arrow IPC — поток record batch'ей
+     * с колонками created_by_id, employee_id (int64), work_date (date32), created_by_name, employee_name (utf8),
+     * worked_minutes (int32), при отсутствии записей — только схема.
+     *
+     * @param key параметры экспорта
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @return количество экспортированных записей
+     */
+    long export(Key key, OutputStream outputStream);
+}
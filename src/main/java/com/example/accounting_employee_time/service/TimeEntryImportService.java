@@ -0,0 +1,42 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+/**
+ * Сервис импорта записей рабочего времени из файлов.
+ * Обрабатывает файл потоково, порциями ограниченного размера, не загружая его в память целиком.
+ */
+public interface TimeEntryImportService {
+
+    /**
+     * Импортирует записи времени из CSV-файла с заголовком.
+     * Строки с ошибками валидации и дубликаты (уже существующие записи или повторы внутри файла)
+     * не прерывают импорт, а попадают в отчёт с указанием номера строки и причины.
+     * Импорт выполняется в одной транзакции: при нарушении прав доступа ни одна запись из файла не сохраняется.
+     *
+     * @param file CSV-файл с записями времени
+     * @param actor сотрудник, выполняющий импорт
+     * @param mode способ сохранения записей
+     * @return отчёт об импорте
+     * @throws AccessDeniedException если в файле есть запись не за actor и не за его непосредственного подчинённого
+     */
+    ImportReport importFile(MultipartFile file, EmployeeEntity actor, ImportMode mode);
+
+    /**
+     * Импортирует записи времени из CSV-файла на диске, заполняя переданный отчёт по мере обработки.
+     * Используется фоновыми заданиями импорта: отчёт можно читать из другого потока, пока импорт идёт.
+     *
+     * @param file путь к CSV-файлу с заголовком
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт, в который записывается прогресс и результат
+     * @param mode способ сохранения записей
+     * @throws AccessDeniedException если в файле есть запись не за actor и не за его непосредственного подчинённого
+     */
+    void importFile(Path file, EmployeeEntity actor, ImportReport report, ImportMode mode);
+}
@@ -0,0 +1,27 @@
+package com.example.accounting_employee_time.service;
+
+import com.example.accounting_employee_time.dto.ExportMode;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Параллельный экспорт записей времени (режим {@link ExportMode#PARALLEL}).
+ * Сотрудники делятся на шарды по возрастанию идентификатора, шарды читаются и сериализуются
+ * одновременно, каждый в своей транзакции, а готовые части записываются по порядку шардов.
+ */
+public interface TimeEntryParallelExportService {
+
+    /**
+     * Экспортирует записи времени указанных сотрудников в CSV с заголовком.
+     * Результат совпадает с обычным экспортом побайтно. Если записей нет, в поток ничего не записывается.
+     *
+     * @param employeeIds идентификаторы сотрудников, права на которых уже проверены
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл (не закрывается)
+     * @return количество экспортированных записей
+     */
+    long exportCsv(Set<Long> employeeIds, LocalDate start, LocalDate end, OutputStream outputStream);
+}
@@ -6,6 +6,8 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.Map;
 
 /**
  * Сервисный интерфейс для управления записями рабочего времени сотрудников.
@@ -23,6 +25,18 @@ public interface TimeEntryService {
      */
     void create(TimeEntryDTO dto, String employeeName);
 
+    /**
+     * Создаёт пакет записей рабочего времени от имени одного пользователя.
+     * Проверки прав те же, что и в {@link #create(TimeEntryDTO, String)}, а записи сохраняются одной пакетной вставкой.
+     * Записи за несуществующих сотрудников и дубликаты (уже существующие в БД или повторяющиеся внутри пакета)
+     * не прерывают создание, а пропускаются и возвращаются с причиной отклонения.
+     *
+     * @param dtos DTO с данными записей
+     * @param actor пользователь, создающий записи
+     * @return причины отклонения по индексу записи в dtos; пустая карта, если созданы все записи
+     */
+    Map<Integer, String> createAll(List<TimeEntryDTO> dtos, EmployeeEntity actor);
+
     /**
      * Обновляет существующую запись рабочего времени по её ID.
      * Проверяет права текущего пользователя на обновление.
@@ -77,4 +91,15 @@ public interface TimeEntryService {
                                         List<Long> employeeIds,
                                         LocalDate startDate,
                                         LocalDate endDate);
+
+    /**
+     * Определяет сотрудников, записи которых доступны текущему пользователю.
+     * Если список сотрудников не указан, возвращает текущего пользователя и всех его подчинённых;
+     * иначе — текущего пользователя и тех сотрудников из списка, начальником которых он является.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть пустым или null)
+     * @return ID сотрудников, записи которых можно просматривать
+     */
+    Set<Long> resolveAccessibleEmployeeIds(EmployeeEntity actor, List<Long> employeeIds);
 }
@@ -1,13 +1,19 @@
 package com.example.accounting_employee_time.service.impl;
 
 import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.event.EmployeeHierarchyChangedEvent;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
 import com.example.accounting_employee_time.repository.EmployeeRepository;
 import com.example.accounting_employee_time.service.AdminEmployeeService;
+import com.example.accounting_employee_time.service.EmployeeHierarchyService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Реализация сервиса {@link AdminEmployeeService} для управления сотрудниками администратором.
@@ -18,6 +24,8 @@ import java.util.List;
 public class AdminEmployeeServiceImpl implements AdminEmployeeService {
 
     private final EmployeeRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeHierarchyService hierarchyService;
 
     /**
      * Получение списка всех сотрудников из базы данных.
@@ -44,13 +52,17 @@ public class AdminEmployeeServiceImpl implements AdminEmployeeService {
 
     /**
      * Создание нового сотрудника и сохранение его в базе данных.
+     * Сотрудник добавляется в иерархию под своим начальником в той же транзакции.
      *
      * @param employeeEntity объект сотрудника
      * @return сохранённый сотрудник с присвоенным id
      */
     @Override
+    @Transactional
     public EmployeeEntity create(EmployeeEntity employeeEntity) {
-        return repository.save(employeeEntity);
+        EmployeeEntity saved = repository.save(employeeEntity);
+        hierarchyService.addEmployee(saved);
+        return saved;
     }
 
     /**
@@ -67,11 +79,17 @@ public class AdminEmployeeServiceImpl implements AdminEmployeeService {
         EmployeeEntity employeeEntityFromDB = repository.findById(id)
                                                         .orElseThrow(() -> new EntityNotFoundException(String.format("EmployeeEntity with id=%d not found", id)));
 
+        boolean renamed = !Objects.equals(employeeEntityFromDB.getEmployeeName(), employeeEntity.getUsername());
         employeeEntityFromDB.setEmployeeName(employeeEntity.getUsername());
         employeeEntityFromDB.setPassword(employeeEntity.getPassword());
         employeeEntityFromDB.setRole(employeeEntity.getRole());
 
-        return repository.save(employeeEntityFromDB);
+        EmployeeEntity saved = repository.save(employeeEntityFromDB);
+        if (renamed) {
+            // Имя сотрудника попадает в экспорт его записей и записей, созданных им; пароль и роль — нет
+            eventPublisher.publishEvent(TimeEntryChangedEvent.allDates(id));
+        }
+        return saved;
     }
 
     /**
@@ -82,6 +100,8 @@ public class AdminEmployeeServiceImpl implements AdminEmployeeService {
     @Override
     public void delete(Long id) {
         repository.deleteById(id);
+        eventPublisher.publishEvent(TimeEntryChangedEvent.allDates(id));
+        eventPublisher.publishEvent(new EmployeeHierarchyChangedEvent(id));
     }
 }
 
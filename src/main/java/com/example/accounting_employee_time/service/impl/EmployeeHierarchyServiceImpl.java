@@ -0,0 +1,256 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.event.EmployeeHierarchyChangedEvent;
+import com.example.accounting_employee_time.hierarchy.OrgTreeIndex;
+import com.example.accounting_employee_time.repository.EmployeeHierarchyRepository;
+import com.example.accounting_employee_time.repository.EmployeeRepository;
+import com.example.accounting_employee_time.repository.EmployeeRepository.EmployeeChief;
+import com.example.accounting_employee_time.service.EmployeeHierarchyService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Реализация {@link EmployeeHierarchyService}.
+ * Таблица замыкания {@link EmployeeHierarchyRepository} поддерживается для SQL-запросов (подзапрос поддерева),
+ * а проверки подчинённости и перечисление подчинённых выполняются по {@link OrgTreeIndex} в памяти, без обращения к БД.
+ * Индекс строится при первом обращении и целиком перестраивается и подменяется после коммита каждого
+ * изменения иерархии; пока новый индекс строится, читатели пользуются предыдущим.
+ * Метрика {@code employee.hierarchy.index.staleness} — сколько секунд индекс отстаёт от БД.
+ */
+@Slf4j
+@Service
+public class EmployeeHierarchyServiceImpl implements EmployeeHierarchyService {
+
+    private final EmployeeHierarchyRepository repository;
+    private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Число закоммиченных изменений иерархии.
+     */
+    private final AtomicLong changeCount = new AtomicLong();
+
+    /**
+     * {@link System#nanoTime()} первого изменения, не учтённого индексом; 0 — индекс актуален.
+     */
+    private final AtomicLong staleSince = new AtomicLong();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public EmployeeHierarchyServiceImpl(EmployeeHierarchyRepository repository,
+                                        EmployeeRepository employeeRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+
+        Gauge.builder("employee.hierarchy.index.staleness", staleSince, EmployeeHierarchyServiceImpl::staleSeconds)
+             .description("Отставание индекса иерархии в памяти от БД")
+             .baseUnit("seconds")
+             .register(meterRegistry);
+        Gauge.builder("employee.hierarchy.index.size", this, service -> {
+                 Snapshot current = service.snapshot;
+                 return current != null ? current.index.size() : 0;
+             })
+             .description("Число сотрудников в индексе иерархии")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Добавляет связь сотрудника с самим собой и связи со всеми начальниками цепочки его начальника.
+     * Индекс в памяти перестраивается после коммита.
+     *
+     * @param employee сохранённый сотрудник
+     */
+    @Override
+    @Transactional
+    public void addEmployee(EmployeeEntity employee) {
+        repository.insertSelf(employee.getId());
+        if (employee.getChief() != null) {
+            repository.attachSubtree(employee.getId(), employee.getChief().getId());
+        }
+        eventPublisher.publishEvent(new EmployeeHierarchyChangedEvent(employee.getId()));
+    }
+
+    /**
+     * Проверка по интервалам обхода индекса, O(1).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если manager выше employee по иерархии
+     */
+    @Override
+    public boolean isSuperior(Long managerId, Long employeeId) {
+        return index().isSuperior(managerId, employeeId);
+    }
+
+    /**
+     * Проверка по номеру начальника в индексе, O(1).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если начальник employee — manager
+     */
+    @Override
+    public boolean isDirectSubordinate(Long managerId, Long employeeId) {
+        return index().isDirectSubordinate(managerId, employeeId);
+    }
+
+    /**
+     * Отрезок обхода индекса, O(размер поддерева).
+     *
+     * @param managerId идентификатор руководителя
+     * @return идентификаторы прямых и непрямых подчинённых
+     */
+    @Override
+    public List<Long> getSubordinateIds(Long managerId) {
+        return Arrays.stream(index().subordinateIds(managerId))
+                     .boxed()
+                     .toList();
+    }
+
+    /**
+     * Проверка каждого идентификатора по интервалам обхода одного снимка индекса, O(число идентификаторов).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeIds проверяемые идентификаторы сотрудников
+     * @return идентификаторы прямых и непрямых подчинённых из employeeIds
+     */
+    @Override
+    public Set<Long> filterSubordinates(Long managerId, Collection<Long> employeeIds) {
+        OrgTreeIndex index = index();
+        Set<Long> subordinates = new HashSet<>();
+        for (Long employeeId : employeeIds) {
+            if (employeeId != null && index.isSuperior(managerId, employeeId)) {
+                subordinates.add(employeeId);
+            }
+        }
+        return subordinates;
+    }
+
+    /**
+     * Проверка каждого идентификатора по номеру начальника одного снимка индекса, O(число идентификаторов).
+     *
+     * @param managerId идентификатор руководителя
+     * @param employeeIds проверяемые идентификаторы сотрудников
+     * @return идентификаторы прямых подчинённых из employeeIds
+     */
+    @Override
+    public Set<Long> filterDirectSubordinates(Long managerId, Collection<Long> employeeIds) {
+        OrgTreeIndex index = index();
+        Set<Long> subordinates = new HashSet<>();
+        for (Long employeeId : employeeIds) {
+            if (employeeId != null && index.isDirectSubordinate(managerId, employeeId)) {
+                subordinates.add(employeeId);
+            }
+        }
+        return subordinates;
+    }
+
+    /**
+     * Перестраивает индекс после коммита изменения иерархии.
+     * Ошибка перестроения не отменяет изменение: индекс перестроится при следующем обращении.
+     *
+     * @param event событие изменения иерархии
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onHierarchyChanged(EmployeeHierarchyChangedEvent event) {
+        changeCount.incrementAndGet();
+        staleSince.compareAndSet(0, System.nanoTime());
+        rebuildLock.lock();
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перестроить индекс иерархии после изменения сотрудника {}", event.getEmployeeId(), e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Текущий индекс. Первое обращение ждёт построения; устаревший индекс (перестроение после изменения
+     * не удалось) перестраивается читателем, если индекс не строится прямо сейчас, иначе отдаётся как есть.
+     */
+    private OrgTreeIndex index() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuildLock.lock();
+        } else if (current.version >= changeCount.get() || !rebuildLock.tryLock()) {
+            return current.index;
+        }
+        try {
+            return rebuild().index;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Строит индекс по парам (сотрудник, начальник) одним запросом и подменяет текущий.
+     * Если индекс уже учитывает все изменения, повторно не строится. Вызывается под {@link #rebuildLock}.
+     */
+    private Snapshot rebuild() {
+        long version = changeCount.get();
+        Snapshot current = snapshot;
+        if (current != null && current.version >= version) {
+            return current;
+        }
+
+        long startedAt = System.nanoTime();
+        List<EmployeeChief> links = employeeRepository.findAllChiefLinks();
+        long[] employeeIds = new long[links.size()];
+        long[] chiefIds = new long[links.size()];
+        for (int i = 0; i < links.size(); i++) {
+            EmployeeChief link = links.get(i);
+            employeeIds[i] = link.getId();
+            chiefIds[i] = link.getChiefId() != null ? link.getChiefId() : 0;
+        }
+
+        Snapshot rebuilt = new Snapshot(new OrgTreeIndex(employeeIds, chiefIds), version);
+        snapshot = rebuilt;
+        if (changeCount.get() == version) {
+            staleSince.set(0);
+        }
+        log.debug("Employee hierarchy index rebuilt: {} employees in {} ms",
+                employeeIds.length, (System.nanoTime() - startedAt) / 1_000_000);
+        return rebuilt;
+    }
+
+    private static double staleSeconds(AtomicLong staleSince) {
+        long since = staleSince.get();
+        return since == 0 ? 0 : (System.nanoTime() - since) / 1e9;
+    }
+
+    /**
+     * Индекс и число изменений иерархии, которые он учитывает.
+     */
+    private static final class Snapshot {
+
+        private final OrgTreeIndex index;
+        private final long version;
+
+        private Snapshot(OrgTreeIndex index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
+}
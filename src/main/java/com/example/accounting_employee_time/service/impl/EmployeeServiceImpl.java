@@ -3,6 +3,7 @@ package com.example.accounting_employee_time.service.impl;
 import com.example.accounting_employee_time.entity.EmployeeEntity;
 import com.example.accounting_employee_time.exception.NotEmployeeNameException;
 import com.example.accounting_employee_time.repository.EmployeeRepository;
+import com.example.accounting_employee_time.service.EmployeeHierarchyService;
 import com.example.accounting_employee_time.service.EmployeeService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +12,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Реализация {@link EmployeeService}, обеспечивающая взаимодействие с репозиторием сотрудников
@@ -25,19 +31,24 @@ import java.util.List;
 public class EmployeeServiceImpl implements EmployeeService {
 
     private final EmployeeRepository repository;
+    private final EmployeeHierarchyService hierarchyService;
 
     /**
      * Создание сотрудника с проверкой уникальности имени.
+     * Сотрудник добавляется в иерархию под своим начальником в той же транзакции.
      *
      * @param employeeEntity объект сотрудника
      * @return сохранённый сотрудник
      * @throws RuntimeException если имя сотрудника уже занято
      */
+    @Transactional
     public EmployeeEntity create(EmployeeEntity employeeEntity) {
         if (repository.existsByEmployeeName(employeeEntity.getUsername())) {
             throw new NotEmployeeNameException("Сотрудник с таким именем уже существует");
         }
-        return repository.save(employeeEntity);
+        EmployeeEntity saved = repository.save(employeeEntity);
+        hierarchyService.addEmployee(saved);
+        return saved;
     }
 
     /**
@@ -52,6 +63,21 @@ public class EmployeeServiceImpl implements EmployeeService {
                          .orElseThrow(() -> new EntityNotFoundException("Сотрудник с id=" + id + " не найден"));
     }
 
+    /**
+     * Получение сотрудников по набору идентификаторов одним запросом {@code IN}.
+     *
+     * @param ids идентификаторы сотрудников
+     * @return найденные сотрудники по их id
+     */
+    public Map<Long, EmployeeEntity> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findAllById(ids)
+                         .stream()
+                         .collect(Collectors.toMap(EmployeeEntity::getId, Function.identity()));
+    }
+
     /**
      * Получение сотрудника по имени.
      *
@@ -106,26 +132,49 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @return true, если employee напрямую подчинён manager
      */
     public boolean isDirectSubordinate(EmployeeEntity manager, EmployeeEntity employee) {
-        return employee.getChief() != null &&
-                employee.getChief().getId().equals(manager.getId());
+        return hierarchyService.isDirectSubordinate(manager.getId(), employee.getId());
     }
 
     /**
      * Проверка, является ли manager начальником employee по иерархии (прямой или цепочкой).
+     * Выполняется по индексу иерархии в памяти, цепочка начальников не загружается.
      *
      * @param manager руководитель
      * @param employee сотрудник
      * @return true, если manager является начальником employee
      */
     public boolean isSuperior(EmployeeEntity manager, EmployeeEntity employee) {
-        EmployeeEntity current = employee.getChief();
-        while (current != null) {
-            if (current.getId().equals(manager.getId())) {
-                return true;
-            }
-            current = current.getChief();
+        return hierarchyService.isSuperior(manager.getId(), employee.getId());
+    }
+
+    /**
+     * Отбирает сотрудников, записи которых actor может просматривать, по одному снимку индекса иерархии.
+     *
+     * @param actor текущий пользователь
+     * @param targetIds запрошенные идентификаторы сотрудников
+     * @return разрешённые идентификаторы из targetIds
+     */
+    public Set<Long> filterAccessibleIds(EmployeeEntity actor, Collection<Long> targetIds) {
+        Set<Long> permitted = hierarchyService.filterSubordinates(actor.getId(), targetIds);
+        if (targetIds.contains(actor.getId())) {
+            permitted.add(actor.getId());
+        }
+        return permitted;
+    }
+
+    /**
+     * Отбирает сотрудников, за которых actor может создавать и изменять записи, по одному снимку индекса иерархии.
+     *
+     * @param actor текущий пользователь
+     * @param targetIds запрошенные идентификаторы сотрудников
+     * @return разрешённые идентификаторы из targetIds
+     */
+    public Set<Long> filterEditableIds(EmployeeEntity actor, Collection<Long> targetIds) {
+        Set<Long> permitted = hierarchyService.filterDirectSubordinates(actor.getId(), targetIds);
+        if (targetIds.contains(actor.getId())) {
+            permitted.add(actor.getId());
         }
-        return false;
+        return permitted;
     }
 
     /**
@@ -140,22 +189,13 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     /**
-     * Рекурсивно получает всех подчинённых сотрудника (прямых и косвенных).
+     * Получает идентификаторы всех подчинённых сотрудника (прямых и косвенных) из индекса иерархии, без обращения к БД.
      *
      * @param manager руководитель
-     * @return список всех подчинённых
+     * @return идентификаторы всех подчинённых
      */
-    public List<EmployeeEntity> getAllSubordinatesRecursive(EmployeeEntity manager) {
-        List<EmployeeEntity> result = new ArrayList<>();
-        collectSubordinates(manager, result);
-        return result;
-    }
-
-    private void collectSubordinates(EmployeeEntity manager, List<EmployeeEntity> result) {
-        for (EmployeeEntity subordinate : manager.getSubordinates()) {
-            result.add(subordinate);
-            collectSubordinates(subordinate, result); // рекурсивный обход
-        }
+    public List<Long> getAllSubordinateIds(EmployeeEntity manager) {
+        return hierarchyService.getSubordinateIds(manager.getId());
     }
 
     /**
@@ -166,8 +206,7 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @return true, если employee напрямую подчинён potentialChief
      */
     public boolean isDirectSubordinateOf(EmployeeEntity potentialChief, EmployeeEntity employee) {
-        return employee.getChief() != null &&
-                employee.getChief().getId().equals(potentialChief.getId());
+        return hierarchyService.isDirectSubordinate(potentialChief.getId(), employee.getId());
     }
 }
 
@@ -0,0 +1,537 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.service.ExportCacheService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Реализация {@link ExportCacheService}.
+ * Индекс кэша — {@link LinkedHashMap} в порядке доступа, защищённый монитором сервиса;
+ * содержимое — файлы в каталоге {@link ExportProperties#getCacheDir()}. Файл кэша записывается
+ * одновременно с отдачей экспорта клиенту. Экспорт, который в кэш не попадает (больше
+ * {@link ExportProperties#getCacheMaxEntrySize()} или при выключенном кэше), записывается в тот же каталог
+ * как файл докачки и хранится {@link ExportProperties#getResumeTtl()}; после обрыва загрузки такой экспорт
+ * дописывается в файл, чтобы её можно было продолжить.
+ * Инвалидация выполняется после коммита транзакции, изменившей записи.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportCacheServiceImpl implements ExportCacheService {
+
+    private static final String FILE_PREFIX = "export-";
+    private static final String FILE_SUFFIX = ".csv";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private static final String ETAG_ALGORITHM = "SHA-256";
+
+    private final ExportProperties exportProperties;
+
+    private final LinkedHashMap<Key, CachedExport> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Файлы докачки: экспорты, не попавшие в кэш. Не учитываются в {@link ExportProperties#getCacheMaxSize()},
+     * удаляются по истечении {@link ExportProperties#getResumeTtl()}. Защищён монитором сервиса.
+     */
+    private final Map<Key, CachedExport> resumable = new HashMap<>();
+
+    /**
+     * Экспорты, которые сейчас записываются в файл, по ключу: запрос диапазона дожидается такого файла,
+     * а не формирует экспорт заново.
+     */
+    private final Map<Key, CompletableFuture<Void>> generating = new ConcurrentHashMap<>();
+
+    /**
+     * Счётчик инвалидаций. Файл, при формировании которого произошла инвалидация,
+     * мог прочитать устаревшие данные и в кэш не попадает.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Идентификатор запуска в {@link #versionEtag}: после перезапуска счётчик инвалидаций начинается заново.
+     */
+    private final String instanceId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    /**
+     * Создаёт каталог кэша и удаляет файлы, оставшиеся от предыдущего запуска.
+     * Каталог нужен и при выключенном кэше: в нём хранятся файлы докачки.
+     */
+    @PostConstruct
+    public void init() {
+        Path dir = exportProperties.getCacheDir();
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                files.forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось подготовить каталог кэша экспорта " + dir, e);
+        }
+    }
+
+    /**
+     * Открывает файл из кэша или файл докачки под монитором, чтобы он не был удалён до открытия.
+     * Открытый канал остаётся доступным для чтения и после удаления файла.
+     *
+     * @param key параметры экспорта
+     * @return открытый файл экспорта или null
+     */
+    @Override
+    public synchronized ExportFile openCached(Key key) {
+        CachedExport cached = exportProperties.isCacheEnabled() ? entries.get(key) : null;
+        if (cached == null) {
+            cached = resumable.get(key);
+            if (cached != null && !cached.expiresAt.isAfter(Instant.now())) {
+                resumable.remove(key);
+                deleteQuietly(cached.file);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            return null;
+        }
+        try {
+            ExportFile file = new ExportFile(FileChannel.open(cached.file, StandardOpenOption.READ),
+                    cached.size, cached.rows, cached.etag, () -> { });
+            log.debug("Export served from {}: {} entries, {} bytes",
+                    cached.expiresAt == null ? "cache" : "resume file", cached.rows, cached.size);
+            return file;
+        } catch (IOException e) {
+            log.warn("Файл кэша экспорта {} недоступен", cached.file, e);
+            if (cached.expiresAt == null) {
+                entries.remove(key);
+                remove(cached);
+            } else {
+                resumable.remove(key);
+                deleteQuietly(cached.file);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Отдаёт файл клиенту по мере формирования и пишет его копию на диск, хэшируя её SHA-256 для сильного ETag.
+     * Копия публикуется в кэш или, если в кэш не попадает, как файл докачки. Если клиент отключился,
+     * а файлы докачки включены, экспорт дописывается только в копию, после чего ошибка клиента пробрасывается.
+     * Без файлов докачки копия нужна только кэшу и прекращается, как только превышает лимит кэша.
+     *
+     * @param key параметры экспорта
+     * @param outputStream поток, в который записывается файл
+     * @param generator формирует файл в переданный поток и возвращает количество записей
+     * @return количество экспортированных записей
+     */
+    @Override
+    public long export(Key key, OutputStream outputStream, ToLongFunction<OutputStream> generator) {
+        boolean resumeEnabled = isResumeEnabled();
+        if (!exportProperties.isCacheEnabled() && !resumeEnabled) {
+            return generator.applyAsLong(outputStream);
+        }
+
+        long maxCopyBytes = resumeEnabled ? Long.MAX_VALUE : exportProperties.getCacheMaxEntrySize().toBytes();
+        long version = invalidations.get();
+        Path file = createCacheFile();
+        CompletableFuture<Void> done = startGenerating(key);
+        boolean published = false;
+        try (CachingOutputStream tee = new CachingOutputStream(outputStream, file, maxCopyBytes, resumeEnabled)) {
+            long rows = generator.applyAsLong(tee);
+            String etag = tee.finishCaching();
+            if (etag != null) {
+                published = publish(key, new CachedExport(file, tee.cachedBytes, rows, etag), version);
+            }
+            if (tee.clientFailure != null) {
+                throw new FileParsingException("Загрузка экспорта прервана: " + tee.clientFailure.getMessage(),
+                        tee.clientFailure);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при сохранении экспорта в кэш: " + e.getMessage(), e);
+        } finally {
+            finishGenerating(key, done);
+            if (!published) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * Возвращает готовый файл; если экспорт с тем же ключом сейчас записывается (например, загрузка оборвалась
+     * и он дописывается для докачки), сначала дожидается его. Иначе пишет файл целиком, хэшируя его SHA-256,
+     * и открывает канал до публикации: опубликованный файл может быть вытеснен, но открытый канал останется читаемым.
+     *
+     * @param key параметры экспорта
+     * @param generator формирует файл в переданный поток и возвращает количество записей
+     * @return открытый файл экспорта
+     */
+    @Override
+    public ExportFile openOrRender(Key key, ToLongFunction<OutputStream> generator) {
+        CompletableFuture<Void> running = generating.get(key);
+        if (running != null) {
+            running.join();
+        }
+        ExportFile cached = openCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = invalidations.get();
+        Path file = createCacheFile();
+        CompletableFuture<Void> done = startGenerating(key);
+        FileChannel channel = null;
+        boolean opened = false;
+        try {
+            MessageDigest digest = sha256();
+            long rows;
+            try (OutputStream out = new DigestOutputStream(newFileOutputStream(file), digest)) {
+                rows = generator.applyAsLong(out);
+            }
+            String etag = "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+
+            boolean published = publish(key, new CachedExport(file, size, rows, etag), version);
+            log.debug("Export rendered to file: {} entries, {} bytes, kept={}", rows, size, published);
+            opened = true;
+            return new ExportFile(channel, size, rows, etag, published ? () -> { } : () -> deleteQuietly(file));
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании файла экспорта: " + e.getMessage(), e);
+        } finally {
+            finishGenerating(key, done);
+            if (!opened) {
+                closeQuietly(channel);
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * Удаляет файлы докачки, хранящиеся дольше {@link ExportProperties#getResumeTtl()}.
+     * Уже открытые для отдачи файлы остаются читаемыми до закрытия.
+     */
+    @Scheduled(fixedDelayString = "${app.export.resume-eviction-interval:PT1M}")
+    public synchronized void evictExpiredResumeFiles() {
+        Instant now = Instant.now();
+        Iterator<CachedExport> iterator = resumable.values().iterator();
+        while (iterator.hasNext()) {
+            CachedExport export = iterator.next();
+            if (!export.expiresAt.isAfter(now)) {
+                iterator.remove();
+                deleteQuietly(export.file);
+            }
+        }
+    }
+
+    /**
+     * Хэш ключа (SHA-256 формата, режима, периода и отсортированных сотрудников, первые 16 байт),
+     * идентификатор запуска и счётчик инвалидаций.
+     *
+     * @param key параметры экспорта
+     * @return слабый ETag
+     */
+    @Override
+    public String versionEtag(Key key) {
+        MessageDigest digest = sha256();
+        digest.update((key.getFormat() + ";" + key.getMode() + ";" + key.getStart() + ";" + key.getEnd())
+                .getBytes(StandardCharsets.UTF_8));
+        long[] employeeIds = key.getEmployeeIds()
+                                .stream()
+                                .mapToLong(Long::longValue)
+                                .sorted()
+                                .toArray();
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * employeeIds.length);
+        for (long employeeId : employeeIds) {
+            buffer.putLong(employeeId);
+        }
+        digest.update(buffer.array());
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "-" + instanceId + "-" + invalidations.get() + "\"";
+    }
+
+    /**
+     * Удаляет файлы кэша и докачки, содержащие записи сотрудника за затронутый период.
+     * Событие без периода (изменились данные самого сотрудника) очищает весь кэш:
+     * имя сотрудника попадает и в файлы с записями, которые он создал за других.
+     * Вызывается после коммита транзакции, а вне транзакции — сразу.
+     *
+     * @param event событие изменения записей
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void invalidate(TimeEntryChangedEvent event) {
+        invalidations.incrementAndGet();
+        boolean allDates = event.getFrom() == null && event.getTo() == null;
+        Iterator<Map.Entry<Key, CachedExport>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, CachedExport> entry = iterator.next();
+            Key key = entry.getKey();
+            if (allDates || affects(key, event)) {
+                iterator.remove();
+                remove(entry.getValue());
+            }
+        }
+        Iterator<Map.Entry<Key, CachedExport>> resumeIterator = resumable.entrySet().iterator();
+        while (resumeIterator.hasNext()) {
+            Map.Entry<Key, CachedExport> entry = resumeIterator.next();
+            if (allDates || affects(entry.getKey(), event)) {
+                resumeIterator.remove();
+                deleteQuietly(entry.getValue().file);
+            }
+        }
+    }
+
+    private static boolean affects(Key key, TimeEntryChangedEvent event) {
+        return key.getEmployeeIds().contains(event.getEmployeeId()) && event.overlaps(key.getStart(), key.getEnd());
+    }
+
+    /**
+     * Публикует файл, если за время его формирования не было инвалидаций: в кэш, если он включён и файл
+     * не больше {@link ExportProperties#getCacheMaxEntrySize()} (давно не использованные файлы сверх
+     * {@link ExportProperties#getCacheMaxSize()} удаляются), иначе — как файл докачки, если они включены.
+     *
+     * @return true, если файл опубликован и удалять его не нужно
+     */
+    private synchronized boolean publish(Key key, CachedExport export, long version) {
+        if (invalidations.get() != version) {
+            return false;
+        }
+        if (!exportProperties.isCacheEnabled() || export.size > exportProperties.getCacheMaxEntrySize().toBytes()) {
+            return publishResumable(key, export);
+        }
+        CachedExport previous = entries.put(key, export);
+        if (previous != null) {
+            remove(previous);
+        }
+        totalBytes += export.size;
+
+        long maxBytes = exportProperties.getCacheMaxSize().toBytes();
+        Iterator<CachedExport> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            CachedExport evicted = eldest.next();
+            eldest.remove();
+            remove(evicted);
+        }
+        return entries.get(key) == export;
+    }
+
+    private boolean publishResumable(Key key, CachedExport export) {
+        if (!isResumeEnabled()) {
+            return false;
+        }
+        export.expiresAt = Instant.now().plus(exportProperties.getResumeTtl());
+        CachedExport previous = resumable.put(key, export);
+        if (previous != null) {
+            deleteQuietly(previous.file);
+        }
+        return true;
+    }
+
+    private boolean isResumeEnabled() {
+        return exportProperties.getResumeTtl().isPositive();
+    }
+
+    private CompletableFuture<Void> startGenerating(Key key) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        generating.put(key, done);
+        return done;
+    }
+
+    private void finishGenerating(Key key, CompletableFuture<Void> done) {
+        generating.remove(key, done);
+        done.complete(null);
+    }
+
+    private void remove(CachedExport export) {
+        totalBytes -= export.size;
+        deleteQuietly(export.file);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance(ETAG_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ETAG_ALGORITHM + " недоступен", e);
+        }
+    }
+
+    private Path createCacheFile() {
+        try {
+            return Files.createTempFile(exportProperties.getCacheDir(), FILE_PREFIX, FILE_SUFFIX);
+        } catch (IOException e) {
+            throw new FileParsingException("Не удалось создать файл кэша экспорта: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Поток записи файла экспорта. {@link FileOutputStream}, а не {@link Files#newOutputStream}: его запись
+     * не прерывается, если поток выполнения прерван (отмена асинхронного запроса после обрыва загрузки).
+     */
+    private static OutputStream newFileOutputStream(Path file) throws IOException {
+        return new BufferedOutputStream(new FileOutputStream(file.toFile()), FILE_BUFFER_SIZE);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть файл экспорта", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл кэша экспорта {}", file, e);
+        }
+    }
+
+    /**
+     * Файл экспорта в кэше или файл докачки.
+     */
+    private static final class CachedExport {
+
+        private final Path file;
+        private final long size;
+        private final long rows;
+        private final String etag;
+
+        /**
+         * Когда удалить файл докачки; null для файла кэша.
+         */
+        private Instant expiresAt;
+
+        private CachedExport(Path file, long size, long rows, String etag) {
+            this.file = file;
+            this.size = size;
+            this.rows = rows;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Поток, который пишет данные клиенту и копию — в файл, вычисляя хэш копии.
+     * Если размер копии превышает лимит, копирование в файл прекращается, а клиент получает данные как обычно.
+     * С continueWithoutClient ошибка записи клиенту запоминается, а данные пишутся дальше только в файл.
+     * Закрытие не закрывает поток клиента.
+     */
+    private static final class CachingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final long maxCachedBytes;
+        private final boolean continueWithoutClient;
+        private final MessageDigest digest = sha256();
+        private OutputStream cache;
+        private long cachedBytes;
+        private IOException clientFailure;
+
+        private CachingOutputStream(OutputStream target, Path file, long maxCachedBytes, boolean continueWithoutClient)
+                throws IOException {
+            this.target = target;
+            this.maxCachedBytes = maxCachedBytes;
+            this.continueWithoutClient = continueWithoutClient;
+            this.cache = new DigestOutputStream(newFileOutputStream(file), digest);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (clientFailure == null) {
+                try {
+                    target.write(b, off, len);
+                } catch (IOException e) {
+                    onClientFailure(e);
+                }
+            }
+            if (cache == null) {
+                return;
+            }
+            if (cachedBytes + len > maxCachedBytes) {
+                abandonCache();
+                return;
+            }
+            cache.write(b, off, len);
+            cachedBytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (clientFailure == null) {
+                try {
+                    target.flush();
+                } catch (IOException e) {
+                    onClientFailure(e);
+                }
+            }
+        }
+
+        private void onClientFailure(IOException e) throws IOException {
+            if (!continueWithoutClient || cache == null) {
+                throw e;
+            }
+            clientFailure = e;
+        }
+
+        /**
+         * Дописывает файл копии.
+         *
+         * @return сильный ETag содержимого или null, если файл не содержит ответ целиком
+         */
+        private String finishCaching() throws IOException {
+            if (cache == null) {
+                return null;
+            }
+            cache.close();
+            cache = null;
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        }
+
+        private void abandonCache() throws IOException {
+            cache.close();
+            cache = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (cache != null) {
+                abandonCache();
+            }
+        }
+    }
+}
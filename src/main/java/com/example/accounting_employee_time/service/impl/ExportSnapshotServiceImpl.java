@@ -0,0 +1,491 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+import com.example.accounting_employee_time.service.ExportSnapshotService;
+import com.example.accounting_employee_time.service.FileProcessService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Реализация {@link ExportSnapshotService}.
+ * Индекс сегментов хранится в памяти под монитором сервиса, сегменты — файлы в
+ * {@link ExportProperties#getSnapshotDir()}. Сегмент не изменяется: при перестроении создаётся новый файл,
+ * а заменённые и устаревшие файлы удаляются, когда их не читает ни один экспорт.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportSnapshotServiceImpl implements ExportSnapshotService {
+
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".csv.gz";
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+
+    private final ExportProperties exportProperties;
+    private final TimeEntryRepository timeEntryRepository;
+    private final FileProcessService fileProcessService;
+    private final CsvCodecRegistry codecRegistry;
+
+    private final Map<SegmentKey, Segment> segments = new HashMap<>();
+
+    /**
+     * Сегменты, которые нужно перестроить: их месяц изменился, а старый файл уже удалён из индекса.
+     */
+    private final Set<SegmentKey> stale = new HashSet<>();
+
+    /**
+     * Сегменты, изменённые во время построения: построенные для них файлы могли прочитать старые данные.
+     */
+    private final Set<SegmentKey> invalidatedDuringRefresh = new HashSet<>();
+
+    /**
+     * Последний закрытый месяц, по который построены все сегменты; null — снимки не готовы.
+     */
+    private YearMonth renderedThrough;
+
+    private long fullRebuildRequests;
+    private boolean refreshing;
+
+    /**
+     * Файлы, удалённые из индекса, но, возможно, ещё читаемые экспортом.
+     */
+    private final List<Path> retiredFiles = new ArrayList<>();
+    private int activeReaders;
+
+    private byte[] header;
+
+    /**
+     * Создаёт каталог снимков, удаляет файлы предыдущего запуска и готовит заголовок CSV.
+     */
+    @PostConstruct
+    public void init() {
+        header = codecRegistry.header(TimeEntryParsingData.class, SEPARATOR);
+        if (!exportProperties.isSnapshotEnabled()) {
+            return;
+        }
+        Path dir = exportProperties.getSnapshotDir();
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                files.forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось подготовить каталог снимков экспорта " + dir, e);
+        }
+    }
+
+    /**
+     * Собирает экспорт из сегментов полных закрытых месяцев периода и строк остальной части периода,
+     * прочитанных одним запросом. Порядок строк тот же, что у обычного экспорта: по сотруднику, затем по дате.
+     * Должен вызываться внутри транзакции: живые строки читаются курсором.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param subtreeRootId руководитель, если employeeIds — всё его поддерево (может быть null)
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл
+     * @return количество экспортированных записей или -1, если снимки неприменимы
+     */
+    @Override
+    public long exportCsv(Set<Long> employeeIds,
+                          Long subtreeRootId,
+                          LocalDate start,
+                          LocalDate end,
+                          OutputStream outputStream) {
+        if (!exportProperties.isSnapshotEnabled() || employeeIds.isEmpty()) {
+            return -1;
+        }
+        YearMonth firstMonth = start.getDayOfMonth() == 1 ? YearMonth.from(start) : YearMonth.from(start).plusMonths(1);
+        YearMonth lastMonth = end.equals(YearMonth.from(end).atEndOfMonth()) ? YearMonth.from(end) : YearMonth.from(end).minusMonths(1);
+
+        Selection selection = acquireSegments(employeeIds, firstMonth, lastMonth);
+        if (selection == null) {
+            return -1;
+        }
+        try {
+            return assemble(new TreeSet<>(employeeIds), subtreeRootId, selection.segments, start, end,
+                    firstMonth.atDay(1), selection.coveredTo.atEndOfMonth(), outputStream);
+        } finally {
+            releaseSegments();
+        }
+    }
+
+    /**
+     * Строит недостающие сегменты. Запускается по расписанию {@code app.export.snapshot-refresh-interval}.
+     * Со сменой месяца строятся только сегменты месяцев, закрытых после {@link #renderedThrough};
+     * построенные ранее сегменты не меняются. Все месяцы строятся заново, только если снимков ещё нет
+     * или они сброшены переименованием сотрудника.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.export.snapshot-refresh-interval:PT10M}")
+    public void refresh() {
+        if (!exportProperties.isSnapshotEnabled()) {
+            return;
+        }
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        long rebuildRequests;
+        boolean full;
+        YearMonth renderFrom;
+        Set<SegmentKey> toRender;
+        synchronized (this) {
+            if (refreshing) {
+                return;
+            }
+            refreshing = true;
+            invalidatedDuringRefresh.clear();
+            rebuildRequests = fullRebuildRequests;
+            full = renderedThrough == null;
+            renderFrom = full ? YearMonth.from(EPOCH) : renderedThrough.plusMonths(1);
+            // Новые месяцы строятся целиком, отдельно перестраивать их сегменты не нужно
+            stale.removeIf(key -> !key.getMonth().isBefore(renderFrom));
+            toRender = full ? Set.of() : new HashSet<>(stale);
+        }
+
+        try {
+            if (!renderFrom.isAfter(lastClosed)) {
+                renderMonths(renderFrom, lastClosed, full, rebuildRequests);
+            }
+            if (!toRender.isEmpty()) {
+                rebuildStale(toRender);
+            }
+        } finally {
+            synchronized (this) {
+                refreshing = false;
+                deleteRetiredIfIdle();
+            }
+        }
+    }
+
+    /**
+     * Помечает сегменты закрытых месяцев, затронутых изменением, как устаревшие и убирает их из индекса.
+     * Вызывается после коммита транзакции, а вне транзакции — сразу.
+     *
+     * @param event событие изменения записей
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void invalidate(TimeEntryChangedEvent event) {
+        if (event.getFrom() == null && event.getTo() == null) {
+            // Изменились данные сотрудника (например, имя): перестраиваются все снимки
+            fullRebuildRequests++;
+            renderedThrough = null;
+            segments.values().forEach(segment -> retiredFiles.add(segment.file));
+            segments.clear();
+            stale.clear();
+            deleteRetiredIfIdle();
+            return;
+        }
+
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        YearMonth from = YearMonth.from(event.getFrom() != null ? event.getFrom() : EPOCH);
+        YearMonth to = event.getTo() != null && YearMonth.from(event.getTo()).isBefore(lastClosed)
+                ? YearMonth.from(event.getTo())
+                : lastClosed;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            SegmentKey key = new SegmentKey(event.getEmployeeId(), month);
+            stale.add(key);
+            if (refreshing) {
+                invalidatedDuringRefresh.add(key);
+            }
+            Segment removed = segments.remove(key);
+            if (removed != null) {
+                retiredFiles.add(removed.file);
+            }
+        }
+        deleteRetiredIfIdle();
+    }
+
+    /**
+     * Выбирает сегменты сотрудников за полные закрытые месяцы [firstMonth, lastMonth] и
+     * запрещает удаление файлов до {@link #releaseSegments()}.
+     *
+     * @return выбранные сегменты или null, если снимки неприменимы
+     */
+    private synchronized Selection acquireSegments(Set<Long> employeeIds, YearMonth firstMonth, YearMonth lastMonth) {
+        if (renderedThrough == null) {
+            return null;
+        }
+        YearMonth coveredTo = lastMonth.isAfter(renderedThrough) ? renderedThrough : lastMonth;
+        if (firstMonth.isAfter(coveredTo)) {
+            return null;
+        }
+        for (SegmentKey key : stale) {
+            if (employeeIds.contains(key.getEmployeeId())
+                    && !key.getMonth().isBefore(firstMonth) && !key.getMonth().isAfter(coveredTo)) {
+                return null;
+            }
+        }
+
+        Map<Long, List<Segment>> result = new HashMap<>();
+        for (Long employeeId : employeeIds) {
+            for (YearMonth month = firstMonth; !month.isAfter(coveredTo); month = month.plusMonths(1)) {
+                Segment segment = segments.get(new SegmentKey(employeeId, month));
+                if (segment != null) {
+                    result.computeIfAbsent(employeeId, id -> new ArrayList<>()).add(segment);
+                }
+            }
+        }
+        activeReaders++;
+        return new Selection(coveredTo, result);
+    }
+
+    private synchronized void releaseSegments() {
+        activeReaders--;
+        deleteRetiredIfIdle();
+    }
+
+    /**
+     * Пишет экспорт: для каждого сотрудника по порядку — живые строки до начала очередного сегмента,
+     * сегмент, затем оставшиеся живые строки. Заголовок пишется перед первой строкой.
+     * Живые строки сотрудников не из employeeIds (поддерево в БД уже изменилось, а индекс иерархии ещё нет)
+     * пропускаются, чтобы результат соответствовал набору сотрудников экспорта.
+     */
+    private long assemble(SortedSet<Long> employeeIds,
+                          Long subtreeRootId,
+                          Map<Long, List<Segment>> employeeSegments,
+                          LocalDate start,
+                          LocalDate end,
+                          LocalDate coveredFrom,
+                          LocalDate coveredTo,
+                          OutputStream outputStream) {
+        TimeEntryCsvWriter rowWriter = codecRegistry.timeEntryWriter(outputStream, SEPARATOR);
+        long exported = 0;
+        try (Stream<TimeEntryExportRow> rows = subtreeRootId != null
+                ? timeEntryRepository.streamSubtreeExportRowsOutside(subtreeRootId, start, end, coveredFrom, coveredTo)
+                : timeEntryRepository.streamExportRowsOutside(employeeIds, start, end, coveredFrom, coveredTo)) {
+            Iterator<TimeEntryExportRow> live = rows.iterator();
+            TimeEntryExportRow pending = live.hasNext() ? live.next() : null;
+
+            for (Long employeeId : employeeIds) {
+                while (pending != null && pending.getEmployeeId() < employeeId) {
+                    pending = live.hasNext() ? live.next() : null;
+                }
+                for (Segment segment : employeeSegments.getOrDefault(employeeId, List.of())) {
+                    LocalDate segmentStart = segment.month.atDay(1);
+                    while (pending != null && pending.getEmployeeId().equals(employeeId)
+                            && pending.getWorkDate().isBefore(segmentStart)) {
+                        exported = writeRow(rowWriter, pending, exported, outputStream);
+                        pending = live.hasNext() ? live.next() : null;
+                    }
+                    if (segment.rows > 0) {
+                        if (exported == 0) {
+                            outputStream.write(header);
+                        }
+                        // Живые строки из буфера писателя должны попасть в поток раньше сегмента
+                        rowWriter.flush();
+                        try (InputStream in = new GZIPInputStream(Files.newInputStream(segment.file))) {
+                            in.transferTo(outputStream);
+                        }
+                        exported += segment.rows;
+                    }
+                }
+                while (pending != null && pending.getEmployeeId().equals(employeeId)) {
+                    exported = writeRow(rowWriter, pending, exported, outputStream);
+                    pending = live.hasNext() ? live.next() : null;
+                }
+            }
+            rowWriter.flush();
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+        }
+        log.debug("Exporting time entries from snapshots completed, {} entries exported", exported);
+        return exported;
+    }
+
+    private long writeRow(TimeEntryCsvWriter rowWriter, TimeEntryExportRow row, long exported, OutputStream outputStream)
+            throws IOException {
+        if (exported == 0) {
+            // Буфер писателя ещё пуст, заголовок пишется прямо в поток
+            outputStream.write(header);
+        }
+        rowWriter.write(row);
+        return exported + 1;
+    }
+
+    /**
+     * Строит сегменты месяцев [from, through] и добавляет их в индекс; при полном построении они заменяют
+     * весь индекс. Если во время построения пришла полная инвалидация, результат отбрасывается.
+     */
+    private void renderMonths(YearMonth from, YearMonth through, boolean full, long rebuildRequests) {
+        long startedAt = System.nanoTime();
+        LocalDate start = from.atDay(1);
+        LocalDate end = through.atEndOfMonth();
+        Map<SegmentKey, Segment> built = new HashMap<>();
+        try {
+            for (Long employeeId : timeEntryRepository.findEmployeeIdsWithEntriesBetween(start, end)) {
+                List<TimeEntryExportRow> rows = timeEntryRepository.findExportRowsByEmployee(employeeId, start, end);
+                Map<YearMonth, List<TimeEntryExportRow>> byMonth = rows.stream()
+                        .collect(Collectors.groupingBy(row -> YearMonth.from(row.getWorkDate()),
+                                TreeMap::new, Collectors.toList()));
+                byMonth.forEach((month, monthRows) ->
+                        built.put(new SegmentKey(employeeId, month), writeSegment(month, monthRows)));
+            }
+        } catch (RuntimeException e) {
+            built.values().forEach(segment -> deleteQuietly(segment.file));
+            throw e;
+        }
+
+        synchronized (this) {
+            if (fullRebuildRequests != rebuildRequests) {
+                built.values().forEach(segment -> retiredFiles.add(segment.file));
+                return;
+            }
+            if (full) {
+                segments.values().forEach(segment -> retiredFiles.add(segment.file));
+                segments.clear();
+                stale.clear();
+                stale.addAll(invalidatedDuringRefresh);
+            }
+            built.forEach((key, segment) -> {
+                if (invalidatedDuringRefresh.contains(key)) {
+                    retiredFiles.add(segment.file);
+                } else {
+                    segments.put(key, segment);
+                }
+            });
+            renderedThrough = through;
+        }
+        log.info("Снимки закрытых месяцев {} – {} построены: {} сегментов за {} мс",
+                from, through, built.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Перестраивает устаревшие сегменты по одному запросу на сегмент.
+     */
+    private void rebuildStale(Set<SegmentKey> keys) {
+        Map<SegmentKey, Segment> built = new HashMap<>();
+        try {
+            for (SegmentKey key : keys) {
+                List<TimeEntryExportRow> rows = timeEntryRepository.findExportRowsByEmployee(
+                        key.getEmployeeId(), key.getMonth().atDay(1), key.getMonth().atEndOfMonth());
+                // Пустой месяц сегмента не требует
+                built.put(key, rows.isEmpty() ? null : writeSegment(key.getMonth(), rows));
+            }
+        } catch (RuntimeException e) {
+            built.values().stream().filter(Objects::nonNull).forEach(segment -> deleteQuietly(segment.file));
+            throw e;
+        }
+
+        synchronized (this) {
+            built.forEach((key, segment) -> {
+                if (invalidatedDuringRefresh.contains(key) || !stale.contains(key)) {
+                    if (segment != null) {
+                        retiredFiles.add(segment.file);
+                    }
+                    return;
+                }
+                stale.remove(key);
+                if (segment != null) {
+                    Segment previous = segments.put(key, segment);
+                    if (previous != null) {
+                        retiredFiles.add(previous.file);
+                    }
+                }
+            });
+        }
+        log.debug("Rebuilt {} stale export snapshot segments", built.size());
+    }
+
+    /**
+     * Сохраняет строки месяца в новый сжатый файл сегмента.
+     */
+    private Segment writeSegment(YearMonth month, List<TimeEntryExportRow> rows) {
+        try {
+            Path file = Files.createTempFile(exportProperties.getSnapshotDir(), FILE_PREFIX, FILE_SUFFIX);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+                fileProcessService.exportTimeEntriesWithoutHeader(rows.stream(), out);
+            }
+            return new Segment(file, month, rows.size());
+        } catch (IOException e) {
+            throw new FileParsingException("Не удалось сохранить снимок экспорта: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Удаляет выведенные из индекса файлы, если их не читает ни один экспорт. Вызывается под монитором.
+     */
+    private void deleteRetiredIfIdle() {
+        if (activeReaders > 0) {
+            return;
+        }
+        retiredFiles.forEach(this::deleteQuietly);
+        retiredFiles.clear();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл снимка экспорта {}", file, e);
+        }
+    }
+
+    /**
+     * Ключ сегмента: сотрудник и месяц.
+     */
+    @Value
+    private static class SegmentKey {
+
+        Long employeeId;
+
+        YearMonth month;
+    }
+
+    /**
+     * Сегменты, выбранные для одного экспорта, и последний покрытый ими месяц.
+     */
+    private static final class Selection {
+
+        private final YearMonth coveredTo;
+        private final Map<Long, List<Segment>> segments;
+
+        private Selection(YearMonth coveredTo, Map<Long, List<Segment>> segments) {
+            this.coveredTo = coveredTo;
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * Неизменяемый сжатый сегмент: строки CSV без заголовка за один месяц одного сотрудника.
+     */
+    private static final class Segment {
+
+        private final Path file;
+        private final YearMonth month;
+        private final int rows;
+
+        private Segment(Path file, YearMonth month, int rows) {
+            this.file = file;
+            this.month = month;
+            this.rows = rows;
+        }
+    }
+}
@@ -1,35 +1,70 @@
 package com.example.accounting_employee_time.service.impl;
 
+import com.example.accounting_employee_time.arrow.ArrowColumn;
+import com.example.accounting_employee_time.configuration.ImportProperties;
 import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvRange;
+import com.example.accounting_employee_time.parseCSV.CsvRangeSplitter;
+import com.example.accounting_employee_time.parseCSV.CsvRecordScanner;
+import com.example.accounting_employee_time.parseCSV.CsvRecordDecoder;
 import com.example.accounting_employee_time.parseCSV.CsvSeparator;
-import com.example.accounting_employee_time.parseCSV.CustomBigDecimalSerializer;
 import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.ParsedRow;
+import com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter;
 import com.example.accounting_employee_time.parseCSV.data.ParsingData;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
 import com.example.accounting_employee_time.service.FileProcessService;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.*;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 
 /**
  * Реализация сервиса для импорта и экспорта файлов.
- * Использует Jackson CsvMapper для обработки CSV файлов с поддержкой валидации,
+ * Использует готовые кодеки Jackson из {@link CsvCodecRegistry} для обработки CSV файлов с поддержкой валидации,
  * кастомной сериализации числовых значений и настройки кодировки и разделителей.
  */
 @Slf4j
@@ -42,6 +77,26 @@ public class FileProcessServiceImpl implements FileProcessService {
      */
     private final Validator validator;
 
+    /**
+     * Пул потоков для параллельного парсинга диапазонов файла.
+     */
+    private final ForkJoinPool csvParsePool;
+
+    /**
+     * Готовые CSV-кодеки, общие для всех запросов.
+     */
+    private final CsvCodecRegistry codecRegistry;
+
+    /**
+     * Распределитель памяти векторов Apache Arrow; создаётся при первом экспорте в Arrow.
+     */
+    private final ObjectProvider<BufferAllocator> arrowAllocator;
+
+    /**
+     * Настройки импорта: ограничение размера распакованного файла.
+     */
+    private final ImportProperties importProperties;
+
     /**
      * Кодировка по умолчанию для чтения и записи файлов (UTF-8).
      */
@@ -53,9 +108,30 @@ public class FileProcessServiceImpl implements FileProcessService {
     private static final CsvSeparator DEFAULT_SEPARATOR = CsvSeparator.SEMICOLON;
 
     /**
-     * Символ десятичного разделителя для сериализации чисел ('.' или ',').
+     * Минимальный размер диапазона файла, разбираемого одной задачей при параллельном парсинге.
+     */
+    private static final long PARALLEL_RANGE_SIZE = 1024 * 1024;
+
+    /**
+     * Сколько диапазонов на поток пула может находиться в обработке одновременно.
+     * Ограничивает память, занятую разобранными, но ещё не переданными обработчику строками.
+     */
+    private static final int PARALLEL_RANGES_PER_THREAD = 2;
+
+    /**
+     * Суффикс сжатого gzip файла ({@code .csv.gz}).
      */
-    private static final char DECIMAL_SEPARATOR = '.';
+    private static final String GZIP_SUFFIX = ".gz";
+
+    /**
+     * Размер буфера распаковки gzip.
+     */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Количество строк в одном record batch'е Arrow. Ограничивает память, занятую векторами экспорта.
+     */
+    private static final int ARROW_BATCH_SIZE = 64 * 1024;
 
     /**
      * Парсит файл с учётом наличия заголовка.
@@ -89,6 +165,148 @@ public class FileProcessServiceImpl implements FileProcessService {
         return parseFile(dataClass, multipartFile, fileExtension, false);
     }
 
+    /**
+     * Потоково парсит файл с заголовком, передавая строки порциями.
+     *
+     * @param dataClass класс DTO
+     * @param multipartFile файл
+     * @param fileExtension расширение
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    @Override
+    public <P extends ParsingData> long parseFileWithHeader(Class<P> dataClass,
+                                                            MultipartFile multipartFile,
+                                                            FileExtension fileExtension,
+                                                            int chunkSize,
+                                                            Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        return parseFile(dataClass, multipartFile, multipartFile.getOriginalFilename(), fileExtension, true, chunkSize, chunkConsumer);
+    }
+
+    /**
+     * Потоково парсит файл без заголовка, передавая строки порциями.
+     *
+     * @param dataClass класс DTO
+     * @param multipartFile файл
+     * @param fileExtension расширение
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    @Override
+    public <P extends ParsingData> long parseFileWithoutHeader(Class<P> dataClass,
+                                                               MultipartFile multipartFile,
+                                                               FileExtension fileExtension,
+                                                               int chunkSize,
+                                                               Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        return parseFile(dataClass, multipartFile, multipartFile.getOriginalFilename(), fileExtension, false, chunkSize, chunkConsumer);
+    }
+
+    /**
+     * Параллельно парсит файл на диске с заголовком.
+     *
+     * @param dataClass класс DTO
+     * @param file путь к файлу
+     * @param fileExtension расширение
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    @Override
+    public <P extends ParsingData> long parseFileWithHeaderParallel(Class<P> dataClass,
+                                                                    Path file,
+                                                                    FileExtension fileExtension,
+                                                                    int chunkSize,
+                                                                    Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Размер порции должен быть положительным: " + chunkSize);
+        }
+        String fileName = file.getFileName().toString();
+        validateFileExtension(fileExtension, fileName);
+        if (isCompressed(fileName)) {
+            // Сжатый файл нельзя разбить на диапазоны, он распаковывается и разбирается последовательно
+            return parseFile(dataClass, new FileSystemResource(file), fileName, fileExtension, true, chunkSize, chunkConsumer);
+        }
+
+        return switch (fileExtension) {
+            case CSV -> parallelParseCsvFile(dataClass, file, true, chunkSize, chunkConsumer);
+            default -> throw new FileParsingException("Неподдерживаемое расширение: " + fileExtension);
+        };
+    }
+
+    /**
+     * Сохраняет загруженный файл во временный файл на диске после проверки расширения.
+     * Сжатый файл ({@code .csv.gz}) распаковывается потоком при сохранении, так что на диске
+     * всегда несжатый файл, который можно разбирать параллельно. Распакованное содержимое ограничено
+     * {@code app.import.max-decompressed-size}; при превышении частично записанный файл удаляется.
+     *
+     * @param multipartFile загружаемый файл
+     * @param fileExtension ожидаемое расширение
+     * @return путь к временному файлу
+     */
+    @Override
+    public Path spoolFile(MultipartFile multipartFile, FileExtension fileExtension) {
+        validateFileExtension(fileExtension, multipartFile.getOriginalFilename());
+
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("import-", "." + fileExtension.getExtension());
+            if (isCompressed(multipartFile.getOriginalFilename())) {
+                try (InputStream inputStream = openInputStream(multipartFile, multipartFile.getOriginalFilename())) {
+                    Files.copy(inputStream, spooled, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                multipartFile.transferTo(spooled);
+            }
+            return spooled;
+        } catch (IOException e) {
+            deleteQuietly(spooled);
+            throw new FileParsingException("Ошибка при сохранении файла: " + e.getMessage(), e);
+        } catch (FileParsingException e) {
+            deleteQuietly(spooled);
+            throw e;
+        }
+    }
+
+    /**
+     * Потоково парсит файл на диске с заголовком, передавая строки порциями.
+     *
+     * @param dataClass класс DTO
+     * @param file путь к файлу
+     * @param fileExtension расширение
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    @Override
+    public <P extends ParsingData> long parseFileWithHeader(Class<P> dataClass,
+                                                            Path file,
+                                                            FileExtension fileExtension,
+                                                            int chunkSize,
+                                                            Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        return parseFile(dataClass, new FileSystemResource(file), file.getFileName().toString(), fileExtension, true, chunkSize, chunkConsumer);
+    }
+
+    /**
+     * Потоково парсит файл на диске без заголовка, передавая строки порциями.
+     *
+     * @param dataClass класс DTO
+     * @param file путь к файлу
+     * @param fileExtension расширение
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    @Override
+    public <P extends ParsingData> long parseFileWithoutHeader(Class<P> dataClass,
+                                                               Path file,
+                                                               FileExtension fileExtension,
+                                                               int chunkSize,
+                                                               Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        return parseFile(dataClass, new FileSystemResource(file), file.getFileName().toString(), fileExtension, false, chunkSize, chunkConsumer);
+    }
+
     /**
      * Экспортирует список объектов в CSV с заголовком.
      *
@@ -115,6 +333,155 @@ public class FileProcessServiceImpl implements FileProcessService {
         return collectDataIntoFile(dataClass, data, false);
     }
 
+    /**
+     * Потоково экспортирует объекты в CSV с заголовком.
+     *
+     * @param dataClass класс DTO
+     * @param data поток данных
+     * @param outputStream выходной поток (не закрывается)
+     * @return количество записанных строк
+     */
+    @Override
+    public <P extends ParsingData> long exportFileWithHeader(Class<P> dataClass,
+                                                             Stream<P> data,
+                                                             OutputStream outputStream) {
+        return writeCsvStream(dataClass, data, outputStream, true);
+    }
+
+    /**
+     * Потоково экспортирует объекты в CSV без заголовка.
+     *
+     * @param dataClass класс DTO
+     * @param data поток данных
+     * @param outputStream выходной поток (не закрывается)
+     * @return количество записанных строк
+     */
+    @Override
+    public <P extends ParsingData> long exportFileWithoutHeader(Class<P> dataClass,
+                                                                Stream<P> data,
+                                                                OutputStream outputStream) {
+        return writeCsvStream(dataClass, data, outputStream, false);
+    }
+
+    private <P extends ParsingData> long writeCsvStream(Class<P> dataClass,
+                                                        Stream<P> data,
+                                                        OutputStream outputStream,
+                                                        boolean withHeader) {
+        ObjectWriter writer = codecRegistry.writer(dataClass, withHeader, DEFAULT_SEPARATOR)
+                                           .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Iterator<P> iterator = data.iterator();
+        if (!iterator.hasNext()) {
+            // Jackson пишет заголовок при закрытии даже без строк, а пустой экспорт — пустой файл
+            return 0;
+        }
+
+        long written = 0;
+        try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+            while (iterator.hasNext()) {
+                sequenceWriter.write(iterator.next());
+                written++;
+            }
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
+    /**
+     * Потоково экспортирует строки экспорта записей времени в CSV с заголовком.
+     *
+     * @param rows поток строк экспорта
+     * @param outputStream выходной поток (не закрывается)
+     * @return количество записанных строк
+     */
+    @Override
+    public long exportTimeEntriesWithHeader(Stream<? extends TimeEntryExportRow> rows, OutputStream outputStream) {
+        return writeTimeEntries(rows, outputStream, true);
+    }
+
+    /**
+     * Потоково экспортирует строки экспорта записей времени в CSV без заголовка.
+     *
+     * @param rows поток строк экспорта
+     * @param outputStream выходной поток (не закрывается)
+     * @return количество записанных строк
+     */
+    @Override
+    public long exportTimeEntriesWithoutHeader(Stream<? extends TimeEntryExportRow> rows, OutputStream outputStream) {
+        return writeTimeEntries(rows, outputStream, false);
+    }
+
+    /**
+     * Пишет строки через {@link TimeEntryCsvWriter}; заголовок, как и у Jackson, только перед первой строкой.
+     */
+    private long writeTimeEntries(Stream<? extends TimeEntryExportRow> rows, OutputStream outputStream, boolean withHeader) {
+        Iterator<? extends TimeEntryExportRow> iterator = rows.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+
+        long written = 0;
+        try {
+            if (withHeader) {
+                outputStream.write(codecRegistry.header(TimeEntryParsingData.class, DEFAULT_SEPARATOR));
+            }
+            TimeEntryCsvWriter writer = codecRegistry.timeEntryWriter(outputStream, DEFAULT_SEPARATOR);
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                written++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
+    /**
+     * Потоково экспортирует строки в Apache Arrow IPC. Векторы выделяются один раз
+     * и переиспользуются для каждого batch'а; память освобождается вместе с дочерним распределителем.
+     *
+     * @param columns колонки файла
+     * @param data поток строк
+     * @param outputStream выходной поток (не закрывается)
+     * @return количество записанных строк
+     */
+    @Override
+    public <R> long exportArrowStream(List<ArrowColumn<R>> columns, Stream<? extends R> data, OutputStream outputStream) {
+        Schema schema = new Schema(columns.stream()
+                                          .map(ArrowColumn::getField)
+                                          .toList());
+        long written = 0;
+        try (BufferAllocator allocator = arrowAllocator.getObject().newChildAllocator("export", 0, Long.MAX_VALUE);
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+            // Закрытие ArrowStreamWriter закрыло бы и выходной поток, поэтому поток только завершается через end()
+            ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(outputStream));
+            writer.start();
+
+            List<FieldVector> vectors = root.getFieldVectors();
+            root.allocateNew();
+            Iterator<? extends R> iterator = data.iterator();
+            while (iterator.hasNext()) {
+                vectors.forEach(FieldVector::reset);
+                int rowCount = 0;
+                while (rowCount < ARROW_BATCH_SIZE && iterator.hasNext()) {
+                    R row = iterator.next();
+                    for (int i = 0; i < vectors.size(); i++) {
+                        columns.get(i).write(vectors.get(i), rowCount, row);
+                    }
+                    rowCount++;
+                }
+                root.setRowCount(rowCount);
+                writer.writeBatch();
+                written += rowCount;
+            }
+            writer.end();
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании Arrow: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
     /**
      * Универсальный метод для парсинга файла.
      * Проверяет расширение и делегирует обработку конкретному парсеру.
@@ -130,10 +497,42 @@ public class FileProcessServiceImpl implements FileProcessService {
                                                       FileExtension fileExtension,
                                                       boolean withHeader) {
 
-        validateFileExtension(fileExtension, multipartFile);
+        validateFileExtension(fileExtension, multipartFile.getOriginalFilename());
 
         return switch (fileExtension) {
-            case CSV -> parseCsvFile(dataClass, multipartFile, withHeader);
+            case CSV -> parseCsvFile(dataClass, multipartFile, multipartFile.getOriginalFilename(), withHeader);
+            default -> throw new FileParsingException("Неподдерживаемое расширение: " + fileExtension);
+        };
+    }
+
+    /**
+     * Универсальный метод для потокового парсинга файла.
+     * Проверяет расширение и делегирует обработку конкретному парсеру.
+     *
+     * @param dataClass класс DTO
+     * @param source источник содержимого файла
+     * @param fileName имя файла для проверки расширения
+     * @param fileExtension расширение
+     * @param withHeader флаг наличия заголовка
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    private <P extends ParsingData> long parseFile(Class<P> dataClass,
+                                                   InputStreamSource source,
+                                                   String fileName,
+                                                   FileExtension fileExtension,
+                                                   boolean withHeader,
+                                                   int chunkSize,
+                                                   Consumer<List<ParsedRow<P>>> chunkConsumer) {
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Размер порции должен быть положительным: " + chunkSize);
+        }
+        validateFileExtension(fileExtension, fileName);
+
+        return switch (fileExtension) {
+            case CSV -> streamCsvFile(dataClass, source, fileName, withHeader, chunkSize, chunkConsumer);
             default -> throw new FileParsingException("Неподдерживаемое расширение: " + fileExtension);
         };
     }
@@ -144,24 +543,16 @@ public class FileProcessServiceImpl implements FileProcessService {
      *
      * @param dataClass класс DTO
      * @param multipartFile файл CSV
+     * @param fileName имя файла ({@code .csv.gz} распаковывается при чтении)
      * @param withHeader наличие заголовка
      * @return список валидных DTO
      */
     private <P extends ParsingData> List<P> parseCsvFile(Class<P> dataClass,
                                                          MultipartFile multipartFile,
+                                                         String fileName,
                                                          boolean withHeader) {
-        try (InputStreamReader inputStreamReader = new InputStreamReader(multipartFile.getInputStream(), DEFAULT_ENCODING)) {
-            CsvMapper csvMapper = new CsvMapper();
-            csvMapper.registerModule(new JavaTimeModule());
-            csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-
-            CsvSchema schema = csvMapper.schemaFor(dataClass)
-                                        .withUseHeader(withHeader)
-                                        .withColumnSeparator(DEFAULT_SEPARATOR.getSeparator());
-
-            MappingIterator<P> iterator = csvMapper.readerFor(dataClass)
-                                                   .with(schema)
-                                                   .readValues(inputStreamReader);
+        try (InputStreamReader inputStreamReader = new InputStreamReader(openInputStream(multipartFile, fileName), DEFAULT_ENCODING)) {
+            MappingIterator<P> iterator = createCsvReader(dataClass, withHeader).readValues(inputStreamReader);
 
             List<P> parsedData = iterator.readAll();
 
@@ -175,6 +566,279 @@ public class FileProcessServiceImpl implements FileProcessService {
         }
     }
 
+    /**
+     * Потоково парсит CSV файл, читая его построчно через {@link MappingIterator}.
+     * Строки накапливаются в порцию, которая передаётся обработчику по заполнении,
+     * поэтому потребление памяти не зависит от размера файла.
+     * Каждая строка сопровождается номером строки в файле и результатом bean-валидации.
+     *
+     * @param dataClass класс DTO
+     * @param source источник содержимого CSV
+     * @param fileName имя файла ({@code .csv.gz} распаковывается при чтении)
+     * @param withHeader наличие заголовка
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    private <P extends ParsingData> long streamCsvFile(Class<P> dataClass,
+                                                       InputStreamSource source,
+                                                       String fileName,
+                                                       boolean withHeader,
+                                                       int chunkSize,
+                                                       Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        // Байты передаются Jackson без InputStreamReader: кодировка (UTF-8) определяется и декодируется парсером
+        try (InputStream inputStream = openInputStream(source, fileName);
+             MappingIterator<P> iterator = createCsvReader(dataClass, withHeader).readValues(inputStream)) {
+
+            long rowNumber = withHeader ? 1 : 0;
+            List<ParsedRow<P>> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNextValue()) {
+                P data = iterator.nextValue();
+                rowNumber++;
+
+                chunk.add(new ParsedRow<>(rowNumber, data, validate(data)));
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+            return withHeader ? rowNumber - 1 : rowNumber;
+
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при парсинге файла: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Параллельно парсит CSV файл на диске.
+     * Один последовательный проход делит файл на диапазоны по границам записей и сразу
+     * отправляет их в {@link #csvParsePool}. Результаты забираются в порядке диапазонов,
+     * поэтому порции и номера строк совпадают с последовательным парсингом.
+     * Количество диапазонов в обработке ограничено, так что память не зависит от размера файла.
+     *
+     * @param dataClass класс DTO
+     * @param file путь к файлу CSV
+     * @param withHeader наличие заголовка
+     * @param chunkSize размер порции
+     * @param chunkConsumer обработчик порции
+     * @return количество прочитанных строк
+     */
+    private <P extends ParsingData> long parallelParseCsvFile(Class<P> dataClass,
+                                                              Path file,
+                                                              boolean withHeader,
+                                                              int chunkSize,
+                                                              Consumer<List<ParsedRow<P>>> chunkConsumer) {
+        ObjectReader reader = createCsvReader(dataClass, withHeader);
+        int maxInFlight = csvParsePool.getParallelism() * PARALLEL_RANGES_PER_THREAD;
+        Deque<Future<List<ParsedRow<P>>>> inFlight = new ArrayDeque<>(maxInFlight);
+        RowChunker<P> chunker = new RowChunker<>(chunkSize, chunkConsumer);
+
+        try (FileChannel channel = FileChannel.open(file);
+             CsvRangeSplitter splitter = new CsvRangeSplitter(Files.newInputStream(file), DEFAULT_SEPARATOR)) {
+
+            // Заголовок добавляется перед каждым диапазоном, чтобы колонки сопоставлялись так же, как в начале файла
+            ByteBuffer header = ByteBuffer.allocate(0);
+            if (withHeader) {
+                CsvRange headerRange = splitter.nextRange(1);
+                if (headerRange == null) {
+                    return 0;
+                }
+                header = mapRange(channel, headerRange);
+            }
+
+            try {
+                CsvRange range;
+                while ((range = splitter.nextRange(PARALLEL_RANGE_SIZE)) != null) {
+                    CsvRange task = range;
+                    // У каждой задачи своя позиция чтения заголовка
+                    ByteBuffer rangeHeader = header.duplicate();
+                    inFlight.addLast(csvParsePool.submit(() -> parseRange(dataClass, reader, channel, rangeHeader, task)));
+                    if (inFlight.size() >= maxInFlight) {
+                        chunker.addAll(await(inFlight.removeFirst()));
+                    }
+                }
+                while (!inFlight.isEmpty()) {
+                    chunker.addAll(await(inFlight.removeFirst()));
+                }
+            } finally {
+                // При ошибке оставшиеся задачи не нужны; отменяем их до закрытия канала
+                inFlight.forEach(future -> future.cancel(true));
+            }
+            return chunker.flush();
+
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при парсинге файла: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Разбирает и проверяет строки одного диапазона файла.
+     * Диапазон отображается в память и читается напрямую из страничного кэша, без копирования
+     * в промежуточный массив. Если для класса есть специализированный разборщик
+     * ({@link CsvCodecRegistry#recordDecoder}), используется он, а записи, которые он не смог разобрать,
+     * по одной разбираются через Jackson.
+     *
+     * @param dataClass класс DTO
+     * @param reader настроенный ObjectReader
+     * @param channel канал файла
+     * @param header байты строки заголовка (пустой буфер, если заголовка нет)
+     * @param range диапазон файла
+     * @return строки диапазона с номерами строк в файле
+     */
+    private <P extends ParsingData> List<ParsedRow<P>> parseRange(Class<P> dataClass,
+                                                                  ObjectReader reader,
+                                                                  FileChannel channel,
+                                                                  ByteBuffer header,
+                                                                  CsvRange range) throws IOException {
+        ByteBuffer content = mapRange(channel, range);
+
+        CsvRecordDecoder<P> decoder = codecRegistry.recordDecoder(dataClass, DEFAULT_SEPARATOR);
+        if (decoder != null) {
+            return decodeRange(decoder, reader, header, content, range);
+        }
+
+        List<ParsedRow<P>> rows = new ArrayList<>();
+        readRecords(reader, header, content, range.getRecordsBefore(), rows);
+        return rows;
+    }
+
+    /**
+     * Разбирает записи через Jackson и добавляет их к строкам диапазона.
+     *
+     * @param reader настроенный ObjectReader
+     * @param header байты строки заголовка (пустой буфер, если заголовка нет)
+     * @param content записи CSV
+     * @param rowNumber номер строки в файле перед первой записью
+     * @param rows строки диапазона
+     * @return номер строки в файле после последней записи
+     */
+    private <P extends ParsingData> long readRecords(ObjectReader reader,
+                                                     ByteBuffer header,
+                                                     ByteBuffer content,
+                                                     long rowNumber,
+                                                     List<ParsedRow<P>> rows) throws IOException {
+        InputStream input = new SequenceInputStream(new ByteBufferBackedInputStream(header.duplicate()),
+                new ByteBufferBackedInputStream(content));
+
+        try (MappingIterator<P> iterator = reader.readValues(input)) {
+            while (iterator.hasNextValue()) {
+                P data = iterator.nextValue();
+                rowNumber++;
+                rows.add(new ParsedRow<>(rowNumber, data, validate(data)));
+            }
+            return rowNumber;
+        }
+    }
+
+    /**
+     * Разбирает диапазон специализированным разборщиком.
+     * Границы записей ищутся по тем же правилам кавычек, что и в {@link CsvRangeSplitter}.
+     * Запись, которую разборщик не смог разобрать, передаётся Jackson отдельно, вместе с заголовком,
+     * так что остальные записи диапазона по-прежнему разбираются быстрым путём.
+     *
+     * @param decoder разборщик записей
+     * @param reader настроенный ObjectReader для записей, не разобранных разборщиком
+     * @param header байты строки заголовка (пустой буфер, если заголовка нет)
+     * @param content содержимое диапазона
+     * @param range диапазон файла
+     * @return строки диапазона
+     */
+    private <P extends ParsingData> List<ParsedRow<P>> decodeRange(CsvRecordDecoder<P> decoder,
+                                                                   ObjectReader reader,
+                                                                   ByteBuffer header,
+                                                                   ByteBuffer content,
+                                                                   CsvRange range) throws IOException {
+        List<ParsedRow<P>> rows = new ArrayList<>();
+        long rowNumber = range.getRecordsBefore();
+        int limit = content.limit();
+        CsvRecordScanner scanner = new CsvRecordScanner(DEFAULT_SEPARATOR);
+        int start = 0;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && !scanner.endsRecord(content.get(end))) {
+                end++;
+            }
+
+            P data = decoder.decode(content, start, end);
+            if (data == null) {
+                // Запись вместе с переводом строки, чтобы Jackson видел её так же, как в составе диапазона
+                int recordEnd = Math.min(end + 1, limit);
+                rowNumber = readRecords(reader, header, content.slice(start, recordEnd - start), rowNumber, rows);
+            } else {
+                rowNumber++;
+                rows.add(new ParsedRow<>(rowNumber, data, validate(data)));
+            }
+            start = end + 1;
+        }
+        return rows;
+    }
+
+    /**
+     * Отображает диапазон файла в память только для чтения.
+     *
+     * @param channel канал файла
+     * @param range диапазон
+     * @return буфер с содержимым диапазона
+     */
+    private ByteBuffer mapRange(FileChannel channel, CsvRange range) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, range.getStart(), range.length());
+    }
+
+    /**
+     * Ожидает результат задачи парсинга и пробрасывает её ошибку в вызывающий поток.
+     *
+     * @param future задача парсинга диапазона
+     * @return результат задачи
+     */
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileParsingException("Парсинг файла прерван", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new FileParsingException("Ошибка при парсинге файла: " + cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    /**
+     * Проверяет объект bean-валидатором.
+     *
+     * @param data проверяемый объект
+     * @return сообщения о нарушениях в формате "поле: сообщение"; пустой список, если нарушений нет
+     */
+    private List<String> validate(Object data) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(data);
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        return violations.stream()
+                         .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                         .toList();
+    }
+
+    /**
+     * Возвращает готовый Jackson ObjectReader для CSV из {@link CsvCodecRegistry}.
+     *
+     * @param dataClass класс DTO
+     * @param withHeader наличие заголовка
+     * @return настроенный ObjectReader
+     */
+    private <P extends ParsingData> ObjectReader createCsvReader(Class<P> dataClass, boolean withHeader) {
+        return codecRegistry.reader(dataClass, withHeader, DEFAULT_SEPARATOR);
+    }
+
     /**
      * Формирует CSV-файл из списка DTO.
      * Поддерживает опцию вывода заголовка и настройку разделителей.
@@ -188,46 +852,181 @@ public class FileProcessServiceImpl implements FileProcessService {
                                                                List<P> data,
                                                                boolean withHeader) {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            CsvMapper csvMapper = CsvMapper.csvBuilder().build();
-            csvMapper.registerModule(new JavaTimeModule());
-            csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-            SimpleModule module = new SimpleModule();
-            module.addSerializer(BigDecimal.class, new CustomBigDecimalSerializer(DECIMAL_SEPARATOR));
-            csvMapper.registerModule(module);
-
-            CsvSchema schema = csvMapper.schemaFor(dataClass)
-                                        .withUseHeader(withHeader)
-                                        .withColumnSeparator(DEFAULT_SEPARATOR.getSeparator());
-
-            ObjectWriter writer = csvMapper.writer(schema);
+            ObjectWriter writer = codecRegistry.writer(dataClass, withHeader, DEFAULT_SEPARATOR);
 
-            writer.writeValue(outputStream, data);
-            return outputStream.toString(DEFAULT_ENCODING).getBytes(DEFAULT_ENCODING);
+            try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+                sequenceWriter.writeAll(data);
+            }
+            // Jackson пишет в поток байт в UTF-8, перекодирование не требуется
+            return outputStream.toByteArray();
 
         } catch (IOException e) {
             throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Открывает содержимое файла; сжатый gzip файл распаковывается потоком по мере чтения,
+     * но не больше {@code app.import.max-decompressed-size} байт.
+     *
+     * @param source источник содержимого
+     * @param fileName имя файла
+     * @return поток несжатого содержимого
+     */
+    private InputStream openInputStream(InputStreamSource source, String fileName) throws IOException {
+        InputStream inputStream = source.getInputStream();
+        if (!isCompressed(fileName)) {
+            return inputStream;
+        }
+        try {
+            return new DecompressedSizeLimitInputStream(new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE),
+                    importProperties.getMaxDecompressedSize().toBytes());
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Сжат ли файл gzip, по суффиксу имени ({@code .csv.gz}).
+     *
+     * @param name имя файла (может быть null)
+     * @return true для сжатого файла
+     */
+    private boolean isCompressed(String name) {
+        return name != null && name.toLowerCase().endsWith(GZIP_SUFFIX);
+    }
+
     /**
      * Проверяет расширение файла по имени и сравнивает с ожидаемым.
+     * Суффикс {@code .gz} сжатого файла не учитывается: {@code data.csv.gz} — это CSV.
      *
      * @param expected ожидаемое расширение
-     * @param file загружаемый файл
+     * @param name имя файла
      * @throws FileParsingException если расширение отсутствует или не совпадает
      */
-    private void validateFileExtension(FileExtension expected, MultipartFile file) {
-        String name = file.getOriginalFilename();
+    private void validateFileExtension(FileExtension expected, String name) {
         if (name == null || !name.contains(".")) {
             throw new FileParsingException("Не удалось определить расширение файла");
         }
 
-        String actualExt = name.substring(name.lastIndexOf('.') + 1);
+        String baseName = isCompressed(name) ? name.substring(0, name.length() - GZIP_SUFFIX.length()) : name;
+        if (!baseName.contains(".")) {
+            throw new FileParsingException("Не удалось определить расширение файла");
+        }
+
+        String actualExt = baseName.substring(baseName.lastIndexOf('.') + 1);
         FileExtension actual = FileExtension.fromString(actualExt);
 
         if (!expected.equals(actual)) {
             throw new FileParsingException("Ожидался файл с расширением " + expected + ", но получен " + actual);
         }
     }
+
+    /**
+     * Удаляет временный файл, не прерывая выполнение при ошибке.
+     *
+     * @param file путь к файлу (может быть null)
+     */
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}", file, e);
+        }
+    }
+
+    /**
+     * Поток распакованного содержимого, прерывающий чтение, как только прочитано больше {@code maxBytes} байт.
+     * Защищает от файлов, которые при небольшом сжатом размере распаковываются в огромный объём.
+     */
+    private static final class DecompressedSizeLimitInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+
+        private long readBytes;
+
+        private DecompressedSizeLimitInputStream(InputStream inputStream, long maxBytes) {
+            super(inputStream);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long bytes) {
+            readBytes += bytes;
+            if (readBytes > maxBytes) {
+                throw new FileParsingException("Распакованный файл больше допустимого размера " + maxBytes + " байт");
+            }
+        }
+    }
+
+    /**
+     * Собирает строки в порции заданного размера и передаёт их обработчику.
+     *
+     * @param <P> тип данных строки
+     */
+    private static final class RowChunker<P extends ParsingData> {
+
+        private final int chunkSize;
+        private final Consumer<List<ParsedRow<P>>> chunkConsumer;
+        private List<ParsedRow<P>> chunk;
+        private long total;
+
+        private RowChunker(int chunkSize, Consumer<List<ParsedRow<P>>> chunkConsumer) {
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        private void addAll(List<ParsedRow<P>> rows) {
+            for (ParsedRow<P> row : rows) {
+                chunk.add(row);
+                total++;
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+
+        /**
+         * Передаёт обработчику неполную последнюю порцию.
+         *
+         * @return общее количество строк
+         */
+        private long flush() {
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+            return total;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.dto.ImportJobDTO;
+import com.example.accounting_employee_time.dto.ImportJobStatus;
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.security.Role;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.ImportJobService;
+import com.example.accounting_employee_time.service.TimeEntryImportService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реализация {@link ImportJobService}.
+ * Задания выполняются в пуле {@code importJobExecutor}, прогресс берётся из отчёта, который заполняет импорт.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJobServiceImpl implements ImportJobService {
+
+    private final FileProcessService fileProcessService;
+    private final TimeEntryImportService timeEntryImportService;
+    private final ImportProperties importProperties;
+    private final ThreadPoolTaskExecutor importJobExecutor;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Сохраняет файл на диск и передаёт задание в пул потоков импорта.
+     *
+     * @param file CSV-файл с записями времени
+     * @param actor сотрудник, выполняющий импорт
+     * @param mode способ сохранения записей
+     * @return состояние созданного задания
+     */
+    @Override
+    public ImportJobDTO submit(MultipartFile file, EmployeeEntity actor, ImportMode mode) {
+        Path spooled = fileProcessService.spoolFile(file, FileExtension.CSV);
+        ImportJob job = new ImportJob(UUID.randomUUID(), actor.getId(), file.getOriginalFilename(), mode,
+                new ImportReport(importProperties.getMaxReportedErrors()));
+        jobs.put(job.id, job);
+
+        try {
+            importJobExecutor.execute(() -> run(job, spooled, actor));
+        } catch (TaskRejectedException ex) {
+            jobs.remove(job.id);
+            deleteQuietly(spooled);
+            throw ex;
+        }
+
+        log.debug("Import job {} submitted by employee id={}", job.id, actor.getId());
+        return toDto(job);
+    }
+
+    /**
+     * Возвращает состояние задания, если оно принадлежит actor или actor — администратор.
+     *
+     * @param id идентификатор задания
+     * @param actor текущий сотрудник
+     * @return состояние задания
+     */
+    @Override
+    public ImportJobDTO getJob(UUID id, EmployeeEntity actor) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Задание импорта не найдено");
+        }
+        if (!job.ownerId.equals(actor.getId()) && actor.getRole() != Role.ADMIN) {
+            throw new AccessDeniedException("Нет доступа к заданию импорта");
+        }
+        return toDto(job);
+    }
+
+    /**
+     * Удаляет из памяти задания, завершённые раньше, чем {@link ImportProperties#getJobTtl()} назад.
+     */
+    @Scheduled(fixedDelayString = "${app.import.job-eviction-interval:PT1M}")
+    public void evictExpiredJobs() {
+        Instant threshold = Instant.now().minus(importProperties.getJobTtl());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    /**
+     * Выполняет импорт в потоке пула и фиксирует итоговое состояние задания.
+     * Временный файл удаляется в любом случае.
+     *
+     * @param job задание
+     * @param file временный файл с содержимым загрузки
+     * @param actor сотрудник, выполняющий импорт
+     */
+    private void run(ImportJob job, Path file, EmployeeEntity actor) {
+        job.startedAt = Instant.now();
+        job.status = ImportJobStatus.RUNNING;
+        try {
+            timeEntryImportService.importFile(file, actor, job.report, job.mode);
+            job.status = ImportJobStatus.COMPLETED;
+        } catch (RuntimeException ex) {
+            log.warn("Import job {} failed: {}", job.id, ex.getMessage(), ex);
+            job.error = ex.getMessage();
+            job.status = ImportJobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            deleteQuietly(file);
+        }
+    }
+
+    private ImportJobDTO toDto(ImportJob job) {
+        ImportReport report = job.report;
+        ImportJobStatus status = job.status;
+        Instant startedAt = job.startedAt;
+        Instant finishedAt = job.finishedAt;
+
+        long rowsPerSecond = 0;
+        if (startedAt != null) {
+            long elapsedMillis = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+            rowsPerSecond = report.getTotalRows() * 1000 / Math.max(1, elapsedMillis);
+        }
+
+        return ImportJobDTO.builder()
+                           .id(job.id)
+                           .fileName(job.fileName)
+                           .mode(job.mode)
+                           .status(status)
+                           .submittedAt(job.submittedAt)
+                           .startedAt(startedAt)
+                           .finishedAt(finishedAt)
+                           .rowsParsed(report.getTotalRows())
+                           // При ошибке транзакция откатывается, сохранённых записей нет
+                           .rowsInserted(status == ImportJobStatus.FAILED ? 0 : report.getImported())
+                           .rowsRejected(report.getRejected())
+                           .rowsPerSecond(rowsPerSecond)
+                           .error(job.error)
+                           .report(status == ImportJobStatus.COMPLETED ? report : null)
+                           .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}", file, e);
+        }
+    }
+
+    /**
+     * Состояние задания в памяти. Изменяется только потоком импорта, читается потоками HTTP-запросов.
+     */
+    private static final class ImportJob {
+        private final UUID id;
+        private final Long ownerId;
+        private final String fileName;
+        private final ImportMode mode;
+        private final ImportReport report;
+        private final Instant submittedAt = Instant.now();
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ImportJob(UUID id, Long ownerId, String fileName, ImportMode mode, ImportReport report) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.fileName = fileName;
+            this.mode = mode;
+            this.report = report;
+        }
+    }
+}
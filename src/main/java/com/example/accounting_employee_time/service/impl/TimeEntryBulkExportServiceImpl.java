@@ -0,0 +1,158 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.service.TimeEntryBulkExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация {@link TimeEntryBulkExportService}.
+ * Запрос с фильтром доступа выполняется командой {@code COPY (…) TO STDOUT WITH CSV HEADER},
+ * строки CSV копируются из соединения в выходной поток без разбора.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryBulkExportServiceImpl implements TimeEntryBulkExportService {
+
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+
+    /**
+     * SQL-выражения колонок по именам колонок CSV-схемы {@link TimeEntryParsingData}.
+     * Часы вычисляются так же, как в {@code TimeEntryMapper#toHours}: два знака после точки.
+     */
+    private static final Map<String, String> COLUMN_EXPRESSIONS = Map.of(
+            TimeEntryParsingData.WORK_DATE_COLUMN, "to_char(t.work_date, 'YYYY-MM-DD')",
+            TimeEntryParsingData.HOURS_WORKED_COLUMN, "round(t.worked_minutes / 60.0, 2)",
+            TimeEntryParsingData.EMPLOYEE_ID_COLUMN, "t.employee_id",
+            TimeEntryParsingData.EMPLOYEE_NAME_COLUMN, "e.name",
+            TimeEntryParsingData.CREATED_BY_ID_COLUMN, "t.created_by_id",
+            TimeEntryParsingData.CREATED_BY_NAME_COLUMN, "c.name"
+    );
+
+    /**
+     * COPY не принимает параметры запроса, поэтому значения подставляются в текст:
+     * это только числа и даты, экранирование не требуется.
+     */
+    private static final String COPY_SQL = """
+            COPY (
+                SELECT %s
+                FROM time_entries t
+                JOIN employees e ON e.id = t.employee_id
+                JOIN employees c ON c.id = t.created_by_id
+                WHERE %s
+                  AND t.work_date BETWEEN DATE '%s' AND DATE '%s'
+                ORDER BY t.employee_id, t.work_date
+            ) TO STDOUT WITH (FORMAT csv, HEADER, DELIMITER '%s', ENCODING 'UTF8')
+            """;
+
+    private final CsvCodecRegistry codecRegistry;
+    private final DataSource dataSource;
+
+    /**
+     * Экспортирует записи времени командой COPY.
+     * Заголовок, который COPY отдаёт первой строкой, записывается только вместе с первой строкой данных.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл
+     * @return количество экспортированных записей
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCsv(Collection<Long> employeeIds, LocalDate start, LocalDate end, OutputStream outputStream) {
+        if (employeeIds.isEmpty()) {
+            return 0;
+        }
+        String ids = employeeIds.stream()
+                                .map(String::valueOf)
+                                .collect(Collectors.joining(","));
+        return copy(buildCopySql("t.employee_id = ANY('{" + ids + "}'::bigint[])", start, end), outputStream);
+    }
+
+    /**
+     * Экспортирует записи поддерева командой COPY; поддерево выбирается подзапросом к employee_hierarchy.
+     *
+     * @param managerId идентификатор руководителя
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл
+     * @return количество экспортированных записей
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportSubtreeCsv(Long managerId, LocalDate start, LocalDate end, OutputStream outputStream) {
+        String subtree = "t.employee_id IN (SELECT h.descendant_id FROM employee_hierarchy h WHERE h.ancestor_id = "
+                + managerId + ")";
+        return copy(buildCopySql(subtree, start, end), outputStream);
+    }
+
+    private long copy(String sql, OutputStream outputStream) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyOut copyOut = null;
+        try {
+            copyOut = connection.unwrap(PGConnection.class)
+                                .getCopyAPI()
+                                .copyOut(sql);
+
+            byte[] header = copyOut.readFromCopy();
+            long exported = 0;
+            byte[] line;
+            while ((line = copyOut.readFromCopy()) != null) {
+                if (exported == 0) {
+                    outputStream.write(header);
+                }
+                outputStream.write(line);
+                exported++;
+            }
+            log.debug("Exported {} time entries with COPY", exported);
+            return exported;
+        } catch (SQLException | IOException e) {
+            throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+        } finally {
+            cancelQuietly(copyOut);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private String buildCopySql(String employeeFilter, LocalDate start, LocalDate end) {
+        String columns = codecRegistry.columnNames(TimeEntryParsingData.class)
+                                      .stream()
+                                      .map(name -> COLUMN_EXPRESSIONS.get(name) + " AS \"" + name + "\"")
+                                      .collect(Collectors.joining(", "));
+        return COPY_SQL.formatted(columns, employeeFilter, start, end, SEPARATOR.getSeparator());
+    }
+
+    /**
+     * Прерывает COPY, если поток ответа закрыт раньше, чем прочитаны все строки.
+     */
+    private void cancelQuietly(CopyOut copyOut) {
+        if (copyOut == null || !copyOut.isActive()) {
+            return;
+        }
+        try {
+            copyOut.cancelCopy();
+        } catch (SQLException e) {
+            log.warn("Не удалось отменить COPY", e);
+        }
+    }
+}
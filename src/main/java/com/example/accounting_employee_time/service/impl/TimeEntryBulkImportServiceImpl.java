@@ -0,0 +1,312 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.dto.ImportRowError;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.mapper.TimeEntryMapper;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.ParsedRow;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.service.EmployeeService;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryBulkImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Реализация {@link TimeEntryBulkImportService}.
+ * Все шаги выполняются в одной транзакции на одном соединении: временная таблица удаляется при коммите.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryBulkImportServiceImpl implements TimeEntryBulkImportService {
+
+    /**
+     * Размер блока идентификаторов, выделяемого одним вызовом nextval.
+     * Совпадает с allocationSize последовательности time_entry_seq в {@code TimeEntryEntity}.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final int PROBLEM_EMPLOYEE_NOT_FOUND = 1;
+    private static final int PROBLEM_DUPLICATE = 2;
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE time_entry_import_staging (
+                row_number     BIGINT PRIMARY KEY,
+                employee_id    BIGINT  NOT NULL,
+                work_date      DATE    NOT NULL,
+                worked_minutes INTEGER NOT NULL,
+                problem        INTEGER
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY time_entry_import_staging (row_number, employee_id, work_date, worked_minutes) FROM STDIN";
+
+    /**
+     * Существующие сотрудники файла; права на них проверяются {@link EmployeeService#filterEditableIds}.
+     */
+    private static final String FIND_EMPLOYEES_SQL = """
+            SELECT e.id, e.name
+            FROM employees e
+            WHERE e.id IN (SELECT DISTINCT employee_id FROM time_entry_import_staging)
+            """;
+
+    /**
+     * Помечает строки несуществующих сотрудников и дубликаты: пара (сотрудник, дата) уже есть
+     * в time_entries или встречается в файле раньше.
+     */
+    private static final String MARK_PROBLEMS_SQL = """
+            UPDATE time_entry_import_staging s
+            SET problem = p.problem
+            FROM (
+                SELECT st.row_number,
+                       CASE
+                           WHEN NOT EXISTS (SELECT 1 FROM employees e WHERE e.id = st.employee_id) THEN 1
+                           WHEN EXISTS (SELECT 1 FROM time_entries t
+                                        WHERE t.employee_id = st.employee_id AND t.work_date = st.work_date) THEN 2
+                           WHEN row_number() OVER (PARTITION BY st.employee_id, st.work_date ORDER BY st.row_number) > 1 THEN 2
+                       END AS problem
+                FROM time_entry_import_staging st
+            ) p
+            WHERE p.row_number = s.row_number AND p.problem IS NOT NULL
+            """;
+
+    private static final String FIND_PROBLEMS_SQL = """
+            SELECT s.row_number, s.employee_id, s.work_date, s.problem, e.name
+            FROM time_entry_import_staging s
+            LEFT JOIN employees e ON e.id = s.employee_id
+            WHERE s.problem IS NOT NULL
+            ORDER BY s.row_number
+            """;
+
+    private static final String COUNT_ACCEPTED_SQL =
+            "SELECT count(*) FROM time_entry_import_staging WHERE problem IS NULL";
+
+    /**
+     * Период принятых записей каждого сотрудника — для инвалидации кэша экспорта.
+     */
+    private static final String FIND_ACCEPTED_RANGES_SQL = """
+            SELECT employee_id, min(work_date) AS first_date, max(work_date) AS last_date
+            FROM time_entry_import_staging
+            WHERE problem IS NULL
+            GROUP BY employee_id
+            """;
+
+    private static final String ALLOCATE_ID_BLOCKS_SQL =
+            "SELECT nextval('time_entry_seq') FROM generate_series(1, ?)";
+
+    /**
+     * Переносит принятые строки в time_entries. Идентификаторы берутся из выделенных блоков так же,
+     * как их выдаёт оптимизатор pooled Hibernate: блок с верхней границей hi — это (hi - 50, hi].
+     */
+    private static final String INSERT_ACCEPTED_SQL = """
+            INSERT INTO time_entries (id, work_date, worked_minutes, employee_id, created_by_id, created_at)
+            SELECT b.hi - %1$d + 1 + a.ordinal %% %1$d, a.work_date, a.worked_minutes, a.employee_id, ?, ?
+            FROM (
+                SELECT s.*, row_number() OVER (ORDER BY s.row_number) - 1 AS ordinal
+                FROM time_entry_import_staging s
+                WHERE s.problem IS NULL
+            ) a
+            JOIN unnest(?::bigint[]) WITH ORDINALITY AS b(hi, idx) ON b.idx - 1 = a.ordinal / %1$d
+            """.formatted(ID_BLOCK_SIZE);
+
+    private final FileProcessService fileProcessService;
+    private final EmployeeService employeeService;
+    private final TimeEntryMapper timeEntryMapper;
+    private final ImportProperties importProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Импортирует записи времени через временную таблицу и COPY.
+     *
+     * @param file путь к CSV-файлу с заголовком
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт об импорте
+     */
+    @Override
+    @Transactional
+    public void importFile(Path file, EmployeeEntity actor, ImportReport report) {
+        long startedAt = System.nanoTime();
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+
+        copyIntoStaging(file, report);
+        jdbcTemplate.execute("ANALYZE time_entry_import_staging");
+
+        Map<Long, String> employees = new HashMap<>();
+        jdbcTemplate.query(FIND_EMPLOYEES_SQL, rs -> {
+            employees.put(rs.getLong("id"), rs.getString("name"));
+        });
+        Set<Long> editableIds = employeeService.filterEditableIds(actor, employees.keySet());
+        employees.forEach((employeeId, name) -> {
+            if (!editableIds.contains(employeeId)) {
+                throw new AccessDeniedException("Нет прав на создание записи за " + name);
+            }
+        });
+
+        jdbcTemplate.update(MARK_PROBLEMS_SQL);
+        jdbcTemplate.query(FIND_PROBLEMS_SQL, rs -> {
+            long employeeId = rs.getLong("employee_id");
+            String reason = rs.getInt("problem") == PROBLEM_EMPLOYEE_NOT_FOUND
+                    ? "Сотрудник с id=" + employeeId + " не найден"
+                    : "Запись за " + rs.getDate("work_date").toLocalDate() + " уже существует для сотрудника " + rs.getString("name");
+            report.reject(ImportRowError.builder()
+                                        .rowNumber(rs.getLong("row_number"))
+                                        .employeeId(employeeId)
+                                        .workDate(rs.getDate("work_date").toLocalDate())
+                                        .reason(reason)
+                                        .build());
+        });
+
+        Long accepted = jdbcTemplate.queryForObject(COUNT_ACCEPTED_SQL, Long.class);
+        if (accepted != null && accepted > 0) {
+            Long[] idBlocks = allocateIdBlocks(accepted);
+            int inserted = jdbcTemplate.update(INSERT_ACCEPTED_SQL, ps -> {
+                ps.setLong(1, actor.getId());
+                ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setArray(3, ps.getConnection().createArrayOf("bigint", idBlocks));
+            });
+            report.addImported(inserted);
+
+            jdbcTemplate.query(FIND_ACCEPTED_RANGES_SQL, rs -> {
+                eventPublisher.publishEvent(new TimeEntryChangedEvent(
+                        rs.getLong("employee_id"),
+                        rs.getDate("first_date").toLocalDate(),
+                        rs.getDate("last_date").toLocalDate()));
+            });
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("Импорт через COPY завершён: {} записей за {} мс ({} записей/с), отклонено {}",
+                report.getImported(), elapsedMillis, report.getImported() * 1000 / elapsedMillis, report.getRejected());
+    }
+
+    /**
+     * Разбирает файл и передаёт валидные строки во временную таблицу через COPY порциями.
+     * Невалидные строки сразу записываются в отчёт.
+     *
+     * @param file путь к CSV-файлу
+     * @param report отчёт об импорте
+     */
+    private void copyIntoStaging(Path file, ImportReport report) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class)
+                               .getCopyAPI()
+                               .copyIn(COPY_SQL);
+            CopyIn copy = copyIn;
+
+            if (importProperties.isParallelParse()) {
+                fileProcessService.parseFileWithHeaderParallel(TimeEntryParsingData.class, file, FileExtension.CSV,
+                        importProperties.getChunkSize(), chunk -> copyChunk(copy, chunk, report));
+            } else {
+                fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV,
+                        importProperties.getChunkSize(), chunk -> copyChunk(copy, chunk, report));
+            }
+
+            long copied = copyIn.endCopy();
+            log.debug("Copied {} rows into staging table", copied);
+        } catch (SQLException e) {
+            throw new FileParsingException("Ошибка при загрузке строк во временную таблицу: " + e.getMessage(), e);
+        } finally {
+            cancelQuietly(copyIn);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Записывает порцию строк в поток COPY в текстовом формате PostgreSQL (значения через табуляцию).
+     * Экранирование не требуется: передаются только числа и даты.
+     *
+     * @param copyIn поток COPY
+     * @param chunk порция строк CSV
+     * @param report отчёт об импорте
+     */
+    private void copyChunk(CopyIn copyIn, List<ParsedRow<TimeEntryParsingData>> chunk, ImportReport report) {
+        report.addTotalRows(chunk.size());
+
+        StringBuilder lines = new StringBuilder(chunk.size() * 32);
+        for (ParsedRow<TimeEntryParsingData> row : chunk) {
+            TimeEntryParsingData data = row.getData();
+            if (!row.isValid()) {
+                report.reject(ImportRowError.builder()
+                                            .rowNumber(row.getRowNumber())
+                                            .employeeId(data.getEmployeeId())
+                                            .workDate(data.getWorkDate())
+                                            .reason(String.join("; ", row.getViolations()))
+                                            .build());
+                continue;
+            }
+            lines.append(row.getRowNumber()).append('\t')
+                 .append(data.getEmployeeId()).append('\t')
+                 .append(data.getWorkDate()).append('\t')
+                 .append(timeEntryMapper.toMinutes(data.getHoursWorked())).append('\n');
+        }
+
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException e) {
+            throw new FileParsingException("Ошибка при загрузке строк во временную таблицу: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Выделяет блоки идентификаторов из time_entry_seq для заданного количества записей.
+     * Значения меньше размера блока (возможны только у новой последовательности) пропускаются,
+     * чтобы идентификаторы были положительными и не пересекались с первым блоком Hibernate.
+     *
+     * @param count количество записей
+     * @return верхние границы блоков
+     */
+    private Long[] allocateIdBlocks(long count) {
+        long blocksNeeded = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blocks = new ArrayList<>();
+        while (blocks.size() < blocksNeeded) {
+            jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS_SQL, Long.class, blocksNeeded - blocks.size())
+                        .stream()
+                        .filter(hi -> hi >= ID_BLOCK_SIZE)
+                        .forEach(blocks::add);
+        }
+        return blocks.toArray(Long[]::new);
+    }
+
+    private void cancelQuietly(CopyIn copyIn) {
+        if (copyIn == null || !copyIn.isActive()) {
+            return;
+        }
+        try {
+            copyIn.cancelCopy();
+        } catch (SQLException e) {
+            log.warn("Не удалось отменить COPY", e);
+        }
+    }
+}
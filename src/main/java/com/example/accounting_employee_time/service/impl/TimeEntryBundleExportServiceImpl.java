@@ -0,0 +1,222 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.repository.EmployeeRepository;
+import com.example.accounting_employee_time.repository.TimeEntryRepository;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+import com.example.accounting_employee_time.service.ExportSnapshotService;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryBundleExportService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Реализация {@link TimeEntryBundleExportService}.
+ * Файл каждого сотрудника формируется в пуле {@code exportShardExecutor} в отдельной транзакции
+ * (закрытые месяцы — из снимков {@link ExportSnapshotService}) в байтовый буфер.
+ * Число файлов в обработке ограничено, готовые файлы забираются по порядку и сжимаются в архив
+ * в потоке запроса, пока остальные ещё формируются. Если все разрешения {@code exportShardPermits} заняты,
+ * файлы формируются по одному в потоке запроса.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryBundleExportServiceImpl implements TimeEntryBundleExportService {
+
+    /**
+     * Файлов в обработке на поток пула: пока архив сжимает один файл, следующие уже готовы.
+     */
+    private static final int ENTRIES_PER_WORKER = 2;
+
+    /**
+     * Символы, недопустимые в именах файлов Windows, и управляющие символы.
+     */
+    private static final Pattern UNSAFE_FILE_NAME_CHARS = Pattern.compile("[\\\\/:*?\"<>|\\p{Cntrl}]");
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final EmployeeRepository employeeRepository;
+    private final TimeEntryService timeEntryService;
+    private final FileProcessService fileProcessService;
+    private final ExportSnapshotService exportSnapshotService;
+    private final ExportProperties exportProperties;
+    private final ThreadPoolTaskExecutor exportShardExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final Semaphore exportShardPermits;
+
+    /**
+     * Определяет доступных сотрудников и их имена одним запросом.
+     * Имя файла — ID и имя сотрудника, например {@code 42_Иванов.csv}.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть null или пуст)
+     * @param startDate начальная дата (может быть null)
+     * @param endDate конечная дата (может быть null)
+     * @return состав архива
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Bundle prepare(EmployeeEntity actor, List<Long> employeeIds, LocalDate startDate, LocalDate endDate) {
+        Set<Long> accessibleEmployeeIds = new TreeSet<>(timeEntryService.resolveAccessibleEmployeeIds(actor, employeeIds));
+        Map<Long, String> names = employeeRepository.findAllById(accessibleEmployeeIds)
+                                                    .stream()
+                                                    .collect(Collectors.toMap(EmployeeEntity::getId,
+                                                            EmployeeEntity::getEmployeeName));
+
+        List<Entry> entries = new ArrayList<>(accessibleEmployeeIds.size());
+        for (Long employeeId : accessibleEmployeeIds) {
+            entries.add(new Entry(employeeId, fileName(employeeId, names.get(employeeId))));
+        }
+        return new Bundle(List.copyOf(entries),
+                startDate != null ? startDate : LocalDate.of(1970, 1, 1),
+                endDate != null ? endDate : LocalDate.now());
+    }
+
+    /**
+     * Записывает архив, формируя файлы сотрудников параллельно.
+     * В обработке одновременно не более {@code parallelism * 2} файлов, поэтому память ограничена
+     * несколькими файлами независимо от числа сотрудников.
+     * Вызывается вне транзакции: поток, ждущий файлы, не должен держать соединение с БД.
+     *
+     * @param bundle состав архива
+     * @param outputStream поток, в который записывается архив (не закрывается)
+     * @return общее количество экспортированных записей
+     */
+    @Override
+    public long writeZip(Bundle bundle, OutputStream outputStream) {
+        long startedAt = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        boolean parallel = exportShardPermits.tryAcquire();
+        int maxInFlight = parallel ? exportProperties.getParallelism() * ENTRIES_PER_WORKER : 1;
+        Deque<Future<RenderedEntry>> inFlight = new ArrayDeque<>(maxInFlight);
+        long exported = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        try {
+            int submitted = 0;
+            int written = 0;
+            List<Entry> entries = bundle.getEntries();
+            while (written < entries.size()) {
+                while (submitted < entries.size() && inFlight.size() < maxInFlight) {
+                    Long employeeId = entries.get(submitted++).getEmployeeId();
+                    Callable<RenderedEntry> task =
+                            () -> renderEntry(transaction, employeeId, bundle.getStart(), bundle.getEnd());
+                    inFlight.addLast(parallel ? exportShardExecutor.submit(task) : runInline(task));
+                }
+                RenderedEntry rendered = await(inFlight.removeFirst());
+                zip.putNextEntry(new ZipEntry(entries.get(written++).getFileName()));
+                zip.write(rendered.content);
+                zip.closeEntry();
+                exported += rendered.rows;
+            }
+            zip.finish();
+            zip.flush();
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании архива: " + e.getMessage(), e);
+        } finally {
+            // Клиент мог разорвать соединение: оставшиеся файлы не нужны
+            inFlight.forEach(future -> future.cancel(true));
+            if (parallel) {
+                exportShardPermits.release();
+            }
+        }
+
+        log.debug("Bundle export of {} employees completed: {} entries in {} ms",
+                bundle.getEntries().size(), exported, (System.nanoTime() - startedAt) / 1_000_000);
+        return exported;
+    }
+
+    /**
+     * Формирует CSV одного сотрудника в отдельной транзакции, как обычный экспорт в режиме STANDARD.
+     */
+    private RenderedEntry renderEntry(TransactionTemplate transaction, Long employeeId, LocalDate start, LocalDate end) {
+        Set<Long> employeeIds = Set.of(employeeId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Long rows = transaction.execute(status -> {
+            long assembled = exportSnapshotService.exportCsv(employeeIds, null, start, end, out);
+            if (assembled >= 0) {
+                return assembled;
+            }
+            try (Stream<TimeEntryExportRow> entries = timeEntryRepository.streamExportRows(employeeIds, start, end)) {
+                return fileProcessService.exportTimeEntriesWithHeader(entries, out);
+            }
+        });
+        return new RenderedEntry(out.toByteArray(), rows != null ? rows : 0);
+    }
+
+    private static <T> Future<T> runInline(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileParsingException("Экспорт прерван", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new FileParsingException("Ошибка при формировании архива: " + cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    private static String fileName(Long employeeId, String employeeName) {
+        if (employeeName == null || employeeName.isBlank()) {
+            return employeeId + ".csv";
+        }
+        return employeeId + "_" + UNSAFE_FILE_NAME_CHARS.matcher(employeeName.strip()).replaceAll("_") + ".csv";
+    }
+
+    /**
+     * Готовый файл сотрудника.
+     */
+    private static final class RenderedEntry {
+
+        private final byte[] content;
+        private final long rows;
+
+        private RenderedEntry(byte[] content, long rows) {
+            this.content = content;
+            this.rows = rows;
+        }
+    }
+}
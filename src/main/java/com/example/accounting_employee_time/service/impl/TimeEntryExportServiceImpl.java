@@ -0,0 +1,164 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.arrow.TimeEntryArrowColumns;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.repository.TimeEntryRepository;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+import com.example.accounting_employee_time.service.ExportCacheService;
+import com.example.accounting_employee_time.service.ExportCacheService.ExportFile;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.ExportSnapshotService;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryBulkExportService;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import com.example.accounting_employee_time.service.TimeEntryParallelExportService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Реализация {@link TimeEntryExportService}.
+ * Строки экспорта вместе с именами сотрудников читаются одним запросом однонаправленным курсором
+ * с заданным размером выборки (см. {@link TimeEntryRepository#streamExportRows}); сущности не создаются.
+ * Полные закрытые месяцы периода берутся из снимков {@link ExportSnapshotService}, если они готовы.
+ * Повторный экспорт с теми же сотрудниками, периодом, форматом и режимом отдаётся из {@link ExportCacheService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryExportServiceImpl implements TimeEntryExportService {
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final TimeEntryService timeEntryService;
+    private final FileProcessService fileProcessService;
+    private final TimeEntryBulkExportService bulkExportService;
+    private final TimeEntryParallelExportService parallelExportService;
+    private final ExportCacheService exportCacheService;
+    private final ExportSnapshotService exportSnapshotService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Доступные сотрудники определяются по индексу иерархии в памяти. Если сотрудники не указаны,
+     * экспортируется поддерево пользователя: запросы выбирают его подзапросом к таблице замыкания.
+     * Период по умолчанию — с 1970-01-01 по сегодня.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть null или пуст)
+     * @param startDate начальная дата (может быть null)
+     * @param endDate конечная дата (может быть null)
+     * @param format формат файла
+     * @param mode способ формирования CSV
+     * @return параметры экспорта
+     */
+    @Override
+    public Key prepare(EmployeeEntity actor,
+                       List<Long> employeeIds,
+                       LocalDate startDate,
+                       LocalDate endDate,
+                       FileExtension format,
+                       ExportMode mode) {
+        Set<Long> accessibleEmployeeIds = timeEntryService.resolveAccessibleEmployeeIds(actor, employeeIds);
+        Long subtreeRootId = employeeIds == null || employeeIds.isEmpty() ? actor.getId() : null;
+        LocalDate start = startDate != null ? startDate : LocalDate.of(1970, 1, 1);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        return new Key(accessibleEmployeeIds, subtreeRootId, start, end, format,
+                format == FileExtension.ARROW ? ExportMode.STANDARD : mode);
+    }
+
+    @Override
+    public ExportFile openCached(Key key) {
+        return exportCacheService.openCached(key);
+    }
+
+    @Override
+    public String versionEtag(Key key) {
+        return exportCacheService.versionEtag(key);
+    }
+
+    @Override
+    public ExportFile openOrRender(Key key) {
+        return exportCacheService.openOrRender(key, out -> generate(key, out));
+    }
+
+    @Override
+    public long export(Key key, OutputStream outputStream) {
+        return exportCacheService.export(key, outputStream, out -> generate(key, out));
+    }
+
+    /**
+     * Курсор PostgreSQL открыт только внутри транзакции, поэтому файл формируется в ней целиком.
+     * В режиме {@link ExportMode#COPY} файл формирует {@link TimeEntryBulkExportService} в своей транзакции,
+     * Arrow — {@link FileProcessService#exportArrowStream}.
+     * В режиме {@link ExportMode#PARALLEL} файл формирует {@link TimeEntryParallelExportService} вне транзакции:
+     * соединения нужны шардам, а не потоку, который их ждёт.
+     *
+     * @param key параметры экспорта
+     * @param out поток, в который записывается файл
+     * @return количество экспортированных записей
+     */
+    private long generate(Key key, OutputStream out) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        if (key.getFormat() == FileExtension.ARROW) {
+            return inTransaction(transaction, () -> exportArrowRows(key, out));
+        }
+        return switch (key.getMode()) {
+            case COPY -> key.getSubtreeRootId() != null
+                    ? bulkExportService.exportSubtreeCsv(key.getSubtreeRootId(), key.getStart(), key.getEnd(), out)
+                    : bulkExportService.exportCsv(key.getEmployeeIds(), key.getStart(), key.getEnd(), out);
+            case PARALLEL ->
+                    parallelExportService.exportCsv(key.getEmployeeIds(), key.getStart(), key.getEnd(), out);
+            case STANDARD -> inTransaction(transaction, () -> exportRows(key, out));
+        };
+    }
+
+    private static long inTransaction(TransactionTemplate transaction, LongSupplier export) {
+        Long exported = transaction.execute(status -> export.getAsLong());
+        return exported != null ? exported : 0;
+    }
+
+    private long exportArrowRows(Key key, OutputStream outputStream) {
+        try (Stream<TimeEntryExportRow> rows = streamRows(key)) {
+            long exported = fileProcessService.exportArrowStream(TimeEntryArrowColumns.COLUMNS, rows, outputStream);
+            log.debug("Arrow export of time entries completed, {} entries exported", exported);
+            return exported;
+        }
+    }
+
+    private long exportRows(Key key, OutputStream outputStream) {
+        long assembled = exportSnapshotService.exportCsv(key.getEmployeeIds(), key.getSubtreeRootId(),
+                key.getStart(), key.getEnd(), outputStream);
+        if (assembled >= 0) {
+            return assembled;
+        }
+
+        try (Stream<TimeEntryExportRow> rows = streamRows(key)) {
+
+            long exported = fileProcessService.exportTimeEntriesWithHeader(rows, outputStream);
+            log.debug("Exporting time entries completed, {} entries exported", exported);
+            return exported;
+        }
+    }
+
+    /**
+     * Строки экспорта по ключу: поддерево — подзапросом к таблице замыкания, явный список — по идентификаторам.
+     */
+    private Stream<TimeEntryExportRow> streamRows(Key key) {
+        if (key.getSubtreeRootId() != null) {
+            return timeEntryRepository.streamSubtreeExportRows(key.getSubtreeRootId(), key.getStart(), key.getEnd());
+        }
+        return timeEntryRepository.streamExportRows(key.getEmployeeIds(), key.getStart(), key.getEnd());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.dto.ImportRowError;
+import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.CsvTimeEntryParsingMapper;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.ParsedRow;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryBulkImportService;
+import com.example.accounting_employee_time.service.TimeEntryImportService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Реализация {@link TimeEntryImportService}.
+ * Файл разбирается потоково: каждая порция строк проверяется, преобразуется в DTO и сохраняется,
+ * после чего контекст персистентности очищается, чтобы память не росла с размером файла.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryImportServiceImpl implements TimeEntryImportService {
+
+    private final FileProcessService fileProcessService;
+    private final TimeEntryService timeEntryService;
+    private final TimeEntryBulkImportService bulkImportService;
+    private final CsvTimeEntryParsingMapper parsingMapper;
+    private final ImportProperties importProperties;
+    private final EntityManager entityManager;
+
+    /**
+     * Импортирует записи времени из CSV-файла порциями размера {@link ImportProperties#getChunkSize()}.
+     *
+     * @param file CSV-файл с записями времени
+     * @param actor сотрудник, выполняющий импорт
+     * @param mode способ сохранения записей
+     * @return отчёт об импорте
+     */
+    @Override
+    @Transactional
+    public ImportReport importFile(MultipartFile file, EmployeeEntity actor, ImportMode mode) {
+        ImportReport report = new ImportReport(importProperties.getMaxReportedErrors());
+        if (mode == ImportMode.COPY || importProperties.isParallelParse()) {
+            // COPY и параллельный парсинг работают с файлом на диске
+            Path spooled = fileProcessService.spoolFile(file, FileExtension.CSV);
+            try {
+                importFile(spooled, actor, report, mode);
+            } finally {
+                deleteQuietly(spooled);
+            }
+            return report;
+        }
+
+        importRows(chunkConsumer -> fileProcessService.parseFileWithHeader(
+                TimeEntryParsingData.class,
+                file,
+                FileExtension.CSV,
+                importProperties.getChunkSize(),
+                chunkConsumer
+        ), actor, report);
+        return report;
+    }
+
+    /**
+     * Импортирует записи времени из CSV-файла на диске порциями размера {@link ImportProperties#getChunkSize()}.
+     *
+     * В режиме {@link ImportMode#COPY} импорт выполняет {@link TimeEntryBulkImportService}.
+     *
+     * @param file путь к CSV-файлу
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт, заполняемый по мере обработки
+     * @param mode способ сохранения записей
+     */
+    @Override
+    @Transactional
+    public void importFile(Path file, EmployeeEntity actor, ImportReport report, ImportMode mode) {
+        if (mode == ImportMode.COPY) {
+            bulkImportService.importFile(file, actor, report);
+            return;
+        }
+        if (importProperties.isParallelParse()) {
+            importRows(chunkConsumer -> fileProcessService.parseFileWithHeaderParallel(
+                    TimeEntryParsingData.class,
+                    file,
+                    FileExtension.CSV,
+                    importProperties.getChunkSize(),
+                    chunkConsumer
+            ), actor, report);
+            return;
+        }
+
+        importRows(chunkConsumer -> fileProcessService.parseFileWithHeader(
+                TimeEntryParsingData.class,
+                file,
+                FileExtension.CSV,
+                importProperties.getChunkSize(),
+                chunkConsumer
+        ), actor, report);
+    }
+
+    /**
+     * Запускает разбор файла и сохраняет каждую полученную порцию строк.
+     *
+     * @param parser запуск разбора файла с заданным обработчиком порций
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт об импорте
+     */
+    private void importRows(Consumer<Consumer<List<ParsedRow<TimeEntryParsingData>>>> parser,
+                            EmployeeEntity actor,
+                            ImportReport report) {
+        log.debug("Importing time entries started, chunkSize={}", importProperties.getChunkSize());
+        long startedAt = System.nanoTime();
+
+        parser.accept(chunk -> importChunk(chunk, actor, report));
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("Импорт завершён: {} записей за {} мс ({} записей/с), отклонено {}",
+                report.getImported(), elapsedMillis, report.getImported() * 1000 / elapsedMillis, report.getRejected());
+    }
+
+    /**
+     * Преобразует и сохраняет одну порцию строк файла одной пакетной вставкой.
+     * Невалидные строки и дубликаты записываются в отчёт.
+     *
+     * @param chunk порция строк CSV
+     * @param actor сотрудник, выполняющий импорт
+     * @param report отчёт об импорте
+     */
+    private void importChunk(List<ParsedRow<TimeEntryParsingData>> chunk, EmployeeEntity actor, ImportReport report) {
+        report.addTotalRows(chunk.size());
+
+        List<ParsedRow<TimeEntryParsingData>> validRows = new ArrayList<>(chunk.size());
+        for (ParsedRow<TimeEntryParsingData> row : chunk) {
+            if (row.isValid()) {
+                validRows.add(row);
+            } else {
+                report.reject(toRowError(row, String.join("; ", row.getViolations())));
+            }
+        }
+
+        List<TimeEntryDTO> dtoList = validRows.stream()
+                                              .map(row -> parsingMapper.toDto(row.getData(), actor))
+                                              .toList();
+
+        // Сотрудники порции загружаются и проверяются на права один раз; может выбросить AccessDeniedException
+        Map<Integer, String> rejected = timeEntryService.createAll(dtoList, actor);
+        rejected.forEach((index, reason) -> report.reject(toRowError(validRows.get(index), reason)));
+        report.addImported(dtoList.size() - rejected.size());
+
+        // Отправляем накопленные изменения в БД и отпускаем сущности порции
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ImportRowError toRowError(ParsedRow<TimeEntryParsingData> row, String reason) {
+        return ImportRowError.builder()
+                             .rowNumber(row.getRowNumber())
+                             .employeeId(row.getData().getEmployeeId())
+                             .workDate(row.getData().getWorkDate())
+                             .reason(reason)
+                             .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryParallelExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Реализация {@link TimeEntryParallelExportService}.
+ * Шарды — непрерывные отрезки отсортированного списка сотрудников, поэтому склейка частей по порядку
+ * даёт тот же порядок строк (по сотруднику, затем по дате), что и один запрос.
+ * Каждый шард записывается во временный файл, так что память не зависит от размера шарда.
+ * Одновременно шарды раздают не больше {@code app.export.max-parallel-exports} экспортов (см. {@code exportShardPermits}),
+ * остальные читаются одним запросом в своём потоке.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeEntryParallelExportServiceImpl implements TimeEntryParallelExportService {
+
+    /**
+     * Шардов на поток: несколько мелких шардов выравнивают нагрузку, если у сотрудников разное число записей.
+     */
+    private static final int SHARDS_PER_WORKER = 4;
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final FileProcessService fileProcessService;
+    private final CsvCodecRegistry codecRegistry;
+    private final ExportProperties exportProperties;
+    private final ThreadPoolTaskExecutor exportShardExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final Semaphore exportShardPermits;
+
+    /**
+     * Экспортирует записи времени, читая шарды параллельно в пуле {@code exportShardExecutor}.
+     * Готовые шарды записываются в выходной поток по порядку, не дожидаясь окончания остальных.
+     * Вызывается вне транзакции: поток, ждущий шарды, не должен держать соединение с БД.
+     * Если свободного разрешения нет, записи читаются последовательно одной транзакцией.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param outputStream поток, в который записывается файл
+     * @return количество экспортированных записей
+     */
+    @Override
+    public long exportCsv(Set<Long> employeeIds, LocalDate start, LocalDate end, OutputStream outputStream) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        if (!exportShardPermits.tryAcquire()) {
+            log.debug("No free parallel export permit, exporting {} employees sequentially", employeeIds.size());
+            return exportSequentially(transaction, employeeIds, start, end, outputStream);
+        }
+        try {
+            return exportInShards(transaction, employeeIds, start, end, outputStream);
+        } finally {
+            exportShardPermits.release();
+        }
+    }
+
+    private long exportSequentially(TransactionTemplate transaction,
+                                    Set<Long> employeeIds,
+                                    LocalDate start,
+                                    LocalDate end,
+                                    OutputStream outputStream) {
+        Long rows = transaction.execute(status -> {
+            try (Stream<TimeEntryExportRow> entries = timeEntryRepository.streamExportRows(employeeIds, start, end)) {
+                return fileProcessService.exportTimeEntriesWithHeader(entries, outputStream);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private long exportInShards(TransactionTemplate transaction,
+                                Set<Long> employeeIds,
+                                LocalDate start,
+                                LocalDate end,
+                                OutputStream outputStream) {
+        long startedAt = System.nanoTime();
+        List<List<Long>> shards = partition(new ArrayList<>(new TreeSet<>(employeeIds)),
+                exportProperties.getParallelism() * SHARDS_PER_WORKER);
+        AtomicBoolean abandoned = new AtomicBoolean();
+
+        List<Future<Shard>> futures = new ArrayList<>(shards.size());
+        long exported = 0;
+        try {
+            for (List<Long> shardIds : shards) {
+                futures.add(exportShardExecutor.submit(() -> renderShard(transaction, shardIds, start, end, abandoned)));
+            }
+            for (Future<Shard> future : futures) {
+                Shard shard = await(future);
+                try {
+                    if (shard.rows > 0) {
+                        if (exported == 0) {
+                            outputStream.write(codecRegistry.header(TimeEntryParsingData.class, SEPARATOR));
+                        }
+                        Files.copy(shard.file, outputStream);
+                        exported += shard.rows;
+                    }
+                } finally {
+                    deleteQuietly(shard.file);
+                }
+            }
+        } catch (IOException e) {
+            throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+        } finally {
+            abandoned.set(true);
+            futures.forEach(this::discard);
+        }
+
+        log.debug("Parallel export of {} employees in {} shards completed: {} entries in {} ms",
+                employeeIds.size(), shards.size(), exported, (System.nanoTime() - startedAt) / 1_000_000);
+        return exported;
+    }
+
+    /**
+     * Читает шард в отдельной транзакции и сериализует его в CSV без заголовка во временный файл.
+     * Если экспорт уже прерван, файл удаляется.
+     */
+    private Shard renderShard(TransactionTemplate transaction,
+                              List<Long> employeeIds,
+                              LocalDate start,
+                              LocalDate end,
+                              AtomicBoolean abandoned) throws IOException {
+        Path file = Files.createTempFile("export-shard-", ".csv");
+        try {
+            Long rows = transaction.execute(status -> {
+                try (Stream<TimeEntryExportRow> entries = timeEntryRepository.streamExportRows(employeeIds, start, end);
+                     OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), FILE_BUFFER_SIZE)) {
+                    return fileProcessService.exportTimeEntriesWithoutHeader(entries, out);
+                } catch (IOException e) {
+                    throw new FileParsingException("Ошибка при формировании CSV: " + e.getMessage(), e);
+                }
+            });
+            if (abandoned.get()) {
+                deleteQuietly(file);
+            }
+            return new Shard(file, rows != null ? rows : 0);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Делит отсортированный список на не более чем maxShards непрерывных отрезков почти равной длины.
+     */
+    private static List<List<Long>> partition(List<Long> employeeIds, int maxShards) {
+        int shardCount = Math.max(1, Math.min(maxShards, employeeIds.size()));
+        List<List<Long>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int from = (int) ((long) employeeIds.size() * i / shardCount);
+            int to = (int) ((long) employeeIds.size() * (i + 1) / shardCount);
+            shards.add(employeeIds.subList(from, to));
+        }
+        return shards;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileParsingException("Экспорт прерван", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new FileParsingException("Ошибка при формировании CSV: " + cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    /**
+     * Отменяет шард; если он уже готов, удаляет его файл (для выведенных шардов это no-op).
+     */
+    private void discard(Future<Shard> future) {
+        if (future.cancel(true) || !future.isDone()) {
+            return;
+        }
+        try {
+            deleteQuietly(future.get().file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ignored) {
+            // шард завершился ошибкой и уже удалил свой файл
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}", file, e);
+        }
+    }
+
+    /**
+     * Часть экспорта, записанная во временный файл.
+     */
+    private static final class Shard {
+
+        private final Path file;
+        private final long rows;
+
+        private Shard(Path file, long rows) {
+            this.file = file;
+            this.rows = rows;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.accounting_employee_time.service.impl;
 import com.example.accounting_employee_time.dto.TimeEntryDTO;
 import com.example.accounting_employee_time.entity.EmployeeEntity;
 import com.example.accounting_employee_time.entity.TimeEntryEntity;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
 import com.example.accounting_employee_time.mapper.TimeEntryMapper;
 import com.example.accounting_employee_time.repository.EmployeeRepository;
 import com.example.accounting_employee_time.repository.TimeEntryRepository;
@@ -10,9 +11,11 @@ import com.example.accounting_employee_time.service.EmployeeService;
 import com.example.accounting_employee_time.service.TimeEntryService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -29,6 +32,7 @@ public class TimeEntryServiceImpl implements TimeEntryService {
     private final EmployeeRepository employeeRepository;
     private final EmployeeService employeeService;
     private final TimeEntryMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Создаёт новую запись времени для сотрудника, если пользователь имеет права.
@@ -62,6 +66,110 @@ public class TimeEntryServiceImpl implements TimeEntryService {
         entity.setEmployee(target);
         entity.setCreatedBy(actor);
         timeEntryRepository.save(entity);
+        eventPublisher.publishEvent(TimeEntryChangedEvent.of(target.getId(), entity.getWorkDate()));
+    }
+
+    /**
+     * Создаёт пакет записей времени от имени пользователя.
+     * Все сотрудники пакета загружаются одним запросом и проверяются на права один раз,
+     * существующие записи для всего пакета также находятся одним запросом.
+     * Новые записи сохраняются через {@code saveAll} и уходят в БД пакетными INSERT
+     * (см. {@code hibernate.jdbc.batch_size}), а идентификаторы выделяются блоками из последовательности.
+     *
+     * @param dtos DTO записей времени
+     * @param actor пользователь, создающий записи
+     * @return причины отклонения по индексу записи в dtos
+     * @throws AccessDeniedException если у пользователя нет прав на создание какой-либо записи
+     */
+    @Transactional
+    public Map<Integer, String> createAll(List<TimeEntryDTO> dtos, EmployeeEntity actor) {
+        Map<Integer, String> rejected = new LinkedHashMap<>();
+        if (dtos.isEmpty()) {
+            return rejected;
+        }
+
+        Set<Long> employeeIds = new HashSet<>();
+        dtos.forEach(dto -> employeeIds.add(dto.getEmployee().getId()));
+        Map<Long, EmployeeEntity> targets = employeeService.findAllByIds(employeeIds);
+
+        Set<Long> editableIds = employeeService.filterEditableIds(actor, targets.keySet());
+        for (EmployeeEntity target : targets.values()) {
+            if (!editableIds.contains(target.getId())) {
+                throw new AccessDeniedException("Нет прав на создание записи за " + target.getEmployeeName());
+            }
+        }
+
+        // Ключи уже занятых пар (сотрудник, дата); новые ключи пакета добавляются сюда же,
+        // чтобы отсечь повторы внутри пакета
+        Set<String> takenKeys = findExistingEntryKeys(dtos);
+
+        List<TimeEntryEntity> entities = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            TimeEntryDTO dto = dtos.get(i);
+            EmployeeEntity target = targets.get(dto.getEmployee().getId());
+
+            if (target == null) {
+                rejected.put(i, "Сотрудник с id=" + dto.getEmployee().getId() + " не найден");
+                continue;
+            }
+            if (!takenKeys.add(entryKey(target.getId(), dto.getWorkDate()))) {
+                rejected.put(i, "Запись за " + dto.getWorkDate() + " уже существует для сотрудника " + target.getEmployeeName());
+                continue;
+            }
+
+            TimeEntryEntity entity = mapper.toEntity(dto);
+            entity.setEmployee(target);
+            entity.setCreatedBy(actor);
+            entities.add(entity);
+        }
+
+        timeEntryRepository.saveAll(entities);
+        publishChanged(entities);
+        return rejected;
+    }
+
+    /**
+     * Находит одним запросом уже существующие записи для пар (сотрудник, дата) пакета.
+     *
+     * @param dtos DTO записей пакета
+     * @return ключи существующих пар (сотрудник, дата)
+     */
+    private Set<String> findExistingEntryKeys(List<TimeEntryDTO> dtos) {
+        Long[] employeeIds = new Long[dtos.size()];
+        LocalDate[] workDates = new LocalDate[dtos.size()];
+        for (int i = 0; i < dtos.size(); i++) {
+            employeeIds[i] = dtos.get(i).getEmployee().getId();
+            workDates[i] = dtos.get(i).getWorkDate();
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (TimeEntryRepository.EmployeeWorkDate existing : timeEntryRepository.findExistingWorkDates(employeeIds, workDates)) {
+            keys.add(entryKey(existing.getEmployeeId(), existing.getWorkDate()));
+        }
+        return keys;
+    }
+
+    /**
+     * Публикует по одному событию изменения на сотрудника пакета с периодом от первой до последней даты его записей.
+     *
+     * @param entities сохранённые записи пакета
+     */
+    private void publishChanged(List<TimeEntryEntity> entities) {
+        Map<Long, LocalDate[]> ranges = new HashMap<>();
+        for (TimeEntryEntity entity : entities) {
+            LocalDate workDate = entity.getWorkDate();
+            ranges.merge(entity.getEmployee().getId(), new LocalDate[]{workDate, workDate}, (range, date) -> {
+                if (date[0].isBefore(range[0])) range[0] = date[0];
+                if (date[1].isAfter(range[1])) range[1] = date[1];
+                return range;
+            });
+        }
+        ranges.forEach((employeeId, range) ->
+                eventPublisher.publishEvent(new TimeEntryChangedEvent(employeeId, range[0], range[1])));
+    }
+
+    private static String entryKey(Long employeeId, LocalDate workDate) {
+        return employeeId + ":" + workDate;
     }
 
     /**
@@ -86,9 +194,15 @@ public class TimeEntryServiceImpl implements TimeEntryService {
             throw new AccessDeniedException("Нет доступа на обновление записи");
         }
 
+        LocalDate previousDate = entity.getWorkDate();
         entity.setWorkDate(dto.getWorkDate());
         entity.setWorkedMinutes(mapper.toMinutes(dto.getHoursWorked()));
         timeEntryRepository.save(entity);
+
+        eventPublisher.publishEvent(TimeEntryChangedEvent.of(entity.getEmployee().getId(), previousDate));
+        if (!previousDate.equals(entity.getWorkDate())) {
+            eventPublisher.publishEvent(TimeEntryChangedEvent.of(entity.getEmployee().getId(), entity.getWorkDate()));
+        }
     }
 
     /**
@@ -113,6 +227,7 @@ public class TimeEntryServiceImpl implements TimeEntryService {
         }
 
         timeEntryRepository.delete(entity);
+        eventPublisher.publishEvent(TimeEntryChangedEvent.of(entity.getEmployee().getId(), entity.getWorkDate()));
     }
 
     /**
@@ -170,7 +285,8 @@ public class TimeEntryServiceImpl implements TimeEntryService {
     /**
      * Получает все записи времени, доступные для просмотра текущему пользователю,
      * с возможностью фильтрации по списку сотрудников и диапазону дат.
-     * Если список сотрудников не указан, возвращаются записи текущего пользователя и всех его подчинённых.
+     * Если список сотрудников не указан, возвращаются записи текущего пользователя и всех его подчинённых:
+     * поддерево подставляется в запрос записей подзапросом, без загрузки идентификаторов подчинённых.
      *
      * @param actor текущий пользователь
      * @param employeeIds список ID сотрудников (может быть null или пуст)
@@ -183,36 +299,46 @@ public class TimeEntryServiceImpl implements TimeEntryService {
                                                LocalDate startDate,
                                                LocalDate endDate) {
 
-        Set<Long> accessibleEmployeeIds = new HashSet<>();
-        accessibleEmployeeIds.add(actor.getId());
+        LocalDate start = startDate != null ? startDate : LocalDate.of(1970, 1, 1);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
 
         if (employeeIds == null || employeeIds.isEmpty()) {
-            List<EmployeeEntity> subordinates = employeeService.getAllSubordinatesRecursive(actor);
-            accessibleEmployeeIds.addAll(subordinates.stream()
-                                                     .map(EmployeeEntity::getId)
-                                                     .toList());
-        } else {
-            for (Long targetId : employeeIds) {
-                EmployeeEntity target = employeeService.getReferenceById(targetId);
-                if (target != null && (target.getId().equals(actor.getId()) || employeeService.isSuperior(actor, target))) {
-                    accessibleEmployeeIds.add(targetId);
-                }
-            }
+            return timeEntryRepository.findBySubtreeAndWorkDateBetween(actor.getId(), start, end)
+                                      .stream()
+                                      .map(mapper::toDTO)
+                                      .toList();
         }
 
+        Set<Long> accessibleEmployeeIds = resolveAccessibleEmployeeIds(actor, employeeIds);
+
         if (accessibleEmployeeIds.isEmpty()) {
             return Collections.emptyList();
         }
 
         List<TimeEntryEntity> entries = timeEntryRepository
-                .findByEmployeeIdInAndWorkDateBetween(
-                        new ArrayList<>(accessibleEmployeeIds),
-                        startDate != null ? startDate : LocalDate.of(1970, 1, 1),
-                        endDate != null ? endDate : LocalDate.now()
-                );
+                .findByEmployeeIdInAndWorkDateBetween(new ArrayList<>(accessibleEmployeeIds), start, end);
 
         return entries.stream()
                       .map(mapper::toDTO)
                       .toList();
     }
+
+    /**
+     * Определяет сотрудников, записи которых доступны текущему пользователю.
+     *
+     * @param actor текущий пользователь
+     * @param employeeIds список ID сотрудников (может быть null или пуст)
+     * @return ID доступных сотрудников, включая самого пользователя
+     */
+    public Set<Long> resolveAccessibleEmployeeIds(EmployeeEntity actor, List<Long> employeeIds) {
+        Set<Long> accessibleEmployeeIds = new HashSet<>();
+        accessibleEmployeeIds.add(actor.getId());
+
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            accessibleEmployeeIds.addAll(employeeService.getAllSubordinateIds(actor));
+        } else {
+            accessibleEmployeeIds.addAll(employeeService.filterAccessibleIds(actor, employeeIds));
+        }
+        return accessibleEmployeeIds;
+    }
 }
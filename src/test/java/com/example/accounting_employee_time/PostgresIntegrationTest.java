@@ -0,0 +1,147 @@
+package com.example.accounting_employee_time;
+
+import com.example.accounting_employee_time.entity.DepartmentEntity;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.entity.Position;
+import com.example.accounting_employee_time.repository.DepartmentRepository;
+import com.example.accounting_employee_time.security.Role;
+import com.example.accounting_employee_time.service.EmployeeService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Основа интеграционных тестов: полный контекст приложения на встроенном PostgreSQL.
+ * Сервер запускается один раз на все тесты, схема создаётся миграциями Liquibase, как в работе.
+ * Контекст общий для всех наследников, поэтому тесты создают собственных сотрудников и не рассчитывают на пустую БД.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Счётчики Hibernate; включены в профиле {@code test}.
+     *
+     * @return статистика фабрики сессий
+     */
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Создаёт сотрудника отдела Development с ролью USER через {@link EmployeeService#create},
+     * так что он сразу попадает в таблицу замыкания и индекс иерархии.
+     *
+     * @param name имя сотрудника (уникальное в пределах общего контекста)
+     * @param chief начальник или null
+     * @return сохранённый сотрудник
+     */
+    protected EmployeeEntity createEmployee(String name, EmployeeEntity chief) {
+        DepartmentEntity department = departmentRepository.findByName("Development").orElseThrow();
+        return employeeService.create(EmployeeEntity.builder()
+                                                    .employeeName(name)
+                                                    .password("password")
+                                                    .position(Position.DEVELOPER)
+                                                    .department(department)
+                                                    .role(Role.USER)
+                                                    .chief(chief)
+                                                    .build());
+    }
+
+    /**
+     * Добавляет записи времени одним запросом в обход сервисов, так что события изменения записей не публикуются.
+     *
+     * @param employee сотрудник
+     * @param createdBy создатель записей
+     * @param start дата первой записи
+     * @param days число записей, по одной на день начиная со start
+     * @param workedMinutes минуты по дням; если дней больше, значения повторяются по кругу
+     */
+    protected void insertEntries(EmployeeEntity employee, EmployeeEntity createdBy, LocalDate start, int days,
+                                 int... workedMinutes) {
+        insertEntries(jdbcTemplate, employee.getId(), createdBy.getId(), start, days, workedMinutes);
+    }
+
+    /**
+     * То же, что {@link #insertEntries(EmployeeEntity, EmployeeEntity, LocalDate, int, int...)}, для кода
+     * вне наследников, например замеров JMH.
+     *
+     * @param jdbcTemplate JdbcTemplate контекста
+     * @param employeeId идентификатор сотрудника
+     * @param createdById идентификатор создателя записей
+     * @param start дата первой записи
+     * @param days число записей, по одной на день начиная со start
+     * @param workedMinutes минуты по дням; если дней больше, значения повторяются по кругу
+     */
+    public static void insertEntries(JdbcTemplate jdbcTemplate, Long employeeId, Long createdById, LocalDate start,
+                                     int days, int... workedMinutes) {
+        if (workedMinutes.length == 0) {
+            throw new IllegalArgumentException("Не заданы минуты записей");
+        }
+        Integer[] minutes = Arrays.stream(workedMinutes).boxed().toArray(Integer[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO time_entries (id, work_date, worked_minutes, employee_id, created_by_id, created_at)
+                    SELECT nextval('time_entry_seq'), ?::date + g, (?::int[])[g % ? + 1], ?, ?, now()
+                    FROM generate_series(0, ? - 1) AS g
+                    """);
+            statement.setObject(1, start);
+            statement.setArray(2, connection.createArrayOf("integer", minutes));
+            statement.setInt(3, minutes.length);
+            statement.setLong(4, employeeId);
+            statement.setLong(5, createdById);
+            statement.setInt(6, days);
+            return statement;
+        });
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // сервер останавливается вместе с JVM
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить встроенный PostgreSQL", e);
+        }
+    }
+}
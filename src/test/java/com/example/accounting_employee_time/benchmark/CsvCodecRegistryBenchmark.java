@@ -0,0 +1,125 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.CustomBigDecimalSerializer;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы одного запроса импорта или экспорта небольшого файла ({@link #ROWS} строк):
+ * кодеки, построенные заново на запрос (CsvMapper, модули, схема — как до {@link CsvCodecRegistry}),
+ * против готовых кодеков реестра. Разбор и запись самих строк одинаковы в обоих вариантах.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvCodecRegistryBenchmark {
+
+    private static final int ROWS = 5;
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+    private static final char DECIMAL_SEPARATOR = '.';
+
+    private CsvCodecRegistry registry;
+    private List<TimeEntryParsingData> rows;
+    private byte[] csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        registry = new CsvCodecRegistry(new ImportProperties());
+        registry.warmUp();
+
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            TimeEntryParsingData row = new TimeEntryParsingData();
+            row.setWorkDate(LocalDate.of(2024, 1, 1).plusDays(i));
+            row.setHoursWorked(new BigDecimal("8.00"));
+            row.setEmployeeId(10L + i);
+            row.setEmployeeName("employee-" + i);
+            row.setCreatedById(1L);
+            row.setCreatedByName("admin");
+            rows.add(row);
+        }
+        csv = write(registry.writer(TimeEntryParsingData.class, true, SEPARATOR));
+    }
+
+    @Benchmark
+    public List<TimeEntryParsingData> parsePerRequestCodec() throws IOException {
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        CsvSchema schema = csvMapper.schemaFor(TimeEntryParsingData.class)
+                                    .withUseHeader(true)
+                                    .withColumnSeparator(SEPARATOR.getSeparator());
+        return read(csvMapper.readerFor(TimeEntryParsingData.class).with(schema));
+    }
+
+    @Benchmark
+    public List<TimeEntryParsingData> parseRegistryCodec() throws IOException {
+        return read(registry.reader(TimeEntryParsingData.class, true, SEPARATOR));
+    }
+
+    @Benchmark
+    public byte[] exportPerRequestCodec() throws IOException {
+        CsvMapper csvMapper = CsvMapper.csvBuilder().build();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(BigDecimal.class, new CustomBigDecimalSerializer(DECIMAL_SEPARATOR));
+        csvMapper.registerModule(module);
+        CsvSchema schema = csvMapper.schemaFor(TimeEntryParsingData.class)
+                                    .withUseHeader(true)
+                                    .withColumnSeparator(SEPARATOR.getSeparator());
+        return write(csvMapper.writerFor(TimeEntryParsingData.class).with(schema));
+    }
+
+    @Benchmark
+    public byte[] exportRegistryCodec() throws IOException {
+        return write(registry.writer(TimeEntryParsingData.class, true, SEPARATOR));
+    }
+
+    private List<TimeEntryParsingData> read(ObjectReader reader) throws IOException {
+        try (MappingIterator<TimeEntryParsingData> iterator = reader.readValues(csv)) {
+            return iterator.readAll();
+        }
+    }
+
+    private byte[] write(ObjectWriter writer) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+            sequenceWriter.writeAll(rows);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.AccountingEmployeeTimeApplication;
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.entity.DepartmentEntity;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.entity.Position;
+import com.example.accounting_employee_time.repository.DepartmentRepository;
+import com.example.accounting_employee_time.security.Role;
+import com.example.accounting_employee_time.service.EmployeeService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * Контекст приложения для замеров JMH: встроенный PostgreSQL и профиль {@code test}, как в
+ * {@link com.example.accounting_employee_time.PostgresIntegrationTest}, но без веб-сервера.
+ * Создаётся в {@code @Setup(Level.Trial)} и закрывается в {@code @TearDown(Level.Trial)}.
+ */
+public final class PostgresBenchmarkContext implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private PostgresBenchmarkContext(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    /**
+     * Запускает PostgreSQL и контекст приложения; схема создаётся миграциями Liquibase.
+     *
+     * @return запущенный контекст
+     */
+    public static PostgresBenchmarkContext start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(AccountingEmployeeTimeApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .properties("spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                            "spring.datasource.username=postgres",
+                            "spring.datasource.password=postgres")
+                    .run();
+            return new PostgresBenchmarkContext(postgres, context);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить встроенный PostgreSQL", e);
+        }
+    }
+
+    /**
+     * @param type тип бина
+     * @return бин контекста
+     */
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Создаёт сотрудника отдела Development с ролью USER через {@link EmployeeService#create}.
+     *
+     * @param name имя сотрудника
+     * @param chief начальник или null
+     * @return сохранённый сотрудник
+     */
+    public EmployeeEntity createEmployee(String name, EmployeeEntity chief) {
+        DepartmentEntity department = bean(DepartmentRepository.class).findByName("Development").orElseThrow();
+        return bean(EmployeeService.class).create(EmployeeEntity.builder()
+                                                                .employeeName(name)
+                                                                .password("password")
+                                                                .position(Position.DEVELOPER)
+                                                                .department(department)
+                                                                .role(Role.USER)
+                                                                .chief(chief)
+                                                                .build());
+    }
+
+    /**
+     * Добавляет записи времени одним запросом, как {@link PostgresIntegrationTest#insertEntries}.
+     *
+     * @param employee сотрудник
+     * @param createdBy создатель записей
+     * @param start дата первой записи
+     * @param days число записей, по одной на день начиная со start
+     * @param workedMinutes минуты по дням; если дней больше, значения повторяются по кругу
+     */
+    public void insertEntries(EmployeeEntity employee, EmployeeEntity createdBy, LocalDate start, int days,
+                              int... workedMinutes) {
+        PostgresIntegrationTest.insertEntries(bean(JdbcTemplate.class), employee.getId(), createdBy.getId(), start,
+                days, workedMinutes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            postgres.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.dto.EmployeeDTO;
+import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость сохранения записей времени при импорте, строк в секунду: по одной записи через
+ * {@link TimeEntryService#create} (проверки и INSERT на каждую строку, как до пакетной вставки)
+ * и пакетом через {@link TimeEntryService#createAll} (пакетные INSERT и блоки идентификаторов).
+ * Каждый вызов сохраняет {@link #ROWS} записей на новые даты; записи удаляются после каждой итерации,
+ * чтобы таблица не росла от итерации к итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TimeEntryCreateBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+    private PostgresBenchmarkContext context;
+    private TimeEntryService timeEntryService;
+    private JdbcTemplate jdbcTemplate;
+    private EmployeeEntity employee;
+    private List<TimeEntryDTO> entries;
+    private int nextDay;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = PostgresBenchmarkContext.start();
+        timeEntryService = context.bean(TimeEntryService.class);
+        jdbcTemplate = context.bean(JdbcTemplate.class);
+        employee = context.createEmployee("benchmark-create", null);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextEntries() {
+        EmployeeDTO target = EmployeeDTO.builder()
+                                        .id(employee.getId())
+                                        .build();
+        entries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            entries.add(TimeEntryDTO.builder()
+                                    .workDate(START.plusDays(nextDay++))
+                                    .hoursWorked(BigDecimal.valueOf(8))
+                                    .employee(target)
+                                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteEntries() {
+        jdbcTemplate.update("DELETE FROM time_entries WHERE employee_id = ?", employee.getId());
+        nextDay = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void rowByRow() {
+        for (TimeEntryDTO entry : entries) {
+            timeEntryService.create(entry, employee.getEmployeeName());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Map<Integer, String> batched() {
+        return timeEntryService.createAll(entries, employee);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Время полного экспорта CSV поддерева руководителя на {@link #rows} записях: STANDARD (курсор и
+ * {@code TimeEntryCsvWriter}) против COPY (CSV формирует PostgreSQL), и для сравнения PARALLEL.
+ * Файл пишется в поток, который отбрасывает байты, поэтому замер включает только чтение из БД и формирование CSV.
+ * Кэш и снимки выключены профилем {@code test}, каждый экспорт формируется заново.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimeEntryCsvExportBenchmark {
+
+    private static final int EMPLOYEES = 100;
+    private static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"STANDARD", "COPY", "PARALLEL"})
+    public ExportMode mode;
+
+    private PostgresBenchmarkContext context;
+    private TimeEntryExportService timeEntryExportService;
+    private Key key;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = PostgresBenchmarkContext.start();
+        timeEntryExportService = context.bean(TimeEntryExportService.class);
+
+        EmployeeEntity manager = context.createEmployee("benchmark-export-manager", null);
+        int[] workedMinutes = IntStream.range(420, 540).toArray();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            EmployeeEntity employee = context.createEmployee("benchmark-export-" + i, manager);
+            context.insertEntries(employee, manager, START, rows / EMPLOYEES, workedMinutes);
+        }
+        context.bean(JdbcTemplate.class).execute("ANALYZE time_entries");
+
+        key = timeEntryExportService.prepare(manager, null, START, START.plusDays(rows / EMPLOYEES + 1),
+                FileExtension.CSV, mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() {
+        return timeEntryExportService.export(key, OutputStream.nullOutputStream());
+    }
+}
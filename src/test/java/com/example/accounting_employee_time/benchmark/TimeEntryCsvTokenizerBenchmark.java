@@ -0,0 +1,138 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.configuration.ImportProperties;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.CsvRecordDecoder;
+import com.example.accounting_employee_time.parseCSV.CsvRecordScanner;
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Разбор {@link #ROWS} записей импорта без заголовка: {@link CsvRecordDecoder} реестра
+ * ({@code TimeEntryCsvTokenizer}) против ObjectReader Jackson из того же реестра. Результат — время на запись.
+ * С emptyCreatedBy у каждой третьей записи пустые ID и имя создателя.
+ * Перед замером проверяется, что оба пути дают одинаковые объекты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeEntryCsvTokenizerBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+
+    @Param({"false", "true"})
+    private boolean emptyCreatedBy;
+
+    private CsvRecordDecoder<TimeEntryParsingData> decoder;
+    private ObjectReader jacksonReader;
+    private byte[] csv;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        CsvCodecRegistry registry = new CsvCodecRegistry(new ImportProperties());
+        decoder = registry.recordDecoder(TimeEntryParsingData.class, SEPARATOR);
+        jacksonReader = registry.reader(TimeEntryParsingData.class, false, SEPARATOR);
+
+        List<String> columns = registry.columnNames(TimeEntryParsingData.class);
+        StringBuilder content = new StringBuilder(ROWS * 64);
+        for (int i = 0; i < ROWS; i++) {
+            boolean noCreator = emptyCreatedBy && i % 3 == 0;
+            for (int column = 0; column < columns.size(); column++) {
+                if (column > 0) {
+                    content.append(SEPARATOR.getSeparator());
+                }
+                Object value = switch (columns.get(column)) {
+                    case TimeEntryParsingData.WORK_DATE_COLUMN -> LocalDate.of(2024, 1, 1).plusDays(i % 365);
+                    case TimeEntryParsingData.HOURS_WORKED_COLUMN -> (7 + i % 3) + ".25";
+                    case TimeEntryParsingData.EMPLOYEE_ID_COLUMN -> Integer.toString(i % 500 + 1);
+                    case TimeEntryParsingData.EMPLOYEE_NAME_COLUMN -> "employee-" + i % 500;
+                    case TimeEntryParsingData.CREATED_BY_ID_COLUMN -> noCreator ? "" : "1";
+                    case TimeEntryParsingData.CREATED_BY_NAME_COLUMN -> noCreator ? "" : "admin";
+                    default -> throw new IllegalStateException("Неизвестная колонка: " + columns.get(column));
+                };
+                content.append(value);
+            }
+            content.append('\n');
+        }
+        csv = content.toString().getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.allocateDirect(csv.length).put(csv).flip();
+
+        List<TimeEntryParsingData> tokenized = new ArrayList<>(ROWS);
+        List<TimeEntryParsingData> jackson = new ArrayList<>(ROWS);
+        decode(tokenized::add);
+        read(jackson::add);
+        if (tokenized.size() != ROWS || !tokenized.equals(jackson)) {
+            throw new IllegalStateException("TimeEntryCsvTokenizer и Jackson разобрали записи по-разному");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseTokenizer(Blackhole blackhole) {
+        decode(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseJackson(Blackhole blackhole) throws IOException {
+        read(blackhole::consume);
+    }
+
+    /**
+     * Делит буфер на записи так же, как разбор диапазона в FileProcessServiceImpl, и разбирает каждую.
+     */
+    private void decode(Consumer<TimeEntryParsingData> consumer) {
+        CsvRecordScanner scanner = new CsvRecordScanner(SEPARATOR);
+        int limit = buffer.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && !scanner.endsRecord(buffer.get(end))) {
+                end++;
+            }
+            TimeEntryParsingData data = decoder.decode(buffer, start, end);
+            if (data == null) {
+                throw new IllegalStateException("Запись не разобрана: с " + start + " по " + end);
+            }
+            consumer.accept(data);
+            start = end + 1;
+        }
+    }
+
+    private void read(Consumer<TimeEntryParsingData> consumer) throws IOException {
+        try (MappingIterator<TimeEntryParsingData> iterator = jacksonReader.readValues(csv)) {
+            while (iterator.hasNextValue()) {
+                consumer.accept(iterator.nextValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.accounting_employee_time.benchmark;
+
+import com.example.accounting_employee_time.parseCSV.CsvSeparator;
+import com.example.accounting_employee_time.parseCSV.CustomBigDecimalSerializer;
+import com.example.accounting_employee_time.parseCSV.TimeEntryCsvWriter;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.repository.TimeEntryRepository.TimeEntryExportRow;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись {@link #ROWS} строк экспорта в CSV: {@link TimeEntryCsvWriter} против прежнего пути через Jackson —
+ * преобразование строки в {@link TimeEntryParsingData} с часами в BigDecimal (как {@code TimeEntryMapper#toHours})
+ * и сериализация с {@link CustomBigDecimalSerializer}. Сравнивается для обоих разделителей дробной части.
+ * Перед замером проверяется, что оба пути дают одинаковые байты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeEntryCsvWriterBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final CsvSeparator SEPARATOR = CsvSeparator.SEMICOLON;
+    private static final BigDecimal MINUTES_PER_HOUR = BigDecimal.valueOf(60);
+
+    @Param({".", ","})
+    private String decimalSeparator;
+
+    private List<TimeEntryExportRow> rows;
+    private List<String> columnNames;
+    private ObjectWriter jacksonWriter;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setUp() throws IOException {
+        CsvMapper csvMapper = CsvMapper.csvBuilder().build();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(BigDecimal.class, new CustomBigDecimalSerializer(decimalSeparator.charAt(0)));
+        csvMapper.registerModule(module);
+        CsvSchema schema = csvMapper.schemaFor(TimeEntryParsingData.class)
+                                    .withoutHeader()
+                                    .withColumnSeparator(SEPARATOR.getSeparator());
+        jacksonWriter = csvMapper.writerFor(TimeEntryParsingData.class).with(schema);
+
+        columnNames = new ArrayList<>();
+        for (CsvSchema.Column column : schema) {
+            columnNames.add(column.getName());
+        }
+
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Row((long) (i % 500 + 1), "employee-" + i % 500, 1L, "admin",
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), 420 + i % 121));
+        }
+        outputStream = new ByteArrayOutputStream(ROWS * 64);
+
+        writeJackson();
+        byte[] jackson = outputStream.toByteArray();
+        writeTimeEntryCsvWriter();
+        if (!Arrays.equals(jackson, outputStream.toByteArray())) {
+            throw new IllegalStateException("TimeEntryCsvWriter и Jackson записали разные байты");
+        }
+    }
+
+    @Benchmark
+    public int writeJackson() throws IOException {
+        outputStream.reset();
+        try (SequenceWriter sequenceWriter = jacksonWriter.writeValues(outputStream)) {
+            for (TimeEntryExportRow row : rows) {
+                sequenceWriter.write(toParsingData(row));
+            }
+        }
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public int writeTimeEntryCsvWriter() throws IOException {
+        outputStream.reset();
+        TimeEntryCsvWriter writer = new TimeEntryCsvWriter(outputStream, columnNames, SEPARATOR,
+                decimalSeparator.charAt(0));
+        for (TimeEntryExportRow row : rows) {
+            writer.write(row);
+        }
+        writer.flush();
+        return outputStream.size();
+    }
+
+    private static TimeEntryParsingData toParsingData(TimeEntryExportRow row) {
+        TimeEntryParsingData data = new TimeEntryParsingData();
+        data.setWorkDate(row.getWorkDate());
+        data.setHoursWorked(BigDecimal.valueOf(row.getWorkedMinutes()).divide(MINUTES_PER_HOUR, 2, RoundingMode.HALF_UP));
+        data.setEmployeeId(row.getEmployeeId());
+        data.setEmployeeName(row.getEmployeeName());
+        data.setCreatedById(row.getCreatedById());
+        data.setCreatedByName(row.getCreatedByName());
+        return data;
+    }
+
+    private record Row(Long employeeId,
+                       String employeeName,
+                       Long createdById,
+                       String createdByName,
+                       LocalDate workDate,
+                       Integer workedMinutes) implements TimeEntryExportRow {
+
+        @Override
+        public Long getEmployeeId() {
+            return employeeId;
+        }
+
+        @Override
+        public String getEmployeeName() {
+            return employeeName;
+        }
+
+        @Override
+        public Long getCreatedById() {
+            return createdById;
+        }
+
+        @Override
+        public String getCreatedByName() {
+            return createdByName;
+        }
+
+        @Override
+        public LocalDate getWorkDate() {
+            return workDate;
+        }
+
+        @Override
+        public Integer getWorkedMinutes() {
+            return workedMinutes;
+        }
+    }
+}
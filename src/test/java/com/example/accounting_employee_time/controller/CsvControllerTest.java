@@ -0,0 +1,135 @@
+package com.example.accounting_employee_time.controller;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Докачка экспорта, которого нет в кэше (в профиле {@code test} кэш выключен). Обычный запрос отдаётся потоком
+ * со слабым ETag, а копия хранится как файл докачки: запрос с Range получает из неё 206 с сильным ETag.
+ * Если файла ещё нет, запрос с Range сразу получает ответ, а файл формируется уже в его теле,
+ * которое и выставляет статус 206 и заголовки. Ответ собирается так же, как Spring MVC отдаёт
+ * {@link StreamingResponseBody}: статус и заголовки ResponseEntity, затем тело.
+ */
+class CsvControllerTest extends PostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2022, 2, 1);
+    private static final int DAYS = 20;
+    private static final int OFFSET = 100;
+
+    @Autowired
+    private CsvController csvController;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rangeRequestWithoutFileRendersItInResponseBody() throws IOException {
+        loginWithEntries("resume-render-employee");
+
+        MockHttpServletResponse resumed = new MockHttpServletResponse();
+        ResponseEntity<StreamingResponseBody> ranged = export(rangeHeaders(null), resumed);
+        assertThat(ranged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ranged.getHeaders().getETag()).isNull();
+        send(ranged, resumed);
+
+        MockHttpServletResponse full = send(new HttpHeaders());
+        byte[] content = full.getContentAsByteArray();
+        String strongEtag = resumed.getHeader(HttpHeaders.ETAG);
+
+        assertThat(resumed.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+        assertThat(strongEtag).startsWith("\"");
+        assertThat(resumed.getHeader(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes " + OFFSET + "-" + (content.length - 1) + "/" + content.length);
+        assertThat(resumed.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, OFFSET, content.length));
+        // Сформированный файл остался файлом докачки: следующий запрос отдаётся из него
+        assertThat(full.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(full.getHeader(HttpHeaders.ETAG)).isEqualTo(strongEtag);
+    }
+
+    @Test
+    void streamedExportIsKeptForRangeResume() throws IOException {
+        loginWithEntries("resume-stream-employee");
+
+        MockHttpServletResponse streamed = send(new HttpHeaders());
+        byte[] content = streamed.getContentAsByteArray();
+        assertThat(streamed.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(streamed.getHeader(HttpHeaders.ETAG)).startsWith("W/");
+        assertThat(streamed.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+
+        MockHttpServletResponse resumed = new MockHttpServletResponse();
+        ResponseEntity<StreamingResponseBody> ranged = export(rangeHeaders(null), resumed);
+        String strongEtag = ranged.getHeaders().getETag();
+        assertThat(ranged.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(strongEtag).startsWith("\"");
+        assertThat(ranged.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes " + OFFSET + "-" + (content.length - 1) + "/" + content.length);
+        send(ranged, resumed);
+        assertThat(resumed.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, OFFSET, content.length));
+
+        MockHttpServletResponse resumedAgain = send(rangeHeaders(strongEtag));
+        assertThat(resumedAgain.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+        assertThat(resumedAgain.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, OFFSET, content.length));
+    }
+
+    private void loginWithEntries(String employeeName) {
+        EmployeeEntity employee = createEmployee(employeeName, null);
+        insertEntries(employee, employee, START, DAYS, 480);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                employee.getEmployeeName(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static HttpHeaders rangeHeaders(String ifRange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=" + OFFSET + "-");
+        if (ifRange != null) {
+            headers.set(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return headers;
+    }
+
+    /**
+     * Выполняет запрос и отдаёт ответ так же, как Spring MVC: статус и заголовки ResponseEntity,
+     * затем тело в поток ответа сервлета.
+     */
+    private MockHttpServletResponse send(HttpHeaders requestHeaders) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        send(export(requestHeaders, response), response);
+        return response;
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(HttpHeaders requestHeaders, MockHttpServletResponse response) {
+        return csvController.exportTimeEntries(null, START, START.plusDays(DAYS - 1), ExportMode.STANDARD,
+                FileExtension.CSV, requestHeaders, response);
+    }
+
+    private static void send(ResponseEntity<StreamingResponseBody> entity, MockHttpServletResponse response)
+            throws IOException {
+        response.setStatus(entity.getStatusCode().value());
+        entity.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (entity.getBody() != null) {
+            entity.getBody().writeTo(response.getOutputStream());
+        }
+    }
+}
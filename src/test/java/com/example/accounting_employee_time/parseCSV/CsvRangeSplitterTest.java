@@ -0,0 +1,103 @@
+package com.example.accounting_employee_time.parseCSV;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Границы диапазонов {@link CsvRangeSplitter}: кавычка открывает значение только в начале поля,
+ * как в парсере Jackson CSV, поэтому границы и счётчики записей совпадают с последовательным разбором.
+ */
+class CsvRangeSplitterTest {
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        List<String> records = records("1;ab\"c;2\n3;d;4\n5;e\"\"f;6\n");
+
+        assertThat(records).containsExactly("1;ab\"c;2\n", "3;d;4\n", "5;e\"\"f;6\n");
+    }
+
+    @Test
+    void lineFeedInsideQuotedFieldDoesNotEndRecord() throws IOException {
+        List<String> records = records("1;\"a\nb\";2\n\"c;\n\";3;4\n");
+
+        assertThat(records).containsExactly("1;\"a\nb\";2\n", "\"c;\n\";3;4\n");
+    }
+
+    @Test
+    void escapedQuoteKeepsQuotedField() throws IOException {
+        List<String> records = records("1;\"a\"\"\nb\";2\n3;\"\"\"\";4\n");
+
+        assertThat(records).containsExactly("1;\"a\"\"\nb\";2\n", "3;\"\"\"\";4\n");
+    }
+
+    @Test
+    void textAfterClosingQuoteIsUnquoted() throws IOException {
+        List<String> records = records("1;\"a\"b\"c;2\n3;d;4\n");
+
+        assertThat(records).containsExactly("1;\"a\"b\"c;2\n", "3;d;4\n");
+    }
+
+    @Test
+    void crlfRecordsEndAfterLineFeed() throws IOException {
+        List<String> records = records("1;a;2\r\n3;\"b\r\nc\";4\r\n5;d;6");
+
+        assertThat(records).containsExactly("1;a;2\r\n", "3;\"b\r\nc\";4\r\n", "5;d;6");
+    }
+
+    @Test
+    void rangesCountPrecedingRecords() throws IOException {
+        String content = "h1;h2\n1;a\"b\n2;\"c\nd\"\n3;e\n4;f\n";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        try (CsvRangeSplitter splitter = new CsvRangeSplitter(new ByteArrayInputStream(bytes), CsvSeparator.SEMICOLON)) {
+            CsvRange header = splitter.nextRange(1);
+            CsvRange first = splitter.nextRange(10);
+            CsvRange second = splitter.nextRange(10);
+
+            assertThat(header.getRecordsBefore()).isZero();
+            assertThat(text(bytes, header)).isEqualTo("h1;h2\n");
+            assertThat(first.getRecordsBefore()).isEqualTo(1);
+            assertThat(text(bytes, first)).isEqualTo("1;a\"b\n2;\"c\nd\"\n");
+            assertThat(second.getRecordsBefore()).isEqualTo(3);
+            assertThat(text(bytes, second)).isEqualTo("3;e\n4;f\n");
+            assertThat(splitter.nextRange(10)).isNull();
+        }
+    }
+
+    @Test
+    void separatorIsConfigurable() throws IOException {
+        byte[] bytes = "1,a\"b,2\n\"c\nd\",3\n".getBytes(StandardCharsets.UTF_8);
+
+        try (CsvRangeSplitter splitter = new CsvRangeSplitter(new ByteArrayInputStream(bytes), CsvSeparator.COMMA)) {
+            assertThat(text(bytes, splitter.nextRange(1))).isEqualTo("1,a\"b,2\n");
+            assertThat(text(bytes, splitter.nextRange(1))).isEqualTo("\"c\nd\",3\n");
+        }
+    }
+
+    /**
+     * Делит текст на диапазоны минимального размера, то есть по одной записи.
+     */
+    private static List<String> records(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        List<String> records = new ArrayList<>();
+        try (CsvRangeSplitter splitter = new CsvRangeSplitter(new ByteArrayInputStream(bytes), CsvSeparator.SEMICOLON)) {
+            CsvRange range;
+            while ((range = splitter.nextRange(1)) != null) {
+                assertThat(range.getRecordsBefore()).isEqualTo(records.size());
+                records.add(text(bytes, range));
+            }
+        }
+        return records;
+    }
+
+    private static String text(byte[] bytes, CsvRange range) {
+        return new String(bytes, (int) range.getStart(), (int) range.length(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.service.ExportCacheService.ExportFile;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Копии экспортов на диске: экспорт больше лимита кэша отдаётся потоком, а его копия хранится как файл докачки
+ * с сильным ETag и удаляется по истечении срока; оборванная загрузка дописывается в копию;
+ * {@link ExportCacheServiceImpl#openOrRender} дожидается дописываемой копии, а не формирует экспорт заново.
+ * Инвалидация удаляет только файлы, в которые попадают сотрудник и дата события, а событие без периода — все;
+ * экспорт, во время формирования которого пришла инвалидация, не публикуется.
+ */
+class ExportCacheServiceImplTest {
+
+    private static final int MAX_ENTRY_BYTES = 1024;
+    private static final int CHUNK_BYTES = 256;
+    private static final Key KEY = new Key(Set.of(1L, 2L), null, LocalDate.of(2024, 1, 1),
+            LocalDate.of(2024, 1, 31), FileExtension.CSV, ExportMode.STANDARD);
+    private static final Key OTHER_KEY = new Key(Set.of(3L), null, LocalDate.of(2024, 2, 1),
+            LocalDate.of(2024, 2, 29), FileExtension.CSV, ExportMode.STANDARD);
+
+    @TempDir
+    private Path cacheDir;
+
+    private ExportProperties properties;
+    private ExportCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExportProperties();
+        properties.setCacheDir(cacheDir);
+        properties.setCacheMaxEntrySize(DataSize.ofBytes(MAX_ENTRY_BYTES));
+        cacheService = new ExportCacheServiceImpl(properties);
+        cacheService.init();
+    }
+
+    @Test
+    void oversizedExportIsStreamedAndKeptForResume() throws IOException {
+        byte[] content = content(4 * MAX_ENTRY_BYTES);
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+
+        cacheService.export(KEY, client, out -> write(out, content));
+
+        assertThat(client.toByteArray()).isEqualTo(content);
+        try (ExportFile file = cacheService.openCached(KEY)) {
+            assertThat(file).isNotNull();
+            assertThat(file.getSize()).isEqualTo(content.length);
+            assertThat(file.getEtag()).startsWith("\"").doesNotStartWith("W/");
+            assertThat(read(file, 0, content.length)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void droppedDownloadIsFinishedIntoResumeFile() throws IOException {
+        byte[] content = content(4 * MAX_ENTRY_BYTES);
+        DroppingOutputStream client = new DroppingOutputStream(MAX_ENTRY_BYTES);
+
+        assertThatThrownBy(() -> cacheService.export(KEY, client, out -> write(out, content)))
+                .isInstanceOf(FileParsingException.class)
+                .hasCauseInstanceOf(IOException.class);
+
+        assertThat(client.received).isEqualTo(MAX_ENTRY_BYTES);
+        try (ExportFile file = cacheService.openCached(KEY)) {
+            assertThat(file).isNotNull();
+            assertThat(read(file, 0, content.length)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void droppedDownloadStopsExportWithoutResumeFiles() {
+        properties.setResumeTtl(Duration.ZERO);
+        AtomicInteger chunks = new AtomicInteger();
+
+        assertThatThrownBy(() -> cacheService.export(KEY, new DroppingOutputStream(MAX_ENTRY_BYTES / 2),
+                out -> write(out, content(4 * MAX_ENTRY_BYTES), chunks)))
+                .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(chunks.get()).isEqualTo(MAX_ENTRY_BYTES / 2 / CHUNK_BYTES + 1);
+        assertThat(cacheService.openCached(KEY)).isNull();
+        assertThat(cacheFiles()).isEmpty();
+    }
+
+    @Test
+    void resumeFileExpires() throws InterruptedException {
+        properties.setResumeTtl(Duration.ofMillis(1));
+        cacheService.export(KEY, new ByteArrayOutputStream(), out -> write(out, content(2 * MAX_ENTRY_BYTES)));
+        assertThat(cacheFiles()).hasSize(1);
+
+        Thread.sleep(20);
+        cacheService.evictExpiredResumeFiles();
+
+        assertThat(cacheFiles()).isEmpty();
+        assertThat(cacheService.openCached(KEY)).isNull();
+    }
+
+    @Test
+    void openOrRenderWaitsForExportBeingWritten() throws Exception {
+        byte[] content = content(4 * MAX_ENTRY_BYTES);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Long> running = CompletableFuture.supplyAsync(() ->
+                    cacheService.export(KEY, new ByteArrayOutputStream(), out -> {
+                        write(out, content, 0, CHUNK_BYTES);
+                        started.countDown();
+                        await(release);
+                        return write(out, content, CHUNK_BYTES, content.length - CHUNK_BYTES);
+                    }), executor);
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            AtomicInteger renders = new AtomicInteger();
+            CompletableFuture<byte[]> resumed = CompletableFuture.supplyAsync(() -> {
+                try (ExportFile file = cacheService.openOrRender(KEY, out -> write(out, content, renders))) {
+                    return read(file, 0, (int) file.getSize());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+            Thread.sleep(50);
+            assertThat(resumed).isNotDone();
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+            assertThat(resumed.get(10, TimeUnit.SECONDS)).isEqualTo(content);
+            assertThat(renders.get()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void openOrRenderWithoutCopiesRendersTemporaryFile() throws IOException {
+        properties.setCacheEnabled(false);
+        properties.setResumeTtl(Duration.ZERO);
+        byte[] content = content(MAX_ENTRY_BYTES / 2);
+
+        try (ExportFile file = cacheService.openOrRender(KEY, out -> write(out, content))) {
+            assertThat(read(file, 0, content.length)).isEqualTo(content);
+            assertThat(cacheFiles()).hasSize(1);
+        }
+
+        assertThat(cacheFiles()).isEmpty();
+        assertThat(cacheService.openCached(KEY)).isNull();
+    }
+
+    @Test
+    void exportWithinLimitIsCachedNotKeptForResume() throws IOException {
+        properties.setResumeTtl(Duration.ofMillis(1));
+        byte[] content = content(MAX_ENTRY_BYTES / 2);
+
+        cacheService.export(KEY, new ByteArrayOutputStream(), out -> write(out, content));
+        cacheService.evictExpiredResumeFiles();
+
+        try (ExportFile cached = cacheService.openCached(KEY)) {
+            assertThat(cached).isNotNull();
+            assertThat(read(cached, 0, content.length)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void invalidationEvictsKeyWithEmployeeAndDate() {
+        cache(KEY);
+        cache(OTHER_KEY);
+
+        cacheService.invalidate(TimeEntryChangedEvent.of(2L, LocalDate.of(2024, 1, 31)));
+
+        assertThat(cacheService.openCached(KEY)).isNull();
+        assertCached(OTHER_KEY);
+        assertThat(cacheFiles()).hasSize(1);
+    }
+
+    @Test
+    void invalidationOutsideEmployeesOrPeriodKeepsKey() {
+        cache(KEY);
+
+        cacheService.invalidate(TimeEntryChangedEvent.of(3L, LocalDate.of(2024, 1, 15)));
+        cacheService.invalidate(TimeEntryChangedEvent.of(1L, LocalDate.of(2024, 2, 1)));
+        cacheService.invalidate(new TimeEntryChangedEvent(2L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)));
+
+        assertCached(KEY);
+    }
+
+    @Test
+    void allDatesInvalidationClearsEveryKey() {
+        cache(KEY);
+        cache(OTHER_KEY);
+        cacheService.export(new Key(Set.of(4L), null, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31),
+                FileExtension.CSV, ExportMode.STANDARD), new ByteArrayOutputStream(),
+                out -> write(out, content(2 * MAX_ENTRY_BYTES)));
+        assertThat(cacheFiles()).hasSize(3);
+
+        // Сотрудник не входит ни в один ключ: его имя может быть в файлах как имя создателя записей
+        cacheService.invalidate(TimeEntryChangedEvent.allDates(5L));
+
+        assertThat(cacheService.openCached(KEY)).isNull();
+        assertThat(cacheService.openCached(OTHER_KEY)).isNull();
+        assertThat(cacheFiles()).isEmpty();
+    }
+
+    @Test
+    void exportOverlappingInvalidationIsNotPublished() {
+        byte[] content = content(MAX_ENTRY_BYTES / 2);
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+
+        cacheService.export(KEY, client, out -> {
+            write(out, content, 0, CHUNK_BYTES);
+            cacheService.invalidate(TimeEntryChangedEvent.of(1L, LocalDate.of(2024, 1, 10)));
+            return write(out, content, CHUNK_BYTES, content.length - CHUNK_BYTES);
+        });
+
+        assertThat(client.toByteArray()).isEqualTo(content);
+        assertThat(cacheService.openCached(KEY)).isNull();
+        assertThat(cacheFiles()).isEmpty();
+    }
+
+    /**
+     * Помещает в кэш экспорт меньше лимита записи.
+     */
+    private void cache(Key key) {
+        cacheService.export(key, new ByteArrayOutputStream(), out -> write(out, content(MAX_ENTRY_BYTES / 2)));
+    }
+
+    private void assertCached(Key key) {
+        try (ExportFile file = cacheService.openCached(key)) {
+            assertThat(file).isNotNull();
+            assertThat(file.getSize()).isEqualTo(MAX_ENTRY_BYTES / 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> cacheFiles() {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        return content;
+    }
+
+    private static long write(OutputStream out, byte[] content) {
+        return write(out, content, new AtomicInteger());
+    }
+
+    /**
+     * Пишет содержимое порциями по {@link #CHUNK_BYTES}, как генератор экспорта; chunks — число начатых порций.
+     */
+    private static long write(OutputStream out, byte[] content, AtomicInteger chunks) {
+        for (int offset = 0; offset < content.length; offset += CHUNK_BYTES) {
+            chunks.incrementAndGet();
+            write(out, content, offset, Math.min(CHUNK_BYTES, content.length - offset));
+        }
+        return 1;
+    }
+
+    private static long write(OutputStream out, byte[] content, int offset, int length) {
+        try {
+            out.write(content, offset, length);
+            return 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] read(ExportFile file, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (file.getChannel().read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Клиент, соединение с которым обрывается после limit байт.
+     */
+    private static final class DroppingOutputStream extends OutputStream {
+
+        private final int limit;
+        private int received;
+
+        private DroppingOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (received + len > limit) {
+                throw new IOException("Broken pipe");
+            }
+            received += len;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.configuration.ExportProperties;
+import com.example.accounting_employee_time.dto.EmployeeDTO;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.event.TimeEntryChangedEvent;
+import com.example.accounting_employee_time.parseCSV.CsvCodecRegistry;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.repository.TimeEntryRepository;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Экспорт из снимков закрытых месяцев совпадает с обычным экспортом побайтно: и для явного списка сотрудников,
+ * и для поддерева руководителя, с живыми строками до и после полных месяцев периода.
+ * Запись, внесённая задним числом в закрытый месяц, убирает его сегмент: до следующего построения экспорт
+ * читается из БД, после — снова из снимков, и результат в обоих случаях одинаков.
+ * В профиле {@code test} снимки выключены, поэтому проверяется отдельный экземпляр сервиса с включёнными
+ * снимками во временном каталоге; события изменения записей передаются ему из контекста.
+ */
+@RecordApplicationEvents
+class ExportSnapshotServiceImplTest extends PostgresIntegrationTest {
+
+    /**
+     * Период с неполными январём и апрелем: февраль и март берутся из сегментов, остальное — из БД.
+     */
+    private static final LocalDate START = LocalDate.of(2025, 1, 15);
+    private static final LocalDate END = LocalDate.of(2025, 4, 5);
+
+    /**
+     * Дата в марте, за которую у второго подчинённого записи нет.
+     */
+    private static final LocalDate BACK_DATED = LocalDate.of(2025, 3, 20);
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private FileProcessService fileProcessService;
+
+    @Autowired
+    private CsvCodecRegistry codecRegistry;
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @TempDir
+    private Path snapshotDir;
+
+    private ExportSnapshotServiceImpl snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        ExportProperties properties = new ExportProperties();
+        properties.setSnapshotEnabled(true);
+        properties.setSnapshotDir(snapshotDir);
+        snapshotService = new ExportSnapshotServiceImpl(properties, timeEntryRepository, fileProcessService,
+                codecRegistry);
+        snapshotService.init();
+    }
+
+    @Test
+    void snapshotExportMatchesLiveExport() {
+        EmployeeEntity manager = createEmployee("snapshot-export-manager", null);
+        EmployeeEntity first = createEmployee("snapshot-export-first", manager);
+        EmployeeEntity second = createEmployee("snapshot-export-second", manager);
+        EmployeeEntity outsider = createEmployee("snapshot-export-outsider", null);
+        addEntries(manager, first, second);
+        insertEntries(outsider, outsider, START, 60, 480);
+
+        assertThat(snapshotExport(prepare(manager, null))).isNull();
+        snapshotService.refresh();
+
+        Key subtree = prepare(manager, null);
+        Key explicit = prepare(manager, List.of(second.getId(), first.getId()));
+        assertThat(snapshotExport(subtree)).isEqualTo(liveExport(subtree));
+        assertThat(snapshotExport(explicit)).isEqualTo(liveExport(explicit));
+        assertThat(liveExport(subtree)).contains(manager.getEmployeeName(), first.getEmployeeName(),
+                                                 second.getEmployeeName())
+                                       .doesNotContain(outsider.getEmployeeName());
+    }
+
+    @Test
+    void backDatedEntryDropsSegmentUntilNextRefresh() {
+        EmployeeEntity manager = createEmployee("snapshot-edit-manager", null);
+        EmployeeEntity first = createEmployee("snapshot-edit-first", manager);
+        EmployeeEntity second = createEmployee("snapshot-edit-second", manager);
+        addEntries(manager, first, second);
+        snapshotService.refresh();
+        Key key = prepare(manager, null);
+        String before = liveExport(key);
+        assertThat(snapshotExport(key)).isEqualTo(before);
+        int segments = segmentFiles();
+
+        events.clear();
+        timeEntryService.create(TimeEntryDTO.builder()
+                                            .workDate(BACK_DATED)
+                                            .hoursWorked(new BigDecimal("6.50"))
+                                            .employee(EmployeeDTO.builder().id(second.getId()).build())
+                                            .build(), manager.getEmployeeName());
+        events.stream(TimeEntryChangedEvent.class).forEach(snapshotService::invalidate);
+
+        String edited = liveExport(key);
+        assertThat(edited.lines().count()).isEqualTo(before.lines().count() + 1);
+        assertThat(edited).contains("6.50");
+        assertThat(snapshotExport(key)).isNull();
+        assertThat(segmentFiles()).isEqualTo(segments - 1);
+
+        snapshotService.refresh();
+
+        assertThat(segmentFiles()).isEqualTo(segments);
+        assertThat(snapshotExport(key)).isEqualTo(edited);
+        assertThat(liveExport(key)).isEqualTo(edited);
+    }
+
+    /**
+     * Руководитель — конец марта и начало апреля, первый подчинённый — все месяцы периода и за его границами,
+     * второй — февраль и начало марта, без {@link #BACK_DATED}. Минуты дают часы с округлением.
+     */
+    private void addEntries(EmployeeEntity manager, EmployeeEntity first, EmployeeEntity second) {
+        insertEntries(manager, manager, LocalDate.of(2025, 3, 30), 5, 480);
+        insertEntries(first, manager, LocalDate.of(2024, 12, 20), 130, 480, 455, 1);
+        insertEntries(second, manager, LocalDate.of(2025, 2, 10), 30, 420, 0);
+    }
+
+    private Key prepare(EmployeeEntity actor, List<Long> employeeIds) {
+        return timeEntryExportService.prepare(actor, employeeIds, START, END, FileExtension.CSV, ExportMode.STANDARD);
+    }
+
+    /**
+     * Обычный экспорт: в профиле {@code test} снимки и кэш выключены.
+     */
+    private String liveExport(Key key) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        timeEntryExportService.export(key, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Экспорт из снимков.
+     *
+     * @return файл или null, если снимки неприменимы
+     */
+    private String snapshotExport(Key key) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Long exported = transaction.execute(status -> snapshotService.exportCsv(key.getEmployeeIds(),
+                key.getSubtreeRootId(), key.getStart(), key.getEnd(), outputStream));
+        return exported != null && exported >= 0 ? outputStream.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    private int segmentFiles() {
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            return (int) files.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.exception.FileParsingException;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.ParsedRow;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.service.FileProcessService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Потоковый разбор CSV: пик занятой кучи во время разбора определяется размером порции
+ * (при параллельном разборе — числом диапазонов в обработке), а не размером файла.
+ * Куча измеряется после сборки мусора в начале разбора и затем каждые {@link #SAMPLE_EVERY_CHUNKS} порций.
+ * Меньший файл уже заполняет все диапазоны в обработке, поэтому пики сравнимы.
+ * Замер кучи зависит от сборщика мусора и пишет файлы в сотни тысяч строк, поэтому помечен тегом
+ * {@code benchmark} и запускается только в профиле {@code benchmark} ({@code mvn -Pbenchmark test}).
+ * Параллельный разбор файла с кавычками внутри полей, переводами строк в значениях и CRLF
+ * даёт те же строки и номера строк, что и последовательный. Так же и для пустых необязательных
+ * и обязательных идентификаторов: первые разбирает быстрый разборщик, вторые — Jackson по одной записи.
+ * Сжатый файл, распаковывающийся больше {@code app.import.max-decompressed-size} (1 МБ в профиле {@code test}),
+ * отклоняется и при сохранении на диск, и при потоковом разборе.
+ */
+class FileProcessServiceImplTest extends PostgresIntegrationTest {
+
+    private static final String HEADER = "ID создателя;ID сотрудника;Дата;Имя создателя;Имя сотрудника;Часы\n";
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int CHUNK_SIZE = 1000;
+    private static final int SAMPLE_EVERY_CHUNKS = 50;
+    private static final int SMALL_ROWS = 300_000;
+    private static final int LARGE_ROWS = 1_500_000;
+
+    /**
+     * Строк в файле со сложными кавычками; файл получается длиннее одного диапазона параллельного разбора.
+     */
+    private static final int QUOTED_ROWS = 60_000;
+
+    /**
+     * Допустимая разница пиков кучи для файлов разного размера; разница самих файлов больше вдвое,
+     * а разобранные строки занимают в куче в несколько раз больше байт файла.
+     */
+    private static final long HEAP_TOLERANCE_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Строк в сжатом файле: распакованный он больше предела профиля {@code test}, сжатый — в сотни раз меньше.
+     */
+    private static final int OVERSIZED_GZIP_ROWS = 40_000;
+
+    /**
+     * Строк в сжатом файле, который укладывается в предел.
+     */
+    private static final int GZIP_ROWS = 1_000;
+
+    @Autowired
+    private FileProcessService fileProcessService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @Tag("benchmark")
+    void sequentialParseHeapDoesNotGrowWithFileSize() throws IOException {
+        assertFlatHeap(false);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void parallelParseHeapDoesNotGrowWithFileSize() throws IOException {
+        assertFlatHeap(true);
+    }
+
+    @Test
+    void parallelParseMatchesSequentialWithQuotesAndCrlf() throws IOException {
+        Path file = tempDir.resolve("quotes.csv");
+        StringBuilder content = new StringBuilder(HEADER.replace("\n", "\r\n"));
+        for (int i = 0; i < QUOTED_ROWS; i++) {
+            String employeeName = switch (i % 4) {
+                case 0 -> "ab\"c" + i;
+                case 1 -> "\"multi\nline " + i + "\"";
+                case 2 -> "\"say \"\"hi\"\"; " + i + "\"";
+                default -> "plain-" + i;
+            };
+            content.append("1;").append(i % 50 + 1).append(';').append(START.plusDays(i % 365))
+                   .append(";admin;").append(employeeName).append(";8.00\r\n");
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        List<ParsedRow<TimeEntryParsingData>> sequential = new ArrayList<>();
+        List<ParsedRow<TimeEntryParsingData>> parallel = new ArrayList<>();
+        long sequentialCount = fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV,
+                CHUNK_SIZE, sequential::addAll);
+        long parallelCount = fileProcessService.parseFileWithHeaderParallel(TimeEntryParsingData.class, file,
+                FileExtension.CSV, CHUNK_SIZE, parallel::addAll);
+
+        assertThat(parallelCount).isEqualTo(sequentialCount).isEqualTo(QUOTED_ROWS);
+        assertThat(parallel).extracting(ParsedRow::getRowNumber)
+                            .containsExactlyElementsOf(sequential.stream().map(ParsedRow::getRowNumber).toList());
+        assertThat(parallel).extracting(ParsedRow::getData)
+                            .containsExactlyElementsOf(sequential.stream().map(ParsedRow::getData).toList());
+        assertThat(sequential.get(0).getData().getEmployeeName()).isEqualTo("ab\"c0");
+        assertThat(sequential.get(1).getData().getEmployeeName()).isEqualTo("multi\nline 1");
+        assertThat(sequential.get(2).getData().getEmployeeName()).isEqualTo("say \"hi\"; 2");
+    }
+
+    @Test
+    void parallelParseMatchesSequentialWithEmptyIds() throws IOException {
+        Path file = tempDir.resolve("empty-ids.csv");
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < QUOTED_ROWS; i++) {
+            String createdBy = i % 3 == 0 ? ";" : "1;";
+            String employeeId = i % 1000 == 0 ? "" : Integer.toString(i % 50 + 1);
+            content.append(createdBy).append(employeeId).append(';').append(START.plusDays(i % 365))
+                   .append(i % 3 == 0 ? ";" : ";admin").append(";employee-").append(i).append(";8.00\n");
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        List<ParsedRow<TimeEntryParsingData>> sequential = new ArrayList<>();
+        List<ParsedRow<TimeEntryParsingData>> parallel = new ArrayList<>();
+        fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV,
+                CHUNK_SIZE, sequential::addAll);
+        fileProcessService.parseFileWithHeaderParallel(TimeEntryParsingData.class, file, FileExtension.CSV,
+                CHUNK_SIZE, parallel::addAll);
+
+        assertThat(parallel).hasSize(QUOTED_ROWS);
+        assertThat(parallel).extracting(ParsedRow::getRowNumber)
+                            .containsExactlyElementsOf(sequential.stream().map(ParsedRow::getRowNumber).toList());
+        assertThat(parallel).extracting(ParsedRow::getData)
+                            .containsExactlyElementsOf(sequential.stream().map(ParsedRow::getData).toList());
+        assertThat(parallel).extracting(ParsedRow::getViolations)
+                            .containsExactlyElementsOf(sequential.stream().map(ParsedRow::getViolations).toList());
+        assertThat(parallel.get(0).isValid()).isFalse();
+        assertThat(parallel.get(3).getData().getCreatedById()).isNull();
+        assertThat(parallel.get(3).isValid()).isTrue();
+    }
+
+    @Test
+    void spoolFileDecompressesGzipWithinLimit() throws IOException {
+        Path spooled = fileProcessService.spoolFile(gzip("entries.csv.gz", GZIP_ROWS), FileExtension.CSV);
+        try {
+            assertThat(Files.readString(spooled, StandardCharsets.UTF_8)).isEqualTo(csv(GZIP_ROWS));
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    @Test
+    void spoolFileRejectsGzipOverDecompressedLimitAndLeavesNoFile() throws IOException {
+        MockMultipartFile file = gzip("bomb.csv.gz", OVERSIZED_GZIP_ROWS);
+        List<Path> before = spooledImports();
+
+        assertThat(file.getSize()).isLessThan(64 * 1024);
+        assertThatThrownBy(() -> fileProcessService.spoolFile(file, FileExtension.CSV))
+                .isInstanceOf(FileParsingException.class)
+                .hasMessageContaining("Распакованный файл больше");
+        assertThat(spooledImports()).containsExactlyInAnyOrderElementsOf(before);
+    }
+
+    @Test
+    void streamingParseRejectsGzipOverDecompressedLimit() throws IOException {
+        MockMultipartFile file = gzip("bomb.csv.gz", OVERSIZED_GZIP_ROWS);
+
+        assertThatThrownBy(() -> fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV))
+                .isInstanceOf(FileParsingException.class)
+                .hasMessageContaining("Распакованный файл больше");
+    }
+
+    private void assertFlatHeap(boolean parallel) throws IOException {
+        Path small = writeCsv("small.csv", SMALL_ROWS);
+        Path large = writeCsv("large.csv", LARGE_ROWS);
+
+        long smallPeak = parsePeakHeap(small, SMALL_ROWS, parallel);
+        long largePeak = parsePeakHeap(large, LARGE_ROWS, parallel);
+
+        assertThat(Files.size(large) - Files.size(small)).isGreaterThan(2 * HEAP_TOLERANCE_BYTES);
+        assertThat(largePeak).as("пик кучи при разборе %d строк против %d строк (parallel=%s)",
+                                 LARGE_ROWS, SMALL_ROWS, parallel)
+                             .isLessThan(smallPeak + HEAP_TOLERANCE_BYTES);
+    }
+
+    /**
+     * Разбирает файл порциями и возвращает наибольший прирост занятой кучи относительно начала разбора.
+     */
+    private long parsePeakHeap(Path file, int expectedRows, boolean parallel) {
+        long baseline = usedHeapAfterGc();
+        AtomicLong peak = new AtomicLong();
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+
+        long parsed = parallel
+                ? fileProcessService.parseFileWithHeaderParallel(TimeEntryParsingData.class, file, FileExtension.CSV,
+                CHUNK_SIZE, chunk -> {
+                    rows.addAndGet(chunk.size());
+                    sample(chunks.incrementAndGet(), baseline, peak);
+                })
+                : fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV,
+                CHUNK_SIZE, chunk -> {
+                    rows.addAndGet(chunk.size());
+                    sample(chunks.incrementAndGet(), baseline, peak);
+                });
+
+        assertThat(parsed).isEqualTo(expectedRows);
+        assertThat(rows.get()).isEqualTo(expectedRows);
+        return peak.get();
+    }
+
+    private void sample(int chunk, long baseline, AtomicLong peak) {
+        if (chunk % SAMPLE_EVERY_CHUNKS == 1) {
+            peak.accumulateAndGet(usedHeapAfterGc() - baseline, Math::max);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static MockMultipartFile gzip(String name, int rows) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(csv(rows).getBytes(StandardCharsets.UTF_8));
+        }
+        return new MockMultipartFile("file", name, "application/gzip", compressed.toByteArray());
+    }
+
+    private static String csv(int rows) {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            content.append("1;").append(i % 500 + 1).append(';').append(START.plusDays(i % 365))
+                   .append(";admin;employee-").append(i % 500).append(";8.00\n");
+        }
+        return content.toString();
+    }
+
+    private static List<Path> spooledImports() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("import-")).toList();
+        }
+    }
+
+    private Path writeCsv(String name, int rows) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            for (int i = 0; i < rows; i++) {
+                writer.write("1;" + (i % 500 + 1) + ";" + START.plusDays(i % 365) + ";admin;employee-" + i % 500 + ";8.00\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.parseCSV.data.TimeEntryParsingData;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.FileProcessService;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Экспорт в режиме COPY: SQL, который собирает {@link TimeEntryBulkExportServiceImpl}, выполняется PostgreSQL,
+ * а результат разбирается в те же строки и в том же порядке, что и экспорт STANDARD, — и для явного списка
+ * сотрудников, и для поддерева пользователя. Байты могут отличаться: COPY заключает в кавычки только значения,
+ * которым это нужно.
+ */
+class TimeEntryBulkExportServiceImplTest extends PostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 5, 1);
+    private static final int DAYS = 4;
+
+    /**
+     * Минуты, в часах которых есть округление до двух знаков, и нулевая запись.
+     */
+    private static final int[] WORKED_MINUTES = {480, 455, 1, 0};
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private FileProcessService fileProcessService;
+
+    @Test
+    void copyMatchesStandardForExplicitEmployeeIds() {
+        EmployeeEntity manager = createEmployee("copy-export-ids-manager", null);
+        EmployeeEntity plain = createEmployee("copy-export-ids-plain", manager);
+        EmployeeEntity quoted = createEmployee("copy-export-ids; \"quoted\"", manager);
+        EmployeeEntity indirect = createEmployee("copy-export-ids-indirect", plain);
+        insertEntries(manager, manager, START, DAYS, WORKED_MINUTES);
+        insertEntries(plain, manager, START, DAYS, WORKED_MINUTES);
+        insertEntries(quoted, plain, START, DAYS, WORKED_MINUTES);
+        insertEntries(indirect, plain, START, DAYS, WORKED_MINUTES);
+
+        List<Long> employeeIds = List.of(quoted.getId(), indirect.getId(), manager.getId());
+        String standard = export(manager, employeeIds, ExportMode.STANDARD);
+        String copy = export(manager, employeeIds, ExportMode.COPY);
+
+        assertSameRows(standard, copy, 3 * DAYS);
+    }
+
+    @Test
+    void copyMatchesStandardForSubtree() {
+        EmployeeEntity manager = createEmployee("copy-export-subtree-manager", null);
+        EmployeeEntity plain = createEmployee("copy-export-subtree-plain", manager);
+        EmployeeEntity quoted = createEmployee("copy-export-subtree; \"quoted\"", manager);
+        EmployeeEntity indirect = createEmployee("copy-export-subtree-indirect", plain);
+        EmployeeEntity outsider = createEmployee("copy-export-subtree-outsider", null);
+        insertEntries(manager, manager, START, DAYS, WORKED_MINUTES);
+        insertEntries(plain, manager, START, DAYS, WORKED_MINUTES);
+        insertEntries(quoted, plain, START, DAYS, WORKED_MINUTES);
+        insertEntries(indirect, plain, START, DAYS, WORKED_MINUTES);
+        insertEntries(outsider, outsider, START, DAYS, WORKED_MINUTES);
+
+        String standard = export(manager, null, ExportMode.STANDARD);
+        String copy = export(manager, null, ExportMode.COPY);
+
+        assertSameRows(standard, copy, 4 * DAYS);
+        assertThat(copy).doesNotContain(outsider.getEmployeeName());
+    }
+
+    @Test
+    void copyOfEmptyResultIsEmptyFile() {
+        EmployeeEntity manager = createEmployee("copy-export-empty-manager", null);
+
+        assertThat(export(manager, null, ExportMode.COPY)).isEmpty();
+        assertThat(export(manager, List.of(manager.getId()), ExportMode.COPY)).isEmpty();
+    }
+
+    private void assertSameRows(String standard, String copy, int expectedRows) {
+        List<TimeEntryParsingData> standardRows = parse(standard);
+        List<TimeEntryParsingData> copyRows = parse(copy);
+
+        assertThat(copy.lines().findFirst()).isEqualTo(standard.lines().findFirst());
+        assertThat(standardRows).hasSize(expectedRows);
+        assertThat(copyRows).containsExactlyElementsOf(standardRows);
+    }
+
+    private List<TimeEntryParsingData> parse(String csv) {
+        MockMultipartFile file = new MockMultipartFile("file", "export.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        return fileProcessService.parseFileWithHeader(TimeEntryParsingData.class, file, FileExtension.CSV);
+    }
+
+    private String export(EmployeeEntity actor, List<Long> employeeIds, ExportMode mode) {
+        Key key = timeEntryExportService.prepare(actor, employeeIds, START, START.plusDays(DAYS - 1),
+                FileExtension.CSV, mode);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        timeEntryExportService.export(key, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
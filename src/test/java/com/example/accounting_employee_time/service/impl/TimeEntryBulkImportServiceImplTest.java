@@ -0,0 +1,182 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.controller.CsvController;
+import com.example.accounting_employee_time.dto.EmployeeDTO;
+import com.example.accounting_employee_time.dto.ImportMode;
+import com.example.accounting_employee_time.dto.ImportReport;
+import com.example.accounting_employee_time.dto.ImportRowError;
+import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.service.TimeEntryImportService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Импорт в режиме COPY: идентификаторы из блоков последовательности не пересекаются с идентификаторами,
+ * которые выдаёт Hibernate (оптимизатор pooled держит остаток блока в памяти), дубликаты и несуществующие
+ * сотрудники попадают в отчёт, а запись за сотрудника без прав на редактирование прерывает импорт с 403.
+ */
+class TimeEntryBulkImportServiceImplTest extends PostgresIntegrationTest {
+
+    private static final String HEADER = "ID создателя;ID сотрудника;Дата;Имя создателя;Имя сотрудника;Часы\n";
+    private static final LocalDate START = LocalDate.of(2021, 1, 1);
+
+    /**
+     * Не кратно размеру блока идентификаторов (50): после пакета у Hibernate остаётся начатый блок.
+     */
+    private static final int HIBERNATE_ENTRIES = 70;
+    private static final int FIRST_COPY_ENTRIES = 120;
+    private static final int SECOND_COPY_ENTRIES = 30;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private TimeEntryImportService timeEntryImportService;
+
+    @Autowired
+    private CsvController csvController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void copyIdsDoNotCollideWithHibernateIds() {
+        EmployeeEntity manager = createEmployee("copy-ids-manager", null);
+        EmployeeEntity subordinate = createEmployee("copy-ids-subordinate", manager);
+
+        Map<Integer, String> firstRejected = timeEntryService.createAll(entries(manager, 0, HIBERNATE_ENTRIES), manager);
+        ImportReport firstCopy = importCopy(manager, csv(subordinate, 0, FIRST_COPY_ENTRIES));
+        Map<Integer, String> secondRejected = timeEntryService.createAll(
+                entries(manager, HIBERNATE_ENTRIES, HIBERNATE_ENTRIES), manager);
+        ImportReport secondCopy = importCopy(manager, csv(subordinate, FIRST_COPY_ENTRIES, SECOND_COPY_ENTRIES));
+        Map<Integer, String> thirdRejected = timeEntryService.createAll(
+                entries(manager, 2 * HIBERNATE_ENTRIES, HIBERNATE_ENTRIES), manager);
+
+        assertThat(firstRejected).isEmpty();
+        assertThat(secondRejected).isEmpty();
+        assertThat(thirdRejected).isEmpty();
+        assertThat(firstCopy.getImported()).isEqualTo(FIRST_COPY_ENTRIES);
+        assertThat(secondCopy.getImported()).isEqualTo(SECOND_COPY_ENTRIES);
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM time_entries WHERE employee_id IN (?, ?)",
+                Long.class, manager.getId(), subordinate.getId());
+        assertThat(ids).hasSize(3 * HIBERNATE_ENTRIES + FIRST_COPY_ENTRIES + SECOND_COPY_ENTRIES)
+                       .doesNotHaveDuplicates()
+                       .allMatch(id -> id > 0);
+    }
+
+    @Test
+    void copyReportsConflictRows() {
+        EmployeeEntity manager = createEmployee("copy-conflicts-manager", null);
+        EmployeeEntity subordinate = createEmployee("copy-conflicts-subordinate", manager);
+        timeEntryService.createAll(entries(subordinate, 0, 1), manager);
+        long unknownId = subordinate.getId() + 1_000_000;
+
+        String content = HEADER
+                + row(subordinate.getId(), 0)   // строка 2: запись уже есть в БД
+                + row(subordinate.getId(), 1)   // строка 3: принята
+                + row(subordinate.getId(), 1)   // строка 4: повтор строки 3
+                + row(unknownId, 2)             // строка 5: сотрудника нет
+                + row(manager.getId(), 1);      // строка 6: принята
+        ImportReport report = importCopy(manager, content);
+
+        assertThat(report.getTotalRows()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportRowError::getRowNumber, ImportRowError::getEmployeeId,
+                                                  ImportRowError::getWorkDate)
+                                      .containsExactly(
+                                              tuple(2L, subordinate.getId(), START),
+                                              tuple(4L, subordinate.getId(), START.plusDays(1)),
+                                              tuple(5L, unknownId, START.plusDays(2)));
+        assertThat(report.getErrors().get(0).getReason()).contains("уже существует");
+        assertThat(report.getErrors().get(1).getReason()).contains("уже существует");
+        assertThat(report.getErrors().get(2).getReason()).contains("не найден");
+        assertThat(countEntries(subordinate)).isEqualTo(2);
+        assertThat(countEntries(manager)).isEqualTo(1);
+    }
+
+    @Test
+    void copyImportForNonEditableEmployeeIsForbidden() {
+        EmployeeEntity manager = createEmployee("copy-forbidden-manager", null);
+        EmployeeEntity direct = createEmployee("copy-forbidden-direct", manager);
+        EmployeeEntity indirect = createEmployee("copy-forbidden-indirect", direct);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                manager.getEmployeeName(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        String content = HEADER + row(manager.getId(), 0) + row(indirect.getId(), 0);
+        ResponseEntity<?> response = csvController.importTimeEntries(file(content), ImportMode.COPY);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(response.getBody()).asString().contains(indirect.getEmployeeName());
+        assertThat(countEntries(manager)).isZero();
+        assertThat(countEntries(indirect)).isZero();
+    }
+
+    private ImportReport importCopy(EmployeeEntity actor, String content) {
+        return timeEntryImportService.importFile(file(content), actor, ImportMode.COPY);
+    }
+
+    private long countEntries(EmployeeEntity employee) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM time_entries WHERE employee_id = ?",
+                Long.class, employee.getId());
+        return count != null ? count : 0;
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "entries.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csv(EmployeeEntity employee, int fromDay, int count) {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int day = fromDay; day < fromDay + count; day++) {
+            content.append(row(employee.getId(), day));
+        }
+        return content.toString();
+    }
+
+    private static String row(long employeeId, int day) {
+        return "1;" + employeeId + ";" + START.plusDays(day) + ";admin;employee;8.00\n";
+    }
+
+    private static List<TimeEntryDTO> entries(EmployeeEntity employee, int fromDay, int count) {
+        EmployeeDTO target = EmployeeDTO.builder()
+                                        .id(employee.getId())
+                                        .build();
+        List<TimeEntryDTO> entries = new ArrayList<>(count);
+        for (int day = fromDay; day < fromDay + count; day++) {
+            entries.add(TimeEntryDTO.builder()
+                                    .workDate(START.plusDays(day))
+                                    .hoursWorked(BigDecimal.valueOf(8))
+                                    .employee(target)
+                                    .build());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.dto.ExportMode;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.parseCSV.FileExtension;
+import com.example.accounting_employee_time.service.ExportCacheService.Key;
+import com.example.accounting_employee_time.service.TimeEntryExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Экспорт записей времени: имена сотрудника и создателя выбираются тем же запросом, что и записи,
+ * поэтому число SQL-запросов не зависит от числа сотрудников и строк.
+ */
+class TimeEntryExportServiceImplTest extends PostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final int DAYS_PER_EMPLOYEE = 3;
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Test
+    void exportStatementCountDoesNotDependOnEmployeeCount() {
+        EmployeeEntity manager = createEmployee("export-manager", null);
+        List<Long> subordinateIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            EmployeeEntity subordinate = createEmployee("export-subordinate-" + i, manager);
+            insertEntries(subordinate, manager, START, DAYS_PER_EMPLOYEE, 480);
+            subordinateIds.add(subordinate.getId());
+        }
+
+        // Первый экспорт строит индекс иерархии, дальше проверка доступа к БД не обращается
+        export(manager, subordinateIds.subList(0, 1));
+
+        statistics().clear();
+        String small = export(manager, subordinateIds.subList(0, 2));
+        long smallStatements = statistics().getPrepareStatementCount();
+
+        statistics().clear();
+        String large = export(manager, subordinateIds);
+        long largeStatements = statistics().getPrepareStatementCount();
+
+        assertThat(small.lines().count()).isEqualTo(1 + 2 * DAYS_PER_EMPLOYEE);
+        assertThat(large.lines().count()).isEqualTo(1 + 6 * DAYS_PER_EMPLOYEE);
+        assertThat(large).contains("export-subordinate-5", "export-manager");
+        assertThat(largeStatements).isEqualTo(smallStatements)
+                                   .isLessThanOrEqualTo(1);
+    }
+
+    private String export(EmployeeEntity actor, List<Long> employeeIds) {
+        Key key = timeEntryExportService.prepare(actor, employeeIds, START, START.plusDays(DAYS_PER_EMPLOYEE),
+                FileExtension.CSV, ExportMode.STANDARD);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        timeEntryExportService.export(key, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.accounting_employee_time.service.impl;
+
+import com.example.accounting_employee_time.PostgresIntegrationTest;
+import com.example.accounting_employee_time.dto.EmployeeDTO;
+import com.example.accounting_employee_time.dto.TimeEntryDTO;
+import com.example.accounting_employee_time.entity.EmployeeEntity;
+import com.example.accounting_employee_time.service.EmployeeService;
+import com.example.accounting_employee_time.service.TimeEntryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка доступа к явно переданному списку сотрудников: весь список проверяется по индексу иерархии в памяти,
+ * поэтому число SQL-запросов не зависит от числа идентификаторов.
+ * Пакетное создание записей обходится фиксированным числом запросов на пакет JDBC, а не несколькими на строку
+ * (скорость обоих способов сравнивает {@code TimeEntryCreateBenchmark}).
+ */
+class TimeEntryServiceImplTest extends PostgresIntegrationTest {
+
+    private static final int REQUESTED_IDS = 500;
+    private static final int DIRECT_SUBORDINATES = 10;
+    private static final int INDIRECT_PER_DIRECT = 4;
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final int ROW_BY_ROW_ENTRIES = 100;
+    private static final int BATCHED_ENTRIES = 1000;
+
+    /**
+     * {@code hibernate.jdbc.batch_size} и {@code allocationSize} последовательности записей времени.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Запросы пакета, не зависящие от числа строк: сотрудники пакета и уже существующие записи.
+     */
+    private static final int FIXED_BATCH_STATEMENTS = 2;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void explicitEmployeeIdsAreCheckedWithoutStatements() {
+        EmployeeEntity manager = createEmployee("access-manager", null);
+        Set<Long> subordinateIds = new HashSet<>();
+        Set<Long> directIds = new HashSet<>();
+        for (int i = 0; i < DIRECT_SUBORDINATES; i++) {
+            EmployeeEntity direct = createEmployee("access-direct-" + i, manager);
+            directIds.add(direct.getId());
+            subordinateIds.add(direct.getId());
+            for (int j = 0; j < INDIRECT_PER_DIRECT; j++) {
+                subordinateIds.add(createEmployee("access-indirect-" + i + "-" + j, direct).getId());
+            }
+        }
+        EmployeeEntity outsider = createEmployee("access-outsider", null);
+        EmployeeEntity outsiderSubordinate = createEmployee("access-outsider-subordinate", outsider);
+
+        List<Long> requested = new ArrayList<>(subordinateIds);
+        requested.add(manager.getId());
+        requested.add(outsider.getId());
+        requested.add(outsiderSubordinate.getId());
+        long missingId = outsiderSubordinate.getId() + 1_000_000;
+        while (requested.size() < REQUESTED_IDS) {
+            requested.add(missingId++);
+        }
+
+        // Индекс иерархии строится при первом обращении, дальше проверки к БД не обращаются
+        timeEntryService.resolveAccessibleEmployeeIds(manager, List.of(manager.getId()));
+
+        statistics().clear();
+        Set<Long> accessible = timeEntryService.resolveAccessibleEmployeeIds(manager, requested);
+        Set<Long> filtered = employeeService.filterAccessibleIds(manager, requested);
+        Set<Long> editable = employeeService.filterEditableIds(manager, requested);
+        long statements = statistics().getPrepareStatementCount();
+
+        Set<Long> expected = new HashSet<>(subordinateIds);
+        expected.add(manager.getId());
+        Set<Long> expectedEditable = new HashSet<>(directIds);
+        expectedEditable.add(manager.getId());
+
+        assertThat(requested).hasSize(REQUESTED_IDS);
+        assertThat(accessible).isEqualTo(expected);
+        assertThat(filtered).isEqualTo(expected);
+        assertThat(editable).isEqualTo(expectedEditable);
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void createAllNeedsFixedStatementsPerJdbcBatch() {
+        EmployeeEntity employee = createEmployee("batch-employee", null);
+        List<TimeEntryDTO> rowByRow = entries(employee, 0, ROW_BY_ROW_ENTRIES);
+        List<TimeEntryDTO> batched = entries(employee, ROW_BY_ROW_ENTRIES, BATCHED_ENTRIES);
+
+        statistics().clear();
+        rowByRow.forEach(dto -> timeEntryService.create(dto, employee.getEmployeeName()));
+        long rowByRowStatements = statistics().getPrepareStatementCount();
+
+        statistics().clear();
+        Map<Integer, String> rejected = timeEntryService.createAll(batched, employee);
+        long batchedStatements = statistics().getPrepareStatementCount();
+
+        assertThat(rejected).isEmpty();
+        assertThat(rowByRowStatements).isGreaterThanOrEqualTo(3L * ROW_BY_ROW_ENTRIES);
+        // На каждый пакет JDBC — один INSERT и один nextval на блок идентификаторов
+        assertThat(batchedStatements).isLessThanOrEqualTo(FIXED_BATCH_STATEMENTS + 2L * BATCHED_ENTRIES / BATCH_SIZE);
+    }
+
+    @Test
+    void createAllRejectsOnlyExactExistingPairs() {
+        EmployeeEntity manager = createEmployee("pairs-manager", null);
+        EmployeeEntity first = createEmployee("pairs-first", manager);
+        EmployeeEntity second = createEmployee("pairs-second", manager);
+        timeEntryService.createAll(List.of(entries(first, 0, 1).get(0), entries(second, 1, 1).get(0)), manager);
+
+        // Даты первого и второго сотрудника пересекаются по диапазону, но не по парам
+        List<TimeEntryDTO> batch = List.of(entries(first, 1, 1).get(0),
+                entries(second, 0, 1).get(0),
+                entries(first, 0, 1).get(0),
+                entries(second, 2, 1).get(0),
+                entries(second, 2, 1).get(0));
+        Map<Integer, String> rejected = timeEntryService.createAll(batch, manager);
+
+        assertThat(rejected).containsOnlyKeys(2, 4);
+    }
+
+    private static List<TimeEntryDTO> entries(EmployeeEntity employee, int fromDay, int count) {
+        EmployeeDTO target = EmployeeDTO.builder()
+                                        .id(employee.getId())
+                                        .build();
+        List<TimeEntryDTO> entries = new ArrayList<>(count);
+        for (int day = fromDay; day < fromDay + count; day++) {
+            entries.add(TimeEntryDTO.builder()
+                                    .workDate(START.plusDays(day))
+                                    .hoursWorked(BigDecimal.valueOf(8))
+                                    .employee(target)
+                                    .build());
+        }
+        return entries;
+    }
+}